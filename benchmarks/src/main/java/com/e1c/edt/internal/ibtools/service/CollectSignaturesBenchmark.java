@@ -0,0 +1,81 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures collection of signatures of a whole project by {@link SignatureCollector}: hashing of every resource and
+ * a run over a signature cache of the previous collection where every resource is a hit.
+ *
+ * @author Alexander Tretyakevich
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CollectSignaturesBenchmark
+{
+    @Param({ "1000", "10000", "50000" })
+    private int files;
+
+    @Param({ "2048" })
+    private int medianFileSize;
+
+    private Path folder;
+    private Path projectFolder;
+    private SignatureCollector collector;
+    private SignatureCache cache;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        folder = Files.createTempDirectory("ib-sync-state-bench"); //$NON-NLS-1$
+        projectFolder = folder.resolve("project"); //$NON-NLS-1$
+        SyntheticDataGenerator.generateProject(projectFolder, files, medianFileSize,
+            Math.max(SyntheticDataGenerator.DEFAULT_MAX_FILE_SIZE, medianFileSize), 1);
+        collector = new SignatureCollector(GenerationSettings.DEFAULT);
+        cache = SignatureCache.inMemory(projectFolder, null);
+        collector.collect(projectFolder, cache);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        collector.close();
+        SyntheticDataGenerator.delete(folder);
+    }
+
+    @Benchmark
+    public Map<Path, byte[]> collectSignatures()
+    {
+        return collector.collect(projectFolder, (SignatureCache)null);
+    }
+
+    @Benchmark
+    public Map<Path, byte[]> collectSignaturesCached()
+    {
+        cache = SignatureCache.inMemory(projectFolder, cache);
+        return collector.collect(projectFolder, cache);
+    }
+}
@@ -0,0 +1,64 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures hashing of a single resource by {@link SignatureHasher#computeSignature(Path, long)} from small resources
+ * read at once to large ones read through the large buffer. The file stays in the page cache, so it is hashing what
+ * is measured.
+ *
+ * @author Alexander Tretyakevich
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class ComputeSignatureBenchmark
+{
+    @Param({ "1024", "65536", "1048576", "16777216" })
+    private int size;
+
+    private Path folder;
+    private Path file;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        folder = Files.createTempDirectory("ib-sync-state-bench"); //$NON-NLS-1$
+        SyntheticDataGenerator.generateProject(folder.resolve("project"), 1, size, size, 1); //$NON-NLS-1$
+        file = folder.resolve("project/src/Configuration/Configuration.mdo"); //$NON-NLS-1$
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        SyntheticDataGenerator.delete(folder);
+    }
+
+    @Benchmark
+    public byte[] computeSignature()
+    {
+        return SignatureHasher.computeSignature(file, size);
+    }
+}
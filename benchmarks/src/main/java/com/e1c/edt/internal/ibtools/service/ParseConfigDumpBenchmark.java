@@ -0,0 +1,80 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import com.e1c.edt.internal.ibtools.service.ConfigDumpInfoParser.IngestResult;
+import com.e1c.edt.internal.ibtools.service.EdtIBSynchronizationStateManager.ConfigDumpParseResult;
+
+/**
+ * Measures reading of ConfigDumpInfo.xml: the parallel parsing, the single pass parsing with digesting used for
+ * ingestion and {@link EdtIBSynchronizationStateManager#parseConfigDump(Path)} with a valid binary sidecar.
+ *
+ * @author Alexander Tretyakevich
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class ParseConfigDumpBenchmark
+{
+    @Param({ "10000", "100000", "500000" })
+    private int metadata;
+
+    private Path folder;
+    private Path cdiFile;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        folder = Files.createTempDirectory("ib-sync-state-bench"); //$NON-NLS-1$
+        cdiFile = folder.resolve(SyntheticDataGenerator.CONFIG_DUMP_INFO);
+        SyntheticDataGenerator.generateConfigDump(cdiFile, metadata, 2);
+        // Writes the sidecar
+        EdtIBSynchronizationStateManager.parseConfigDump(cdiFile);
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        SyntheticDataGenerator.delete(folder);
+    }
+
+    @Benchmark
+    public ConfigDumpParseResult parseConfigDump()
+    {
+        return ConfigDumpInfoParser.parse(cdiFile);
+    }
+
+    @Benchmark
+    public IngestResult ingestConfigDump()
+    {
+        return ConfigDumpInfoParser.ingest(cdiFile, null);
+    }
+
+    @Benchmark
+    public ConfigDumpParseResult parseConfigDumpCached()
+    {
+        return EdtIBSynchronizationStateManager.parseConfigDump(cdiFile);
+    }
+}
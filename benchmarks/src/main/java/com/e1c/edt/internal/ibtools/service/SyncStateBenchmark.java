@@ -0,0 +1,94 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+/**
+ * Measures loading of a sync. state and comparison of two states differing in a given share of resources and a
+ * single ConfigDumpInfo.xml record: states without summaries are loaded and compared entry by entry, states with
+ * summaries ('index.mrk') are compared by their Merkle trees.
+ *
+ * @author Alexander Tretyakevich
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class SyncStateBenchmark
+{
+    @Param({ "10000", "100000", "500000" })
+    private int entries;
+
+    @Param({ "0.01" })
+    private double changeRatio;
+
+    @Param({ "false", "true" })
+    private boolean summary;
+
+    private Path folder;
+    private Path sourceStateFolder;
+    private Path destinationStateFolder;
+    private EdtIBSynchronizationStateManager manager;
+
+    @Setup
+    public void setUp() throws IOException
+    {
+        folder = Files.createTempDirectory("ib-sync-state-bench"); //$NON-NLS-1$
+        Path sourceCdiFile = folder.resolve("source-" + SyntheticDataGenerator.CONFIG_DUMP_INFO); //$NON-NLS-1$
+        Path destinationCdiFile = folder.resolve("destination-" + SyntheticDataGenerator.CONFIG_DUMP_INFO); //$NON-NLS-1$
+        SyntheticDataGenerator.generateConfigDump(sourceCdiFile, entries, 2);
+        SyntheticDataGenerator.generateConfigDump(destinationCdiFile, entries, 2);
+        // A changed version of the last record
+        String content = Files.readString(destinationCdiFile);
+        int version = content.lastIndexOf("configVersion=\"") + "configVersion=\"".length(); //$NON-NLS-1$ //$NON-NLS-2$
+        Files.writeString(destinationCdiFile,
+            content.substring(0, version) + (content.charAt(version) == '0' ? '1' : '0') + content.substring(version + 1));
+
+        Map<String, byte[]> signatures = SyntheticDataGenerator.generateSignatures(entries, 3);
+        sourceStateFolder = folder.resolve("source"); //$NON-NLS-1$
+        destinationStateFolder = folder.resolve("destination"); //$NON-NLS-1$
+        SyntheticDataGenerator.generateState(sourceStateFolder, signatures, sourceCdiFile, summary);
+        SyntheticDataGenerator.generateState(destinationStateFolder,
+            SyntheticDataGenerator.mutateSignatures(signatures, changeRatio, 4), destinationCdiFile, summary);
+        manager = new EdtIBSynchronizationStateManager();
+    }
+
+    @TearDown
+    public void tearDown()
+    {
+        SyntheticDataGenerator.delete(folder);
+    }
+
+    @Benchmark
+    public InfobaseSyncState parseState()
+    {
+        return SyncStateLoader.loadSingleState(sourceStateFolder, "configuration", "Configuration"); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    @Benchmark
+    public SyncStateDiff compareIBSyncStates()
+    {
+        return manager.compareIBSyncStates(sourceStateFolder, destinationStateFolder);
+    }
+}
@@ -0,0 +1,393 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Generates reproducible synthetic inputs of sync. state services: EDT project trees, ConfigDumpInfo.xml files and
+ * sync. states ('index.idx' along with ConfigDumpInfo.xml and optionally 'index.mrk').<br>
+ *
+ * A project consists of metadata objects of several types with a few resources each laid out like an EDT project
+ * ('src/Catalogs/Catalog1/Catalog1.mdo', 'src/Catalogs/Catalog1/Forms/ItemForm/Module.bsl' etc.). Resource sizes
+ * follow a log-normal distribution around a given median: most resources are small, some are large. ConfigDumpInfo.xml
+ * describes the same kind of objects: an object, its forms and modules, the most of records have versions.<br>
+ *
+ * The same seed gives the same content. Generated files are backdated, so their modification times are trusted by
+ * the caches and summaries of the services like the ones of files which are not being changed.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyntheticDataGenerator
+{
+    /**
+     * The default median size of a generated resource in bytes
+     */
+    static final int DEFAULT_MEDIAN_FILE_SIZE = 2048;
+
+    /**
+     * The default maximum size of a generated resource in bytes
+     */
+    static final int DEFAULT_MAX_FILE_SIZE = 1 << 20;
+
+    /**
+     * The name of ConfigDumpInfo.xml in a sync. state, the EDT API defining it is not available to benchmarks
+     */
+    static final String CONFIG_DUMP_INFO = "ConfigDumpInfo.xml"; //$NON-NLS-1$
+
+    private static final String[][] OBJECT_TYPES = { { "Catalogs", "Catalog" }, { "Documents", "Document" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        { "CommonModules", "CommonModule" }, { "InformationRegisters", "InformationRegister" }, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        { "Reports", "Report" }, { "DataProcessors", "DataProcessor" } }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    /*
+     * Resources of an object relative to its folder, the first one is named after the object
+     */
+    private static final String[] OBJECT_RESOURCES =
+        { ".mdo", "ObjectModule.bsl", "Forms/ItemForm/Form.form", "Forms/ItemForm/Module.bsl" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+
+    /*
+     * Records of an object in ConfigDumpInfo.xml and whether they have versions
+     */
+    private static final String[] OBJECT_RECORDS = { "", ".ObjectModule", ".Form.ItemForm", ".Form.ItemForm.Form" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+    private static final boolean[] VERSIONED_RECORDS = { true, true, false, true };
+
+    private static final String OBJECT_NAME = "Объект"; //$NON-NLS-1$
+    private static final double SIZE_SIGMA = 1.5;
+    private static final int CONTENT_BLOCK_SIZE = 1 << 20;
+    private static final long BACKDATE_MILLIS = TimeUnit.HOURS.toMillis(1);
+
+    private SyntheticDataGenerator()
+    {
+        // Utility class
+    }
+
+    /**
+     * Generates an EDT project of the configuration nature.
+     *
+     * @param projectFolder The folder of the project, it must not exist. Cannot be {@code null}
+     * @param fileCount The number of resources in the 'src' folder, positive
+     * @param medianFileSize The median size of a resource in bytes, positive
+     * @param maxFileSize The maximum size of a resource in bytes, not less than the median size
+     * @param seed The seed of the content
+     * @return The total size of the resources in bytes
+     */
+    static long generateProject(Path projectFolder, int fileCount, int medianFileSize, int maxFileSize, long seed)
+    {
+        Preconditions.checkNotNull(projectFolder);
+        Preconditions.checkArgument(fileCount > 0);
+        Preconditions.checkArgument(medianFileSize > 0 && maxFileSize >= medianFileSize);
+
+        Random random = new Random(seed);
+        byte[] content = newContentBlock(random);
+        FileTime modified = backdatedTime();
+        long totalSize = 0;
+        try
+        {
+            Files.createDirectories(projectFolder);
+            Files.writeString(projectFolder.resolve(".project"), //$NON-NLS-1$
+                "<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n<projectDescription>\n\t<name>" //$NON-NLS-1$
+                    + projectFolder.getFileName() + "</name>\n\t<natures>\n\t\t<nature>conf</nature>\n" //$NON-NLS-1$
+                    + "\t</natures>\n</projectDescription>\n"); //$NON-NLS-1$
+
+            Path sourceFolder = projectFolder.resolve(EdtIBSynchronizationStateManager.SOURCE_FOLDER);
+            totalSize += writeResource(sourceFolder.resolve("Configuration/Configuration.mdo"), content, //$NON-NLS-1$
+                randomSize(random, medianFileSize, maxFileSize), random, modified);
+            for (int idx = 1; idx < fileCount; idx++)
+            {
+                int object = (idx - 1) / OBJECT_RESOURCES.length;
+                int resource = (idx - 1) % OBJECT_RESOURCES.length;
+                String[] type = OBJECT_TYPES[object % OBJECT_TYPES.length];
+                String name = OBJECT_NAME + object;
+                String relativePath = resource == 0 ? name + OBJECT_RESOURCES[0] : OBJECT_RESOURCES[resource];
+                totalSize += writeResource(sourceFolder.resolve(type[0]).resolve(name).resolve(relativePath), content,
+                    randomSize(random, medianFileSize, maxFileSize), random, modified);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return totalSize;
+    }
+
+    /**
+     * Generates a ConfigDumpInfo.xml file of a configuration.
+     *
+     * @param file The file to write. Cannot be {@code null}
+     * @param metadataCount The number of {@code <Metadata>} records, positive
+     * @param seed The seed of UUIDs and versions
+     */
+    static void generateConfigDump(Path file, int metadataCount, long seed)
+    {
+        Preconditions.checkNotNull(file);
+        Preconditions.checkArgument(metadataCount > 0);
+
+        Random random = new Random(seed);
+        try
+        {
+            Files.createDirectories(file.toAbsolutePath().getParent());
+            try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8))
+            {
+                writer.write("<?xml version=\"1.0\" encoding=\"UTF-8\"?>\n"); //$NON-NLS-1$
+                writer.write("<ConfigDumpInfo xmlns=\"http://v8.1c.ru/8.3/xcf/dumpinfo\" " //$NON-NLS-1$
+                    + "format=\"Hierarchical\" version=\"2.18\">\n\t<ConfigVersions>\n"); //$NON-NLS-1$
+                writeMetadata(writer, "Configuration.Конфигурация", random, true); //$NON-NLS-1$
+                for (int idx = 1; idx < metadataCount; idx++)
+                {
+                    int object = (idx - 1) / OBJECT_RECORDS.length;
+                    int record = (idx - 1) % OBJECT_RECORDS.length;
+                    writeMetadata(writer, OBJECT_TYPES[object % OBJECT_TYPES.length][1] + '.' + OBJECT_NAME + object
+                        + OBJECT_RECORDS[record], random, VERSIONED_RECORDS[record]);
+                }
+                writer.write("\t</ConfigVersions>\n</ConfigDumpInfo>\n"); //$NON-NLS-1$
+            }
+            Files.setLastModifiedTime(file, backdatedTime());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates EDT resource signatures as they are written to 'index.idx'.
+     *
+     * @param count The number of signatures, positive
+     * @param seed The seed of the signatures
+     * @return Signatures mapped to resource relative paths. Never {@code null}
+     */
+    static Map<String, byte[]> generateSignatures(int count, long seed)
+    {
+        Preconditions.checkArgument(count > 0);
+
+        Random random = new Random(seed);
+        Map<String, byte[]> signatures = new HashMap<>(count * 4 / 3 + 1);
+        signatures.put("src/Configuration/Configuration.mdo", randomSignature(random)); //$NON-NLS-1$
+        for (int idx = 1; idx < count; idx++)
+        {
+            int object = (idx - 1) / OBJECT_RESOURCES.length;
+            int resource = (idx - 1) % OBJECT_RESOURCES.length;
+            String name = OBJECT_NAME + object;
+            signatures.put(EdtIBSynchronizationStateManager.SOURCE_FOLDER + '/'
+                + OBJECT_TYPES[object % OBJECT_TYPES.length][0] + '/' + name + '/'
+                + (resource == 0 ? name + OBJECT_RESOURCES[0] : OBJECT_RESOURCES[resource]), randomSignature(random));
+        }
+        return signatures;
+    }
+
+    /**
+     * Derives signatures of a changed project: a given share of resources is changed, a half of that share is removed
+     * and the same number of resources is added.
+     *
+     * @param signatures The original signatures. Cannot be {@code null}
+     * @param changeRatio The share of changed resources from 0 to 1
+     * @param seed The seed of the changes
+     * @return New signatures mapped to resource relative paths. Never {@code null}
+     */
+    static Map<String, byte[]> mutateSignatures(Map<String, byte[]> signatures, double changeRatio, long seed)
+    {
+        Preconditions.checkNotNull(signatures);
+        Preconditions.checkArgument(changeRatio >= 0 && changeRatio <= 1);
+
+        Random random = new Random(seed);
+        List<String> paths = new ArrayList<>(signatures.keySet());
+        paths.sort(Comparator.naturalOrder());
+        Map<String, byte[]> mutated = new HashMap<>(signatures);
+        int changes = (int)(paths.size() * changeRatio);
+        for (int idx = 0; idx < changes; idx++)
+        {
+            String path = paths.get(random.nextInt(paths.size()));
+            mutated.put(path, randomSignature(random));
+        }
+        for (int idx = 0; idx < changes / 2; idx++)
+        {
+            mutated.remove(paths.get(random.nextInt(paths.size())));
+            mutated.put(EdtIBSynchronizationStateManager.SOURCE_FOLDER + "/CommonModules/" + OBJECT_NAME + "Новый" //$NON-NLS-1$ //$NON-NLS-2$
+                + idx + "/Module.bsl", randomSignature(random)); //$NON-NLS-1$
+        }
+        return mutated;
+    }
+
+    /**
+     * Writes a sync. state from given signatures and a ConfigDumpInfo.xml file.
+     *
+     * @param stateFolder The folder of the state. Cannot be {@code null}
+     * @param signatures Signatures mapped to resource relative paths. Cannot be {@code null}
+     * @param configDumpInfoFile The ConfigDumpInfo.xml file of the state. Cannot be {@code null}
+     * @param summary Whether the summary ('index.mrk') should be written
+     */
+    static void generateState(Path stateFolder, Map<String, byte[]> signatures, Path configDumpInfoFile,
+        boolean summary)
+    {
+        Preconditions.checkNotNull(stateFolder);
+        Preconditions.checkNotNull(signatures);
+        Preconditions.checkNotNull(configDumpInfoFile);
+
+        try
+        {
+            Files.createDirectories(stateFolder);
+            Path cdiFile = stateFolder.resolve(CONFIG_DUMP_INFO);
+            ConfigDumpInfoParser.IngestResult configDumpInfo = ConfigDumpInfoParser.ingest(configDumpInfoFile, cdiFile);
+            Files.setLastModifiedTime(cdiFile, backdatedTime());
+
+            String configurationUUID = configDumpInfo.parseResult().configurationUUID();
+            String generationId = UUID.nameUUIDFromBytes(configDumpInfo.digest()).toString();
+            SyncIndexWriter.write(stateFolder.resolve(EdtIBSynchronizationStateManager.INDEX_FILE), signatures,
+                generationId, configurationUUID, false);
+            if (summary)
+            {
+                SyncStateSummary.write(stateFolder, signatures, generationId, configurationUUID,
+                    configDumpInfo.parseResult().versions(), configDumpInfo.digest());
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Deletes a folder tree if it exists
+     *
+     * @param folder The folder to delete. Cannot be {@code null}
+     */
+    static void delete(Path folder)
+    {
+        if (!Files.exists(folder))
+        {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder))
+        {
+            for (Path path : paths.sorted(Comparator.reverseOrder()).toList())
+            {
+                Files.delete(path);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Generates a data set to try the services or the CLI commands on: a project ('project'), its ConfigDumpInfo.xml
+     * and a state ('state') in a given folder.<br>
+     *
+     * Arguments: the output folder, the number of project resources, the number of ConfigDumpInfo.xml records and
+     * optionally the median and the maximum resource sizes in bytes.
+     *
+     * @param args The arguments. Cannot be {@code null}
+     */
+    public static void main(String[] args)
+    {
+        if (args.length < 3)
+        {
+            System.out.println("Arguments: <output folder> <files> <metadata records> [<median size> [<max size>]]"); //$NON-NLS-1$
+            System.exit(1);
+        }
+        Path outputFolder = Path.of(args[0]);
+        int fileCount = Integer.parseInt(args[1]);
+        int metadataCount = Integer.parseInt(args[2]);
+        int medianFileSize = args.length > 3 ? Integer.parseInt(args[3]) : DEFAULT_MEDIAN_FILE_SIZE;
+        int maxFileSize = args.length > 4 ? Integer.parseInt(args[4]) : Math.max(DEFAULT_MAX_FILE_SIZE, medianFileSize);
+
+        long start = System.nanoTime();
+        Path projectFolder = outputFolder.resolve("project"); //$NON-NLS-1$
+        long totalSize = generateProject(projectFolder, fileCount, medianFileSize, maxFileSize, 1);
+        Path cdiFile = outputFolder.resolve(CONFIG_DUMP_INFO);
+        generateConfigDump(cdiFile, metadataCount, 2);
+        generateState(outputFolder.resolve("state"), generateSignatures(fileCount, 3), cdiFile, true); //$NON-NLS-1$
+        System.out.println(MessageFormat.format("{0} resources ({1} bytes) and {2} metadata records generated in {3} ms", //$NON-NLS-1$
+            fileCount, totalSize, metadataCount, TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    private static long writeResource(Path file, byte[] content, int size, Random random, FileTime modified)
+        throws IOException
+    {
+        Files.createDirectories(file.getParent());
+        try (OutputStream output = Files.newOutputStream(file))
+        {
+            int remaining = size;
+            while (remaining > 0)
+            {
+                int offset = random.nextInt(content.length);
+                int length = Math.min(remaining, content.length - offset);
+                output.write(content, offset, length);
+                remaining -= length;
+            }
+        }
+        Files.setLastModifiedTime(file, modified);
+        return size;
+    }
+
+    /*
+     * Text-like content: resources are sliced from it at random offsets
+     */
+    private static byte[] newContentBlock(Random random)
+    {
+        String alphabet = "абвгдеёжзийклмнопрстуфхцчшщъыьэюя abcdefghijklmnopqrstuvwxyz0123456789();=.\n\t"; //$NON-NLS-1$
+        StringBuilder content = new StringBuilder(CONTENT_BLOCK_SIZE);
+        for (int idx = 0; idx < CONTENT_BLOCK_SIZE; idx++)
+        {
+            content.append(alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return content.toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private static int randomSize(Random random, int medianFileSize, int maxFileSize)
+    {
+        double size = medianFileSize * Math.exp(SIZE_SIGMA * random.nextGaussian());
+        return (int)Math.min(Math.max(size, 0), maxFileSize);
+    }
+
+    private static byte[] randomSignature(Random random)
+    {
+        byte[] signature = new byte[SignatureHasher.newDigest().getDigestLength()];
+        random.nextBytes(signature);
+        return signature;
+    }
+
+    private static void writeMetadata(BufferedWriter writer, String name, Random random, boolean versioned)
+        throws IOException
+    {
+        writer.write("\t\t<Metadata name=\""); //$NON-NLS-1$
+        writer.write(name);
+        writer.write("\" id=\""); //$NON-NLS-1$
+        writer.write(new UUID(random.nextLong(), random.nextLong()).toString());
+        if (versioned)
+        {
+            byte[] version = new byte[20];
+            random.nextBytes(version);
+            writer.write("\" configVersion=\""); //$NON-NLS-1$
+            writer.write(HexFormat.of().formatHex(version));
+        }
+        writer.write("\"/>\n"); //$NON-NLS-1$
+    }
+
+    private static FileTime backdatedTime()
+    {
+        return FileTime.fromMillis(System.currentTimeMillis() - BACKDATE_MILLIS);
+    }
+}
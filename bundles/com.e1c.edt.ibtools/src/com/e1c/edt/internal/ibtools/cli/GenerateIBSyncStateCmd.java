@@ -3,16 +3,32 @@
  */
 package com.e1c.edt.internal.ibtools.cli;
 
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
 import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
 import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 import java.util.function.Function;
 
 import com._1c.g5.v8.dt.cli.api.CliApiException;
+import com._1c.g5.v8.dt.platform.services.core.infobases.sync.IConfigDumpInfoStore;
 import com.e1c.edt.internal.ibtools.service.EdtIBSynchronizationStateManager;
+import com.e1c.edt.internal.ibtools.service.GenerationSettings;
+import com.e1c.edt.internal.ibtools.service.GenerationStats;
+import com.e1c.edt.internal.ibtools.service.ProjectSyncSource;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff;
+import com.e1c.edt.internal.ibtools.service.SyncStateSession;
+import com.e1c.edt.internal.ibtools.service.SyncStateWatcher;
 import com.e1c.g5.v8.dt.cli.api.Argument;
 import com.e1c.g5.v8.dt.cli.api.CliCommand;
 import com.e1c.g5.v8.dt.cli.api.components.BaseCliCommand;
@@ -33,6 +49,15 @@ import com.google.inject.Inject;
 public class GenerateIBSyncStateCmd
     extends BaseCliCommand
 {
+    private static final String VIRTUAL_THREADS = "virtual"; //$NON-NLS-1$
+    private static final int VIRTUAL_THREADS_PER_PROCESSOR = 4;
+    private static final String HEAD = "HEAD"; //$NON-NLS-1$
+    private static final String QUIT = "quit"; //$NON-NLS-1$
+    private static final long DEFAULT_DEBOUNCE_MILLIS = 2000;
+    private static final String STANDARD_OUTPUT = "-"; //$NON-NLS-1$
+    private static final String VERIFY_ANY = "any"; //$NON-NLS-1$
+    private static final String VERIFY_FULL = "full"; //$NON-NLS-1$
+
     private EdtIBSynchronizationStateManager synchronizationStateManager;
 
     @Inject
@@ -55,13 +80,21 @@ public class GenerateIBSyncStateCmd
             descriptor = "GenerateIBSyncStateCmd_Project_source_config_dump_info_file") String sourceConfigDumpInfoFile,
         @Argument(value = "--gen-id", descriptor = "GenerateIBSyncStateCmd_Project_generation_id") String generationId,
         @Argument(value = "--ib-uuid", descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID") String targetIBUuid,
+        @Argument(value = "--ib-uuid-file",
+            descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID_File") String targetIBUuidFile,
         @Argument(value = "--target",
-            descriptor = "GenerateIBSyncStateCmd_Project_Sync_State_Target_Folder") String syncStateTargetFolder)
+            descriptor = "GenerateIBSyncStateCmd_Project_Sync_State_Target_Folder") String syncStateTargetFolder,
+        @Argument(value = "--signature-cache",
+            descriptor = "GenerateIBSyncStateCmd_Signature_Cache_File") String signatureCacheFile,
+        @Argument(value = "--blob-cache", descriptor = "GenerateIBSyncStateCmd_Blob_Cache_File") String blobCacheFile,
+        @Argument(value = "--threads", descriptor = "GenerateIBSyncStateCmd_Threads") String threads,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync,
+        @Argument(value = "--stats", descriptor = "GenerateIBSyncStateCmd_Stats") String statsFile)
     {
         Preconditions.checkNotNull(sourceProjectFolder);
         Preconditions.checkNotNull(sourceConfigDumpInfoFile);
         Preconditions.checkNotNull(generationId);
-        Preconditions.checkNotNull(targetIBUuid);
+        Preconditions.checkArgument(targetIBUuid != null || targetIBUuidFile != null);
         Preconditions.checkNotNull(syncStateTargetFolder);
 
         try
@@ -71,22 +104,175 @@ public class GenerateIBSyncStateCmd
             Path sourceConfigDumpInfoFilePath = validateAndGetFile(sourceConfigDumpInfoFile, location -> MessageFormat
                 .format(Messages.GenerateIBSyncStateCmd_SourceConfigDumpInfoFile__0__does_not_exist, location));
 
-            UUID uuid = null;
-            try
+            List<UUID> uuids = parseUuids(targetIBUuid, targetIBUuidFile);
+
+            GenerationSettings settings = getGenerationSettings(signatureCacheFile, blobCacheFile, threads, fsync);
+
+            GenerationStats stats = synchronizationStateManager.generateIBSyncState(sourceProjectFolderPath,
+                sourceConfigDumpInfoFilePath, generationId, uuids, getCurrentWorkDir().resolve(syncStateTargetFolder),
+                settings);
+            if (statsFile != null)
+            {
+                writeStats(stats, statsFile);
+            }
+        }
+        catch (UncheckedIOException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+    }
+
+    @CliCommand(command = "generate-ib-sync-states", value = "GenerateIBSyncStatesCmd_Description")
+    public void c1_generate_sync_states(
+        @Argument(value = "--manifest", descriptor = "GenerateIBSyncStatesCmd_Manifest") String manifestFile,
+        @Argument(value = "--workspace", descriptor = "GenerateIBSyncStatesCmd_Workspace") String workspaceFolder,
+        @Argument(value = "--cdi-folder",
+            descriptor = "GenerateIBSyncStatesCmd_Config_Dump_Info_Folder") String configDumpInfoFolder,
+        @Argument(value = "--gen-id", descriptor = "GenerateIBSyncStatesCmd_Generation_id") String generationId,
+        @Argument(value = "--ib-uuid", descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID") String targetIBUuid,
+        @Argument(value = "--ib-uuid-file",
+            descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID_File") String targetIBUuidFile,
+        @Argument(value = "--target",
+            descriptor = "GenerateIBSyncStateCmd_Project_Sync_State_Target_Folder") String syncStateTargetFolder,
+        @Argument(value = "--blob-cache", descriptor = "GenerateIBSyncStateCmd_Blob_Cache_File") String blobCacheFile,
+        @Argument(value = "--threads", descriptor = "GenerateIBSyncStateCmd_Threads") String threads,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync)
+    {
+        Preconditions.checkArgument(manifestFile != null || workspaceFolder != null);
+        Preconditions.checkArgument(targetIBUuid != null || targetIBUuidFile != null);
+        Preconditions.checkNotNull(syncStateTargetFolder);
+
+        try
+        {
+            Map<String, Path> workspaceProjects = Map.of();
+            if (workspaceFolder != null)
             {
-                uuid = UUID.fromString(targetIBUuid);
+                workspaceProjects = EdtIBSynchronizationStateManager.discoverProjects(validateAndGetFolder(
+                    workspaceFolder, location -> MessageFormat
+                        .format(Messages.GenerateIBSyncStatesCmd_WorkspaceFolder__0__does_not_exist, location)));
             }
-            catch (IllegalArgumentException e)
+
+            List<ProjectSyncSource> sources = manifestFile != null
+                ? parseManifest(manifestFile, workspaceProjects, generationId)
+                : getWorkspaceSources(workspaceProjects, configDumpInfoFolder, generationId);
+            if (sources.isEmpty())
             {
-                // It is not an UUID
-                throw new CliApiException(
-                    MessageFormat.format(Messages.GenerateIBSyncStateCmd_TargetIBUuid__0__is_invalid, targetIBUuid));
+                throw new CliApiException(MessageFormat.format(Messages.GenerateIBSyncStatesCmd_No_projects_in__0_,
+                    manifestFile != null ? manifestFile : workspaceFolder));
             }
 
-            synchronizationStateManager.generateIBSyncState(sourceProjectFolderPath, sourceConfigDumpInfoFilePath,
-                generationId, uuid, Paths.get(syncStateTargetFolder));
+            List<UUID> uuids = parseUuids(targetIBUuid, targetIBUuidFile);
+
+            synchronizationStateManager.generateIBSyncStates(sources, uuids,
+                getCurrentWorkDir().resolve(syncStateTargetFolder),
+                getGenerationSettings(null, blobCacheFile, threads, fsync));
         }
-        catch (UncheckedIOException e)
+        catch (UncheckedIOException | IllegalStateException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+    }
+
+    @CliCommand(command = "generate-ib-sync-state-from-git", value = "GenerateIBSyncStateFromGitCmd_Description")
+    public void c1_generate_sync_state_from_git(
+        @Argument(value = "--repository",
+            descriptor = "GenerateIBSyncStateFromGitCmd_Repository") String repositoryFolder,
+        @Argument(value = "--rev", descriptor = "GenerateIBSyncStateFromGitCmd_Revision") String revision,
+        @Argument(value = "--project-path",
+            descriptor = "GenerateIBSyncStateFromGitCmd_Project_Path") String projectPath,
+        @Argument(value = "--cdi",
+            descriptor = "GenerateIBSyncStateCmd_Project_source_config_dump_info_file") String sourceConfigDumpInfoFile,
+        @Argument(value = "--gen-id", descriptor = "GenerateIBSyncStateCmd_Project_generation_id") String generationId,
+        @Argument(value = "--ib-uuid", descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID") String targetIBUuid,
+        @Argument(value = "--ib-uuid-file",
+            descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID_File") String targetIBUuidFile,
+        @Argument(value = "--target",
+            descriptor = "GenerateIBSyncStateCmd_Project_Sync_State_Target_Folder") String syncStateTargetFolder,
+        @Argument(value = "--blob-cache",
+            descriptor = "GenerateIBSyncStateFromGitCmd_Blob_Cache_File") String blobCacheFile,
+        @Argument(value = "--threads", descriptor = "GenerateIBSyncStateCmd_Threads") String threads,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync,
+        @Argument(value = "--stats", descriptor = "GenerateIBSyncStateCmd_Stats") String statsFile)
+    {
+        Preconditions.checkNotNull(repositoryFolder);
+        Preconditions.checkNotNull(sourceConfigDumpInfoFile);
+        Preconditions.checkNotNull(generationId);
+        Preconditions.checkArgument(targetIBUuid != null || targetIBUuidFile != null);
+        Preconditions.checkNotNull(syncStateTargetFolder);
+
+        try
+        {
+            Path repositoryFolderPath = validateAndGetFolder(repositoryFolder, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateFromGitCmd_RepositoryFolder__0__does_not_exist, location));
+            Path sourceConfigDumpInfoFilePath = validateAndGetFile(sourceConfigDumpInfoFile, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateCmd_SourceConfigDumpInfoFile__0__does_not_exist, location));
+
+            List<UUID> uuids = parseUuids(targetIBUuid, targetIBUuidFile);
+
+            GenerationSettings settings = getGenerationSettings(null, blobCacheFile, threads, fsync);
+
+            GenerationStats stats = synchronizationStateManager.generateIBSyncState(repositoryFolderPath,
+                revision != null ? revision : HEAD, projectPath != null ? projectPath : "", //$NON-NLS-1$
+                sourceConfigDumpInfoFilePath, generationId, uuids, getCurrentWorkDir().resolve(syncStateTargetFolder),
+                settings);
+            if (statsFile != null)
+            {
+                writeStats(stats, statsFile);
+            }
+        }
+        catch (UncheckedIOException | IllegalStateException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+    }
+
+    @CliCommand(command = "watch-ib-sync-state", value = "WatchIBSyncStateCmd_Description")
+    public void c1_watch_sync_state(
+        @Argument(value = "--project",
+            descriptor = "GenerateIBSyncStateCmd_Project_source_project_location") String sourceProjectFolder,
+        @Argument(value = "--cdi",
+            descriptor = "GenerateIBSyncStateCmd_Project_source_config_dump_info_file") String sourceConfigDumpInfoFile,
+        @Argument(value = "--gen-id", descriptor = "GenerateIBSyncStateCmd_Project_generation_id") String generationId,
+        @Argument(value = "--ib-uuid", descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID") String targetIBUuid,
+        @Argument(value = "--ib-uuid-file",
+            descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID_File") String targetIBUuidFile,
+        @Argument(value = "--target",
+            descriptor = "GenerateIBSyncStateCmd_Project_Sync_State_Target_Folder") String syncStateTargetFolder,
+        @Argument(value = "--debounce", descriptor = "WatchIBSyncStateCmd_Debounce") String debounce,
+        @Argument(value = "--blob-cache", descriptor = "GenerateIBSyncStateCmd_Blob_Cache_File") String blobCacheFile,
+        @Argument(value = "--threads", descriptor = "GenerateIBSyncStateCmd_Threads") String threads,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync)
+    {
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(sourceConfigDumpInfoFile);
+        Preconditions.checkNotNull(generationId);
+        Preconditions.checkArgument(targetIBUuid != null || targetIBUuidFile != null);
+        Preconditions.checkNotNull(syncStateTargetFolder);
+
+        long debounceMillis = parseDebounce(debounce);
+        try
+        {
+            Path sourceProjectFolderPath = validateAndGetFolder(sourceProjectFolder, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateCmd_SourceProjectFolder__0__does_not_exist, location));
+            Path sourceConfigDumpInfoFilePath = validateAndGetFile(sourceConfigDumpInfoFile, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateCmd_SourceConfigDumpInfoFile__0__does_not_exist, location));
+            List<UUID> uuids = parseUuids(targetIBUuid, targetIBUuidFile);
+
+            try (SyncStateWatcher watcher = synchronizationStateManager.watchIBSyncState(sourceProjectFolderPath,
+                sourceConfigDumpInfoFilePath, generationId, uuids, getCurrentWorkDir().resolve(syncStateTargetFolder),
+                debounceMillis, getGenerationSettings(null, blobCacheFile, threads, fsync)))
+            {
+                System.out.println("Watching for changes. Enter an empty line to write the state now, " //$NON-NLS-1$
+                    + "\"quit\" or the end of the input to stop"); //$NON-NLS-1$
+                BufferedReader input = new BufferedReader(new InputStreamReader(System.in));
+                String line;
+                while ((line = input.readLine()) != null && !line.strip().equals(QUIT))
+                {
+                    watcher.write();
+                }
+            }
+        }
+        catch (IOException | UncheckedIOException | IllegalStateException e)
         {
             throw new CliApiException(e.getMessage(), e);
         }
@@ -97,19 +283,172 @@ public class GenerateIBSyncStateCmd
         @Argument(value = "--source",
             descriptor = "CompareIBSyncStatesCmd_Source_Synchronization_Index_Location") String sourceIndexFolder,
         @Argument(value = "--destination",
-            descriptor = "CompareIBSyncStatesCmd_Destination_Synchronization_Index_Location") String destinationIndexFolder)
+            descriptor = "CompareIBSyncStatesCmd_Destination_Synchronization_Index_Location") String destinationIndexFolder,
+        @Argument(value = "--format", descriptor = "CompareIBSyncStatesCmd_Format") String format)
     {
         Preconditions.checkNotNull(sourceIndexFolder);
         Preconditions.checkNotNull(destinationIndexFolder);
 
+        if (format != null && !SyncStateDiffPrinter.TEXT.equals(format)
+            && !SyncStateDiffPrinter.JSON_LINES.equals(format))
+        {
+            throw new CliApiException(MessageFormat.format(Messages.CompareIBSyncStatesCmd_Format__0__is_invalid, format));
+        }
+
         try
         {
             Path sourceIndexFolderPath = validateAndGetFolder(sourceIndexFolder, location -> MessageFormat
                 .format(Messages.CompareIBSyncStatesCmd_SourceIndexFolder__0__does_not_exist, location));
-            Path destinationIndexFolderPath = validateAndGetFile(destinationIndexFolder, location -> MessageFormat
+            Path destinationIndexFolderPath = validateAndGetFolder(destinationIndexFolder, location -> MessageFormat
                 .format(Messages.CompareIBSyncStatesCmd_DestinationIndexFolder__0__does_not_exist, location));
 
-            synchronizationStateManager.compareIBSyncStates(sourceIndexFolderPath, destinationIndexFolderPath);
+            SyncStateDiff diff =
+                synchronizationStateManager.compareIBSyncStates(sourceIndexFolderPath, destinationIndexFolderPath);
+            new SyncStateDiffPrinter(SyncStateDiffPrinter.JSON_LINES.equals(format)).print(diff);
+        }
+        catch (UncheckedIOException | IllegalStateException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+    }
+
+    @CliCommand(command = "verify-ib-sync-state", value = "VerifyIBSyncStateCmd_Description")
+    public void c1_verify_sync_state(
+        @Argument(value = "--project",
+            descriptor = "GenerateIBSyncStateCmd_Project_source_project_location") String sourceProjectFolder,
+        @Argument(value = "--state", descriptor = "VerifyIBSyncStateCmd_State_Location") String stateFolder,
+        @Argument(value = "--mode", descriptor = "VerifyIBSyncStateCmd_Mode") String mode,
+        @Argument(value = "--signature-cache",
+            descriptor = "GenerateIBSyncStateCmd_Signature_Cache_File") String signatureCacheFile,
+        @Argument(value = "--threads", descriptor = "GenerateIBSyncStateCmd_Threads") String threads,
+        @Argument(value = "--format", descriptor = "CompareIBSyncStatesCmd_Format") String format)
+    {
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(stateFolder);
+
+        if (mode != null && !VERIFY_ANY.equals(mode) && !VERIFY_FULL.equals(mode))
+        {
+            throw new CliApiException(MessageFormat.format(Messages.VerifyIBSyncStateCmd_Mode__0__is_invalid, mode));
+        }
+        if (format != null && !SyncStateDiffPrinter.TEXT.equals(format)
+            && !SyncStateDiffPrinter.JSON_LINES.equals(format))
+        {
+            throw new CliApiException(MessageFormat.format(Messages.CompareIBSyncStatesCmd_Format__0__is_invalid, format));
+        }
+
+        SyncStateDiff diff;
+        try
+        {
+            Path sourceProjectFolderPath = validateAndGetFolder(sourceProjectFolder, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateCmd_SourceProjectFolder__0__does_not_exist, location));
+            Path stateFolderPath = validateAndGetFolder(stateFolder, location -> MessageFormat
+                .format(Messages.PatchIBSyncStateCmd_SourceStateFolder__0__does_not_exist, location));
+
+            diff = synchronizationStateManager.verifyIBSyncState(sourceProjectFolderPath, stateFolderPath,
+                !VERIFY_FULL.equals(mode), getGenerationSettings(signatureCacheFile, null, threads, null));
+            new SyncStateDiffPrinter(SyncStateDiffPrinter.JSON_LINES.equals(format)).print(diff);
+        }
+        catch (UncheckedIOException | IllegalStateException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+
+        if (!diff.isEmpty())
+        {
+            // A failed command lets scripts rely on its exit code
+            throw new CliApiException(
+                MessageFormat.format(Messages.VerifyIBSyncStateCmd_State__0__does_not_match, stateFolder));
+        }
+    }
+
+    @CliCommand(command = "patch-ib-sync-state", value = "PatchIBSyncStateCmd_Description")
+    public void c1_patch_sync_state(
+        @Argument(value = "--project",
+            descriptor = "PatchIBSyncStateCmd_Source_Project_Location") String sourceProjectFolder,
+        @Argument(value = "--state", descriptor = "PatchIBSyncStateCmd_Source_State_Location") String sourceStateFolder,
+        @Argument(value = "--base-rev", descriptor = "PatchIBSyncStateCmd_Base_Revision") String baseRevision,
+        @Argument(value = "--target-rev", descriptor = "PatchIBSyncStateCmd_Target_Revision") String targetRevision,
+        @Argument(value = "--ib-uuid", descriptor = "PatchIBSyncStateCmd_IB_UUID") String targetIBUuid,
+        @Argument(value = "--target",
+            descriptor = "PatchIBSyncStateCmd_Sync_State_Target_Folder") String syncStateTargetFolder,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync)
+    {
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkNotNull(baseRevision);
+
+        try
+        {
+            Path sourceProjectFolderPath = validateAndGetFolder(sourceProjectFolder, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateCmd_SourceProjectFolder__0__does_not_exist, location));
+            Path sourceStateFolderPath = validateAndGetFolder(sourceStateFolder, location -> MessageFormat
+                .format(Messages.PatchIBSyncStateCmd_SourceStateFolder__0__does_not_exist, location));
+
+            UUID uuid = null;
+            Path syncStateTargetFolderPath = null;
+            if (targetIBUuid != null || syncStateTargetFolder != null)
+            {
+                Preconditions.checkNotNull(targetIBUuid);
+                Preconditions.checkNotNull(syncStateTargetFolder);
+                uuid = parseUuid(targetIBUuid);
+                syncStateTargetFolderPath = getCurrentWorkDir().resolve(syncStateTargetFolder);
+            }
+
+            synchronizationStateManager.patchIBSyncState(sourceProjectFolderPath, sourceStateFolderPath,
+                baseRevision, targetRevision != null ? targetRevision : HEAD, uuid, syncStateTargetFolderPath,
+                getGenerationSettings(null, null, null, fsync));
+        }
+        catch (UncheckedIOException | IllegalStateException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+    }
+
+    @CliCommand(command = "retarget-ib-sync-state", value = "RetargetIBSyncStateCmd_Description")
+    public void c1_retarget_sync_state(
+        @Argument(value = "--state",
+            descriptor = "RetargetIBSyncStateCmd_Source_State_Location") String sourceStateFolder,
+        @Argument(value = "--ib-uuid", descriptor = "RetargetIBSyncStateCmd_IB_UUID") String targetIBUuid,
+        @Argument(value = "--ib-uuid-file",
+            descriptor = "GenerateIBSyncStateCmd_Project_IB_UUID_File") String targetIBUuidFile,
+        @Argument(value = "--target",
+            descriptor = "RetargetIBSyncStateCmd_Sync_State_Target_Folder") String syncStateTargetFolder,
+        @Argument(value = "--link", descriptor = "RetargetIBSyncStateCmd_Link") String link,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync)
+    {
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkArgument(targetIBUuid != null || targetIBUuidFile != null);
+
+        try
+        {
+            Path sourceStateFolderPath = validateAndGetFolder(sourceStateFolder, location -> MessageFormat
+                .format(Messages.PatchIBSyncStateCmd_SourceStateFolder__0__does_not_exist, location));
+            List<UUID> uuids = parseUuids(targetIBUuid, targetIBUuidFile);
+            Path syncStateTargetFolderPath = syncStateTargetFolder != null
+                ? getCurrentWorkDir().resolve(syncStateTargetFolder)
+                : sourceStateFolderPath.toAbsolutePath().normalize().getParent();
+
+            synchronizationStateManager.retargetIBSyncState(sourceStateFolderPath, uuids, syncStateTargetFolderPath,
+                Boolean.parseBoolean(link), getGenerationSettings(null, null, null, fsync));
+        }
+        catch (UncheckedIOException | IllegalStateException e)
+        {
+            throw new CliApiException(e.getMessage(), e);
+        }
+    }
+
+    @CliCommand(command = "serve-ib-sync-states", value = "ServeIBSyncStatesCmd_Description")
+    public void c1_serve_sync_states(
+        @Argument(value = "--blob-cache", descriptor = "GenerateIBSyncStateCmd_Blob_Cache_File") String blobCacheFile,
+        @Argument(value = "--threads", descriptor = "GenerateIBSyncStateCmd_Threads") String threads,
+        @Argument(value = "--fsync", descriptor = "GenerateIBSyncStateCmd_Fsync") String fsync)
+    {
+        GenerationSettings settings = getGenerationSettings(null, blobCacheFile, threads, fsync);
+        try (SyncStateSession session = new SyncStateSession(settings))
+        {
+            new SyncStateServer(synchronizationStateManager, session, getCurrentWorkDir()::resolve,
+                new OutputStreamWriter(System.out, StandardCharsets.UTF_8))
+                    .serve(new BufferedReader(new InputStreamReader(System.in, StandardCharsets.UTF_8)));
         }
         catch (UncheckedIOException e)
         {
@@ -117,6 +456,281 @@ public class GenerateIBSyncStateCmd
         }
     }
 
+    /*
+     * Parses a comma separated list of infobase UUIDs and a file with an infobase UUID per line, blank lines and lines
+     * starting with '#' are skipped
+     */
+    private List<UUID> parseUuids(String ibUuids, String ibUuidFile)
+    {
+        Set<UUID> uuids = new LinkedHashSet<>();
+        if (ibUuids != null)
+        {
+            for (String ibUuid : ibUuids.split(",")) //$NON-NLS-1$
+            {
+                uuids.add(parseUuid(ibUuid.strip()));
+            }
+        }
+        if (ibUuidFile != null)
+        {
+            Path ibUuidFilePath = validateAndGetFile(ibUuidFile, location -> MessageFormat
+                .format(Messages.GenerateIBSyncStateCmd_TargetIBUuidFile__0__does_not_exist, location));
+            try
+            {
+                for (String line : Files.readAllLines(ibUuidFilePath))
+                {
+                    String ibUuid = line.strip();
+                    if (!ibUuid.isEmpty() && !ibUuid.startsWith("#")) //$NON-NLS-1$
+                    {
+                        uuids.add(parseUuid(ibUuid));
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
+        }
+        if (uuids.isEmpty())
+        {
+            throw new CliApiException(
+                MessageFormat.format(Messages.GenerateIBSyncStateCmd_TargetIBUuid__0__is_invalid,
+                ibUuids != null ? ibUuids : ibUuidFile));
+        }
+        return new ArrayList<>(uuids);
+    }
+
+    /*
+     * Parses a manifest with a project per line as "<project>;<ConfigDumpInfo.xml>[;<generation ID>]", blank lines and
+     * lines starting with '#' are skipped. A project is either a name of a workspace project or a folder, the default
+     * generation ID is used if it is omitted. Relative paths are resolved against the folder of the manifest
+     */
+    private List<ProjectSyncSource> parseManifest(String manifestFile, Map<String, Path> workspaceProjects,
+        String defaultGenerationId)
+    {
+        Path manifestFilePath = validateAndGetFile(manifestFile, location -> MessageFormat
+            .format(Messages.GenerateIBSyncStatesCmd_ManifestFile__0__does_not_exist, location));
+        Path manifestFolder = manifestFilePath.toAbsolutePath().getParent();
+
+        List<String> lines;
+        try
+        {
+            lines = Files.readAllLines(manifestFilePath);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        List<ProjectSyncSource> sources = new ArrayList<>();
+        for (String line : lines)
+        {
+            String entry = line.strip();
+            if (entry.isEmpty() || entry.startsWith("#")) //$NON-NLS-1$
+            {
+                continue;
+            }
+
+            String[] fields = entry.split(";", -1); //$NON-NLS-1$
+            String generationId = fields.length > 2 && !fields[2].isBlank() ? fields[2].strip() : defaultGenerationId;
+            if (fields.length < 2 || fields.length > 3 || generationId == null)
+            {
+                throw new CliApiException(
+                    MessageFormat.format(Messages.GenerateIBSyncStatesCmd_Manifest_line__0__is_invalid, entry));
+            }
+
+            String project = fields[0].strip();
+            Path projectFolder = workspaceProjects.get(project);
+            if (projectFolder == null)
+            {
+                projectFolder = manifestFolder.resolve(project);
+            }
+            if (!Files.isDirectory(projectFolder))
+            {
+                throw new CliApiException(MessageFormat
+                    .format(Messages.GenerateIBSyncStateCmd_SourceProjectFolder__0__does_not_exist, project));
+            }
+            Path configDumpInfoFile = manifestFolder.resolve(fields[1].strip());
+            if (!Files.isRegularFile(configDumpInfoFile))
+            {
+                throw new CliApiException(MessageFormat
+                    .format(Messages.GenerateIBSyncStateCmd_SourceConfigDumpInfoFile__0__does_not_exist, fields[1]));
+            }
+            sources.add(new ProjectSyncSource(projectFolder, configDumpInfoFile, generationId));
+        }
+        return sources;
+    }
+
+    /*
+     * Gets sources of discovered workspace projects, a ConfigDumpInfo.xml of a project is expected in the folder named
+     * after the project. Projects without one are skipped
+     */
+    private List<ProjectSyncSource> getWorkspaceSources(Map<String, Path> workspaceProjects,
+        String configDumpInfoFolder, String generationId)
+    {
+        Preconditions.checkNotNull(configDumpInfoFolder);
+        Preconditions.checkNotNull(generationId);
+
+        Path configDumpInfoFolderPath = validateAndGetFolder(configDumpInfoFolder, location -> MessageFormat
+            .format(Messages.GenerateIBSyncStatesCmd_ConfigDumpInfoFolder__0__does_not_exist, location));
+
+        List<ProjectSyncSource> sources = new ArrayList<>();
+        for (Map.Entry<String, Path> project : workspaceProjects.entrySet())
+        {
+            Path configDumpInfoFile =
+                configDumpInfoFolderPath.resolve(project.getKey()).resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+            if (Files.isRegularFile(configDumpInfoFile))
+            {
+                sources.add(new ProjectSyncSource(project.getValue(), configDumpInfoFile, generationId));
+            }
+            else
+            {
+                System.out.println(MessageFormat.format("Project {0} is skipped: {1} is absent", //$NON-NLS-1$
+                    project.getKey(), configDumpInfoFile));
+            }
+        }
+        return sources;
+    }
+
+    /*
+     * Parses an infobase UUID
+     */
+    private static UUID parseUuid(String ibUuid)
+    {
+        try
+        {
+            return UUID.fromString(ibUuid);
+        }
+        catch (IllegalArgumentException e)
+        {
+            // It is not an UUID
+            throw new CliApiException(
+                MessageFormat.format(Messages.GenerateIBSyncStateCmd_TargetIBUuid__0__is_invalid, ibUuid));
+        }
+    }
+
+    /*
+     * Builds generation settings from optional arguments
+     */
+    private GenerationSettings getGenerationSettings(String signatureCacheFile, String blobCacheFile, String threads,
+        String fsync)
+    {
+        Path signatureCacheFilePath =
+            signatureCacheFile != null ? getCurrentWorkDir().resolve(signatureCacheFile) : null;
+        Path blobCacheFilePath = blobCacheFile != null ? getCurrentWorkDir().resolve(blobCacheFile) : null;
+        boolean virtualThreads = threads != null && threads.strip().startsWith(VIRTUAL_THREADS);
+        return new GenerationSettings(signatureCacheFilePath, blobCacheFilePath,
+            parseThreadCount(threads, virtualThreads), virtualThreads, Boolean.parseBoolean(fsync));
+    }
+
+    /*
+     * The debounce interval is specified in milliseconds, 0 stands for writing on demand only
+     */
+    private static long parseDebounce(String debounce)
+    {
+        if (debounce == null || debounce.isBlank())
+        {
+            return DEFAULT_DEBOUNCE_MILLIS;
+        }
+        try
+        {
+            long debounceMillis = Long.parseLong(debounce.strip());
+            if (debounceMillis < 0)
+            {
+                throw new NumberFormatException();
+            }
+            return debounceMillis;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new CliApiException(
+                MessageFormat.format(Messages.WatchIBSyncStateCmd_Debounce__0__is_invalid, debounce));
+        }
+    }
+
+    /*
+     * Threads are specified as a number of workers, "virtual" or "virtual:<number of workers>"
+     */
+    private static int parseThreadCount(String threads, boolean virtualThreads)
+    {
+        if (threads == null || threads.isBlank())
+        {
+            return 0;
+        }
+
+        String threadCount = threads.strip();
+        if (virtualThreads)
+        {
+            threadCount = threadCount.substring(VIRTUAL_THREADS.length());
+            if (threadCount.isEmpty())
+            {
+                return Runtime.getRuntime().availableProcessors() * VIRTUAL_THREADS_PER_PROCESSOR;
+            }
+            if (!threadCount.startsWith(":")) //$NON-NLS-1$
+            {
+                throw new CliApiException(
+                    MessageFormat.format(Messages.GenerateIBSyncStateCmd_Threads__0__is_invalid, threads));
+            }
+            threadCount = threadCount.substring(1);
+        }
+
+        try
+        {
+            int count = Integer.parseInt(threadCount);
+            if (count <= 0)
+            {
+                throw new NumberFormatException();
+            }
+            return count;
+        }
+        catch (NumberFormatException e)
+        {
+            throw new CliApiException(
+                MessageFormat.format(Messages.GenerateIBSyncStateCmd_Threads__0__is_invalid, threads));
+        }
+    }
+
+    /*
+     * Writes a JSON report of generation phases to a file or to the standard output if the file is "-"
+     */
+    private void writeStats(GenerationStats stats, String statsFile)
+    {
+        StringBuilder report = new StringBuilder(1024);
+        report.append('{');
+        JsonLines.appendField(report, "project", stats.getProject()); //$NON-NLS-1$
+        JsonLines.appendField(report, "totalNanos", stats.getTotalNanos()); //$NON-NLS-1$
+        report.append(",\"phases\":["); //$NON-NLS-1$
+        List<GenerationStats.Phase> phases = stats.getPhases();
+        for (int idx = 0; idx < phases.size(); idx++)
+        {
+            GenerationStats.Phase phase = phases.get(idx);
+            StringBuilder object = new StringBuilder(128);
+            object.append('{');
+            JsonLines.appendField(object, "name", phase.name()); //$NON-NLS-1$
+            JsonLines.appendField(object, "wallNanos", phase.wallNanos()); //$NON-NLS-1$
+            JsonLines.appendField(object, "files", phase.files()); //$NON-NLS-1$
+            JsonLines.appendField(object, "bytes", phase.bytes()); //$NON-NLS-1$
+            JsonLines.appendField(object, "bytesPerSecond", Math.round(phase.throughput())); //$NON-NLS-1$
+            JsonLines.appendField(object, "allocatedBytes", phase.allocatedBytes()); //$NON-NLS-1$
+            object.append('}');
+            report.append(idx > 0 ? "," : "").append(object); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        report.append("]}"); //$NON-NLS-1$
+
+        if (STANDARD_OUTPUT.equals(statsFile))
+        {
+            System.out.println(report);
+            return;
+        }
+        try
+        {
+            Files.writeString(getCurrentWorkDir().resolve(statsFile), report + System.lineSeparator());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
     /*
      * Validates input symbolic path and get a target folder path if it exists
      */
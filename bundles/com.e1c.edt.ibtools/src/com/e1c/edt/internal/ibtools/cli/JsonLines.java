@@ -0,0 +1,274 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.cli;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Minimal support of JSON Lines: flat JSON objects of a line each. Only string, number, boolean and {@code null}
+ * values are supported, that is enough for the output of the commands and for requests of the server mode.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class JsonLines
+{
+    private JsonLines()
+    {
+        // Utility class
+    }
+
+    /**
+     * Appends a string field to an object being built, {@code null} values are omitted
+     *
+     * @param line The object being built starting with '{'. Cannot be {@code null}
+     * @param name The name of the field. Cannot be {@code null}
+     * @param value The value of the field. May be {@code null}
+     */
+    static void appendField(StringBuilder line, String name, String value)
+    {
+        if (value == null)
+        {
+            return;
+        }
+        appendName(line, name);
+        appendString(line, value);
+    }
+
+    /**
+     * Appends a number field to an object being built
+     *
+     * @param line The object being built starting with '{'. Cannot be {@code null}
+     * @param name The name of the field. Cannot be {@code null}
+     * @param value The value of the field
+     */
+    static void appendField(StringBuilder line, String name, long value)
+    {
+        appendName(line, name);
+        line.append(value);
+    }
+
+    /**
+     * Parses a flat JSON object
+     *
+     * @param line The line containing the object. Cannot be {@code null}
+     * @return Values of the fields mapped to their names in the order of the fields, numbers and booleans are kept as
+     * they are written, {@code null} values are omitted. Never {@code null}
+     * @throws IllegalArgumentException if the line is not a flat JSON object
+     */
+    static Map<String, String> parseObject(String line)
+    {
+        Parser parser = new Parser(line);
+        Map<String, String> fields = new LinkedHashMap<>();
+        parser.expect('{');
+        if (!parser.consume('}'))
+        {
+            do
+            {
+                String name = parser.readString();
+                parser.expect(':');
+                String value = parser.readValue();
+                if (value != null)
+                {
+                    fields.put(name, value);
+                }
+            }
+            while (parser.consume(','));
+            parser.expect('}');
+        }
+        parser.expectEnd();
+        return fields;
+    }
+
+    private static void appendName(StringBuilder line, String name)
+    {
+        if (line.length() > 1)
+        {
+            line.append(',');
+        }
+        appendString(line, name);
+        line.append(':');
+    }
+
+    private static void appendString(StringBuilder line, String value)
+    {
+        line.append('"');
+        for (int idx = 0; idx < value.length(); idx++)
+        {
+            char c = value.charAt(idx);
+            switch (c)
+            {
+            case '"':
+                line.append("\\\""); //$NON-NLS-1$
+                break;
+            case '\\':
+                line.append("\\\\"); //$NON-NLS-1$
+                break;
+            case '\n':
+                line.append("\\n"); //$NON-NLS-1$
+                break;
+            case '\r':
+                line.append("\\r"); //$NON-NLS-1$
+                break;
+            case '\t':
+                line.append("\\t"); //$NON-NLS-1$
+                break;
+            default:
+                if (c < 0x20)
+                {
+                    line.append(String.format("\\u%04x", (int)c)); //$NON-NLS-1$
+                }
+                else
+                {
+                    line.append(c);
+                }
+            }
+        }
+        line.append('"');
+    }
+
+    private static final class Parser
+    {
+        private final String line;
+        private int position;
+
+        Parser(String line)
+        {
+            this.line = line;
+        }
+
+        void expect(char c)
+        {
+            if (!consume(c))
+            {
+                throw error("'" + c + "' expected"); //$NON-NLS-1$ //$NON-NLS-2$
+            }
+        }
+
+        boolean consume(char c)
+        {
+            skipWhitespace();
+            if (position < line.length() && line.charAt(position) == c)
+            {
+                position++;
+                return true;
+            }
+            return false;
+        }
+
+        void expectEnd()
+        {
+            skipWhitespace();
+            if (position != line.length())
+            {
+                throw error("End of line expected"); //$NON-NLS-1$
+            }
+        }
+
+        String readValue()
+        {
+            skipWhitespace();
+            if (position < line.length() && line.charAt(position) == '"')
+            {
+                return readString();
+            }
+
+            int start = position;
+            while (position < line.length() && isLiteralChar(line.charAt(position)))
+            {
+                position++;
+            }
+            String literal = line.substring(start, position);
+            if (literal.equals("null")) //$NON-NLS-1$
+            {
+                return null;
+            }
+            if (literal.equals("true") || literal.equals("false") //$NON-NLS-1$ //$NON-NLS-2$
+                || literal.matches("-?\\d+(\\.\\d+)?([eE][+-]?\\d+)?")) //$NON-NLS-1$
+            {
+                return literal;
+            }
+            position = start;
+            throw error("A string, a number, a boolean or null expected"); //$NON-NLS-1$
+        }
+
+        String readString()
+        {
+            expect('"');
+            StringBuilder value = new StringBuilder();
+            while (position < line.length())
+            {
+                char c = line.charAt(position++);
+                if (c == '"')
+                {
+                    return value.toString();
+                }
+                if (c != '\\')
+                {
+                    value.append(c);
+                    continue;
+                }
+                if (position >= line.length())
+                {
+                    break;
+                }
+                char escaped = line.charAt(position++);
+                switch (escaped)
+                {
+                case 'b':
+                    value.append('\b');
+                    break;
+                case 'f':
+                    value.append('\f');
+                    break;
+                case 'n':
+                    value.append('\n');
+                    break;
+                case 'r':
+                    value.append('\r');
+                    break;
+                case 't':
+                    value.append('\t');
+                    break;
+                case 'u':
+                    if (position + 4 > line.length())
+                    {
+                        throw error("Invalid escape"); //$NON-NLS-1$
+                    }
+                    try
+                    {
+                        value.append((char)Integer.parseInt(line.substring(position, position + 4), 16));
+                    }
+                    catch (NumberFormatException e)
+                    {
+                        throw error("Invalid escape"); //$NON-NLS-1$
+                    }
+                    position += 4;
+                    break;
+                default:
+                    value.append(escaped);
+                }
+            }
+            throw error("Unterminated string"); //$NON-NLS-1$
+        }
+
+        private void skipWhitespace()
+        {
+            while (position < line.length() && Character.isWhitespace(line.charAt(position)))
+            {
+                position++;
+            }
+        }
+
+        private IllegalArgumentException error(String message)
+        {
+            return new IllegalArgumentException(message + " at " + position); //$NON-NLS-1$
+        }
+
+        private static boolean isLiteralChar(char c)
+        {
+            return Character.isLetterOrDigit(c) || c == '-' || c == '+' || c == '.';
+        }
+    }
+}
@@ -20,17 +20,73 @@ class Messages
     public static String GenerateIBSyncStateCmd_Project_source_config_dump_info_file;
     public static String GenerateIBSyncStateCmd_Project_generation_id;
     public static String GenerateIBSyncStateCmd_Project_IB_UUID;
+    public static String GenerateIBSyncStateCmd_Project_IB_UUID_File;
     public static String GenerateIBSyncStateCmd_Project_Sync_State_Target_Folder;
+    public static String GenerateIBSyncStateCmd_Signature_Cache_File;
+    public static String GenerateIBSyncStateCmd_Blob_Cache_File;
+    public static String GenerateIBSyncStateCmd_Threads;
+    public static String GenerateIBSyncStateCmd_Fsync;
+    public static String GenerateIBSyncStateCmd_Stats;
 
     public static String GenerateIBSyncStateCmd_SourceProjectFolder__0__does_not_exist;
     public static String GenerateIBSyncStateCmd_SourceConfigDumpInfoFile__0__does_not_exist;
     public static String GenerateIBSyncStateCmd_TargetIBUuid__0__is_invalid;
+    public static String GenerateIBSyncStateCmd_TargetIBUuidFile__0__does_not_exist;
+    public static String GenerateIBSyncStateCmd_Threads__0__is_invalid;
+
+    public static String GenerateIBSyncStatesCmd_Description;
+    public static String GenerateIBSyncStatesCmd_Manifest;
+    public static String GenerateIBSyncStatesCmd_Workspace;
+    public static String GenerateIBSyncStatesCmd_Config_Dump_Info_Folder;
+    public static String GenerateIBSyncStatesCmd_Generation_id;
+
+    public static String GenerateIBSyncStatesCmd_ManifestFile__0__does_not_exist;
+    public static String GenerateIBSyncStatesCmd_Manifest_line__0__is_invalid;
+    public static String GenerateIBSyncStatesCmd_WorkspaceFolder__0__does_not_exist;
+    public static String GenerateIBSyncStatesCmd_ConfigDumpInfoFolder__0__does_not_exist;
+    public static String GenerateIBSyncStatesCmd_No_projects_in__0_;
+
+    public static String GenerateIBSyncStateFromGitCmd_Description;
+    public static String GenerateIBSyncStateFromGitCmd_Repository;
+    public static String GenerateIBSyncStateFromGitCmd_Revision;
+    public static String GenerateIBSyncStateFromGitCmd_Project_Path;
+    public static String GenerateIBSyncStateFromGitCmd_Blob_Cache_File;
+    public static String GenerateIBSyncStateFromGitCmd_RepositoryFolder__0__does_not_exist;
 
     public static String CompareIBSyncStatesCmd_Description;
     public static String CompareIBSyncStatesCmd_Source_Synchronization_Index_Location;
     public static String CompareIBSyncStatesCmd_Destination_Synchronization_Index_Location;
+    public static String CompareIBSyncStatesCmd_Format;
     public static String CompareIBSyncStatesCmd_SourceIndexFolder__0__does_not_exist;
     public static String CompareIBSyncStatesCmd_DestinationIndexFolder__0__does_not_exist;
+    public static String CompareIBSyncStatesCmd_Format__0__is_invalid;
+
+    public static String VerifyIBSyncStateCmd_Description;
+    public static String VerifyIBSyncStateCmd_State_Location;
+    public static String VerifyIBSyncStateCmd_Mode;
+    public static String VerifyIBSyncStateCmd_Mode__0__is_invalid;
+    public static String VerifyIBSyncStateCmd_State__0__does_not_match;
+
+    public static String PatchIBSyncStateCmd_Description;
+    public static String PatchIBSyncStateCmd_Source_Project_Location;
+    public static String PatchIBSyncStateCmd_Source_State_Location;
+    public static String PatchIBSyncStateCmd_Base_Revision;
+    public static String PatchIBSyncStateCmd_Target_Revision;
+    public static String PatchIBSyncStateCmd_IB_UUID;
+    public static String PatchIBSyncStateCmd_Sync_State_Target_Folder;
+    public static String PatchIBSyncStateCmd_SourceStateFolder__0__does_not_exist;
+
+    public static String RetargetIBSyncStateCmd_Description;
+    public static String RetargetIBSyncStateCmd_Source_State_Location;
+    public static String RetargetIBSyncStateCmd_IB_UUID;
+    public static String RetargetIBSyncStateCmd_Sync_State_Target_Folder;
+    public static String RetargetIBSyncStateCmd_Link;
+
+    public static String ServeIBSyncStatesCmd_Description;
+
+    public static String WatchIBSyncStateCmd_Description;
+    public static String WatchIBSyncStateCmd_Debounce;
+    public static String WatchIBSyncStateCmd_Debounce__0__is_invalid;
 
     static
     {
@@ -0,0 +1,200 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.cli;
+
+import java.io.BufferedWriter;
+import java.io.OutputStreamWriter;
+import java.io.PrintWriter;
+import java.util.List;
+import java.util.Locale;
+
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.Difference;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.Kind;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.ResourceType;
+
+/**
+ * Renders differences of IB synchronization states to the standard output either as a human readable text or as
+ * JSON Lines (a JSON object per line) for further processing. Differences of the configuration go first, extensions
+ * present in one of the states only and differences of extension states follow.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateDiffPrinter
+{
+    /**
+     * Text output format
+     */
+    static final String TEXT = "text"; //$NON-NLS-1$
+
+    /**
+     * JSON Lines output format
+     */
+    static final String JSON_LINES = "jsonl"; //$NON-NLS-1$
+
+    private final PrintWriter writer;
+    private final boolean jsonLines;
+    private final String requestId;
+
+    /**
+     * Constructs a printer to the standard output.
+     *
+     * @param jsonLines Whether JSON Lines should be printed instead of a text
+     */
+    SyncStateDiffPrinter(boolean jsonLines)
+    {
+        this(new PrintWriter(new BufferedWriter(new OutputStreamWriter(System.out), 1 << 16)), jsonLines, null);
+    }
+
+    /**
+     * Constructs a printer.
+     *
+     * @param writer The writer to print to. Cannot be {@code null}
+     * @param jsonLines Whether JSON Lines should be printed instead of a text
+     * @param requestId The identifier of a server request to add to every JSON object. May be {@code null}
+     */
+    SyncStateDiffPrinter(PrintWriter writer, boolean jsonLines, String requestId)
+    {
+        this.writer = writer;
+        this.jsonLines = jsonLines;
+        this.requestId = requestId;
+    }
+
+    /**
+     * Prints differences of states
+     *
+     * @param diff The differences. Cannot be {@code null}
+     */
+    void print(SyncStateDiff diff)
+    {
+        if (jsonLines)
+        {
+            printJsonLines(diff);
+            diff.getSourceOnlyExtensions().forEach(extension -> printExtension(extension, Kind.SOURCE_ONLY));
+            diff.getDestinationOnlyExtensions().forEach(extension -> printExtension(extension, Kind.DESTINATION_ONLY));
+            diff.getExtensionDifferences().forEach(this::printJsonLines);
+        }
+        else
+        {
+            printText(diff);
+            printTextExtensions("Source only extensions:", diff.getSourceOnlyExtensions()); //$NON-NLS-1$
+            printTextExtensions("Destination only extensions:", diff.getDestinationOnlyExtensions()); //$NON-NLS-1$
+            diff.getExtensionDifferences().forEach(this::printText);
+        }
+        writer.flush();
+    }
+
+    private void printText(SyncStateDiff diff)
+    {
+        writer.println("State of: " + diff.getName()); //$NON-NLS-1$
+        if (diff.isConfigurationUUIDChanged())
+        {
+            writer.println("  ConfigurationUUID S:" + diff.getSourceConfigurationUUID() + " D:" //$NON-NLS-1$//$NON-NLS-2$
+                + diff.getDestinationConfigurationUUID());
+        }
+        if (diff.isGenerationIdChanged())
+        {
+            writer.println("  GenerationId S:" + diff.getSourceGenerationId() + " D:" //$NON-NLS-1$//$NON-NLS-2$
+                + diff.getDestinationGenerationId());
+        }
+
+        printTextSection(diff, ResourceType.EDT, Kind.SOURCE_ONLY, "  Source only EDT resources:"); //$NON-NLS-1$
+        printTextSection(diff, ResourceType.EDT, Kind.DESTINATION_ONLY, "  Destination only EDT resources:"); //$NON-NLS-1$
+        printTextSection(diff, ResourceType.EDT, Kind.CHANGED, "  EDT resource signature differences"); //$NON-NLS-1$
+        printTextSection(diff, ResourceType.PLATFORM, Kind.SOURCE_ONLY, "  Source only 1C:Enterprise resources:"); //$NON-NLS-1$
+        printTextSection(diff, ResourceType.PLATFORM, Kind.DESTINATION_ONLY,
+            "  Destination only 1C:Enterprise resources:"); //$NON-NLS-1$
+        printTextSection(diff, ResourceType.PLATFORM, Kind.CHANGED, "  1C:Enterprise resource version differences"); //$NON-NLS-1$
+    }
+
+    private void printTextExtensions(String title, List<String> extensions)
+    {
+        if (!extensions.isEmpty())
+        {
+            writer.println(title);
+            extensions.forEach(extension -> writer.println("  " + extension)); //$NON-NLS-1$
+        }
+    }
+
+    private void printTextSection(SyncStateDiff diff, ResourceType resourceType, Kind kind, String title)
+    {
+        boolean first = true;
+        for (Difference difference : diff.getDifferences(resourceType))
+        {
+            if (difference.kind() != kind)
+            {
+                continue;
+            }
+            if (first)
+            {
+                writer.println(title);
+                first = false;
+            }
+
+            if (kind != Kind.CHANGED)
+            {
+                writer.println("   " + difference.key()); //$NON-NLS-1$
+            }
+            else if (resourceType == ResourceType.EDT)
+            {
+                writer.println("    " + difference.key()); //$NON-NLS-1$
+            }
+            else
+            {
+                writer.println("    " + difference.key() + " S:" + difference.sourceValue() + " D:" //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                    + difference.destinationValue());
+            }
+        }
+    }
+
+    private void printJsonLines(SyncStateDiff diff)
+    {
+        if (diff.isConfigurationUUIDChanged())
+        {
+            printProperty(diff, "configurationUUID", diff.getSourceConfigurationUUID(), //$NON-NLS-1$
+                diff.getDestinationConfigurationUUID());
+        }
+        if (diff.isGenerationIdChanged())
+        {
+            printProperty(diff, "generationId", diff.getSourceGenerationId(), diff.getDestinationGenerationId()); //$NON-NLS-1$
+        }
+
+        diff.differences().forEach(difference -> {
+            StringBuilder line = startObject();
+            JsonLines.appendField(line, "state", diff.getName()); //$NON-NLS-1$
+            JsonLines.appendField(line, "type", difference.resourceType().name().toLowerCase(Locale.ROOT)); //$NON-NLS-1$
+            JsonLines.appendField(line, "kind", difference.kind().name().toLowerCase(Locale.ROOT)); //$NON-NLS-1$
+            JsonLines.appendField(line, "key", difference.key()); //$NON-NLS-1$
+            JsonLines.appendField(line, "source", difference.sourceValue()); //$NON-NLS-1$
+            JsonLines.appendField(line, "destination", difference.destinationValue()); //$NON-NLS-1$
+            writer.println(line.append('}'));
+        });
+    }
+
+    private void printExtension(String extension, Kind kind)
+    {
+        StringBuilder line = startObject();
+        JsonLines.appendField(line, "state", extension); //$NON-NLS-1$
+        JsonLines.appendField(line, "kind", kind.name().toLowerCase(Locale.ROOT)); //$NON-NLS-1$
+        writer.println(line.append('}'));
+    }
+
+    private void printProperty(SyncStateDiff diff, String property, String sourceValue, String destinationValue)
+    {
+        StringBuilder line = startObject();
+        JsonLines.appendField(line, "state", diff.getName()); //$NON-NLS-1$
+        JsonLines.appendField(line, "property", property); //$NON-NLS-1$
+        JsonLines.appendField(line, "source", sourceValue); //$NON-NLS-1$
+        JsonLines.appendField(line, "destination", destinationValue); //$NON-NLS-1$
+        writer.println(line.append('}'));
+    }
+
+    private StringBuilder startObject()
+    {
+        StringBuilder line = new StringBuilder(128);
+        line.append('{');
+        JsonLines.appendField(line, "id", requestId); //$NON-NLS-1$
+        return line;
+    }
+}
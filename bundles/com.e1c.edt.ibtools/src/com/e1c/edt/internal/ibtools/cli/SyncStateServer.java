@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.cli;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.io.PrintWriter;
+import java.io.StringWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com.e1c.edt.internal.ibtools.service.EdtIBSynchronizationStateManager;
+import com.e1c.edt.internal.ibtools.service.ProjectSyncSource;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff;
+import com.e1c.edt.internal.ibtools.service.SyncStateSession;
+
+/**
+ * Serves IB synchronization state requests of a long-running process over JSON Lines: a request per input line and
+ * responses on the output. Requests are served concurrently within a shared session, so hashing and comparison
+ * workers are started once and signatures of unchanged project resources are reused by subsequent requests.<br>
+ *
+ * Every request is an object with an optional "id" and a "command" ("generate", "compare", "retarget", "verify" or
+ * "shutdown") along with the arguments of the command named as the options of the respective CLI command
+ * ("project", "cdi", "genId", "ibUuid", "target", "source", "destination", "state", "link", "mode"). Every request is
+ * finished with a single object with the same "id" and a "status" ("ok" or "error" with a "message"), differences
+ * found by a comparison or a verification precede it as separate objects with the same "id". Progress messages are
+ * printed to the standard error while the server is running. The server stops at the end of the input or at a
+ * "shutdown" request after all accepted requests are served, the "shutdown" request is answered the last.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateServer
+{
+    private static final String GENERATE = "generate"; //$NON-NLS-1$
+    private static final String COMPARE = "compare"; //$NON-NLS-1$
+    private static final String RETARGET = "retarget"; //$NON-NLS-1$
+    private static final String VERIFY = "verify"; //$NON-NLS-1$
+    private static final String SHUTDOWN = "shutdown"; //$NON-NLS-1$
+
+    private final EdtIBSynchronizationStateManager manager;
+    private final SyncStateSession session;
+    private final Function<String, Path> pathResolver;
+    private final PrintWriter output;
+
+    /**
+     * Constructs a server.
+     *
+     * @param manager The synchronization state manager. Cannot be {@code null}
+     * @param session The session shared by requests. Cannot be {@code null}
+     * @param pathResolver Resolves paths of requests. Cannot be {@code null}
+     * @param output The output of responses. Cannot be {@code null}
+     */
+    SyncStateServer(EdtIBSynchronizationStateManager manager, SyncStateSession session,
+        Function<String, Path> pathResolver, Writer output)
+    {
+        this.manager = manager;
+        this.session = session;
+        this.pathResolver = pathResolver;
+        this.output = new PrintWriter(output);
+    }
+
+    /**
+     * Serves requests until the end of the input or a "shutdown" request
+     *
+     * @param input The input of requests. Cannot be {@code null}
+     */
+    void serve(BufferedReader input)
+    {
+        AtomicInteger counter = new AtomicInteger();
+        // Requests mostly wait for the shared workers of the session, so they are not limited here
+        ExecutorService executor = Executors.newCachedThreadPool(runnable -> {
+            Thread thread = new Thread(runnable, "ib-sync-state-server-" + counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+
+        PrintStream standardOutput = System.out;
+        System.setOut(System.err);
+        Map<String, String> shutdownRequest = null;
+        try
+        {
+            String line;
+            while ((line = input.readLine()) != null)
+            {
+                if (line.isBlank())
+                {
+                    continue;
+                }
+
+                Map<String, String> request;
+                try
+                {
+                    request = JsonLines.parseObject(line);
+                }
+                catch (IllegalArgumentException e)
+                {
+                    respond(null, null, "Invalid request: " + e.getMessage()); //$NON-NLS-1$
+                    continue;
+                }
+
+                if (SHUTDOWN.equals(request.get("command"))) //$NON-NLS-1$
+                {
+                    shutdownRequest = request;
+                    break;
+                }
+                executor.execute(() -> serve(request));
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            executor.shutdown();
+            try
+            {
+                executor.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            System.setOut(standardOutput);
+        }
+        if (shutdownRequest != null)
+        {
+            respond(shutdownRequest.get("id"), null, null); //$NON-NLS-1$
+        }
+    }
+
+    private void serve(Map<String, String> request)
+    {
+        String id = request.get("id"); //$NON-NLS-1$
+        String command = request.get("command"); //$NON-NLS-1$
+        try
+        {
+            if (GENERATE.equals(command))
+            {
+                ProjectSyncSource source = new ProjectSyncSource(getFolder(request, "project"), //$NON-NLS-1$
+                    getPath(request, "cdi"), getArgument(request, "genId")); //$NON-NLS-1$ //$NON-NLS-2$
+                manager.generateIBSyncState(source, getUuids(request), getPath(request, "target"), session); //$NON-NLS-1$
+                respond(id, null, null);
+            }
+            else if (COMPARE.equals(command))
+            {
+                SyncStateDiff diff = manager.compareIBSyncStates(getFolder(request, "source"), //$NON-NLS-1$
+                    getFolder(request, "destination"), session); //$NON-NLS-1$
+                StringWriter differences = new StringWriter();
+                new SyncStateDiffPrinter(new PrintWriter(differences), true, id).print(diff);
+                respond(id, differences.toString(), null);
+            }
+            else if (RETARGET.equals(command))
+            {
+                Path state = getFolder(request, "state"); //$NON-NLS-1$
+                String target = request.get("target"); //$NON-NLS-1$
+                manager.retargetIBSyncState(state, getUuids(request),
+                    target != null ? pathResolver.apply(target) : state.toAbsolutePath().normalize().getParent(),
+                    Boolean.parseBoolean(request.get("link")), session.getSettings()); //$NON-NLS-1$
+                respond(id, null, null);
+            }
+            else if (VERIFY.equals(command))
+            {
+                SyncStateDiff diff = manager.verifyIBSyncState(getFolder(request, "project"), //$NON-NLS-1$
+                    getFolder(request, "state"), !"full".equals(request.get("mode")), session); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+                StringWriter differences = new StringWriter();
+                new SyncStateDiffPrinter(new PrintWriter(differences), true, id).print(diff);
+                respond(id, differences.toString(), null);
+            }
+            else
+            {
+                respond(id, null, "Unknown command: " + command); //$NON-NLS-1$
+            }
+        }
+        catch (RuntimeException e)
+        {
+            // The server keeps serving other requests
+            respond(id, null, e.getMessage() != null ? e.getMessage() : e.toString());
+        }
+    }
+
+    /*
+     * Writes the result of a request at once, so results of concurrent requests never interleave
+     */
+    private void respond(String id, String differences, String error)
+    {
+        StringBuilder line = new StringBuilder(128);
+        line.append('{');
+        JsonLines.appendField(line, "id", id); //$NON-NLS-1$
+        JsonLines.appendField(line, "status", error == null ? "ok" : "error"); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+        JsonLines.appendField(line, "message", error); //$NON-NLS-1$
+        line.append('}');
+        synchronized (output)
+        {
+            if (differences != null)
+            {
+                output.print(differences);
+            }
+            output.println(line);
+            output.flush();
+        }
+    }
+
+    private Path getPath(Map<String, String> request, String name)
+    {
+        return pathResolver.apply(getArgument(request, name));
+    }
+
+    private Path getFolder(Map<String, String> request, String name)
+    {
+        Path folder = getPath(request, name);
+        if (!Files.isDirectory(folder))
+        {
+            throw new IllegalArgumentException("Folder " + folder + " does not exist"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return folder;
+    }
+
+    private static String getArgument(Map<String, String> request, String name)
+    {
+        String value = request.get(name);
+        if (value == null)
+        {
+            throw new IllegalArgumentException("Argument " + name + " is missing"); //$NON-NLS-1$ //$NON-NLS-2$
+        }
+        return value;
+    }
+
+    private static List<UUID> getUuids(Map<String, String> request)
+    {
+        Set<UUID> uuids = new LinkedHashSet<>();
+        for (String ibUuid : getArgument(request, "ibUuid").split(",")) //$NON-NLS-1$ //$NON-NLS-2$
+        {
+            uuids.add(UUID.fromString(ibUuid.strip()));
+        }
+        return new ArrayList<>(uuids);
+    }
+}
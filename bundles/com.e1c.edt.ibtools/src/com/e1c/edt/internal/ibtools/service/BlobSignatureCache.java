@@ -0,0 +1,213 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Persistent on-disk cache of EDT resource signatures keyed by Git blob object identifiers.<br>
+ *
+ * Unlike {@link SignatureCache} it does not depend on a resource location, so it is shared by all work trees and
+ * checkouts of a repository: a resource whose work tree content is known to be a given blob gets the signature
+ * computed for the blob anywhere else. A record also holds the size of the work tree file the signature was computed
+ * for, since the same blob may be checked out differently (e.g. with other line endings) under other settings.<br>
+ *
+ * The cache file is written by concurrent processes: records of other processes stored since the cache was loaded
+ * are merged on save, the file is replaced atomically.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class BlobSignatureCache
+{
+    private static final int MAGIC = 0x45534232; // "ESB2"
+    private static final int VERSION = 1;
+
+    /*
+     * Records beyond the limit are dropped on save unless they were requested or stored during the run
+     */
+    private static final int MAX_RECORDS = 1 << 20;
+
+    private final Path cacheFile;
+    private final Map<String, Record> storedRecords;
+    private final Map<String, Record> actualRecords = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private BlobSignatureCache(Path cacheFile, Map<String, Record> storedRecords)
+    {
+        this.cacheFile = cacheFile;
+        this.storedRecords = storedRecords;
+    }
+
+    /**
+     * Loads the cache from a given file. A missing or corrupted cache file results in an empty cache.
+     *
+     * @param cacheFile The cache file. Cannot be {@code null}
+     * @return The loaded cache. Never {@code null}
+     */
+    static BlobSignatureCache load(Path cacheFile)
+    {
+        Preconditions.checkNotNull(cacheFile);
+
+        return new BlobSignatureCache(cacheFile, read(cacheFile));
+    }
+
+    /**
+     * Gets a cached signature of a blob checked out to a file of a given size.
+     *
+     * @param blobId The blob object identifier. Cannot be {@code null}
+     * @param size The size of the work tree file
+     * @return The cached signature or {@code null} if there is no valid record for the blob
+     */
+    byte[] get(String blobId, long size)
+    {
+        Record record = actualRecords.get(blobId);
+        if (record == null)
+        {
+            record = storedRecords.get(blobId);
+        }
+        if (record != null && record.size() == size)
+        {
+            hits.incrementAndGet();
+            actualRecords.putIfAbsent(blobId, record);
+            return record.signature();
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Stores a freshly computed signature of a blob.
+     *
+     * @param blobId The blob object identifier. Cannot be {@code null}
+     * @param size The size of the work tree file the signature was computed for
+     * @param signature The signature. Cannot be {@code null}
+     */
+    void put(String blobId, long size, byte[] signature)
+    {
+        actualRecords.put(blobId, new Record(size, signature));
+    }
+
+    /**
+     * Writes records to the cache file merging them with the records stored there by other processes
+     */
+    void save()
+    {
+        Map<String, Record> records = read(cacheFile);
+        records.putAll(storedRecords);
+        if (records.size() + actualRecords.size() > MAX_RECORDS)
+        {
+            records.clear();
+        }
+        records.putAll(actualRecords);
+
+        try
+        {
+            Files.createDirectories(cacheFile.toAbsolutePath().getParent());
+
+            // Concurrent processes write their own temporary files
+            Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + "." + UUID.randomUUID() + ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+            try
+            {
+                try (DataOutputStream dos =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16)))
+                {
+                    dos.writeInt(MAGIC);
+                    dos.writeInt(VERSION);
+                    dos.writeInt(records.size());
+                    for (Entry<String, Record> entry : records.entrySet())
+                    {
+                        Record record = entry.getValue();
+                        dos.writeUTF(entry.getKey());
+                        dos.writeLong(record.size());
+                        dos.writeInt(record.signature().length);
+                        dos.write(record.signature());
+                    }
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The number of signatures taken from the cache
+     */
+    int getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of blobs that had no valid record
+     */
+    int getMisses()
+    {
+        return misses.get();
+    }
+
+    private static Map<String, Record> read(Path cacheFile)
+    {
+        Map<String, Record> records = new HashMap<>();
+        if (Files.isRegularFile(cacheFile))
+        {
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile))))
+            {
+                if (dis.readInt() == MAGIC && dis.readInt() == VERSION)
+                {
+                    int count = dis.readInt();
+                    records = new HashMap<>(count * 4 / 3 + 1);
+                    for (int idx = 0; idx < count; idx++)
+                    {
+                        String blobId = dis.readUTF();
+                        long size = dis.readLong();
+                        byte[] signature = new byte[dis.readInt()];
+                        dis.readFully(signature);
+
+                        records.put(blobId, new Record(size, signature));
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                System.out.println(MessageFormat.format("Blob signature cache {0} is unreadable and will be rebuilt: {1}", //$NON-NLS-1$
+                    cacheFile, e.getMessage()));
+                records = new HashMap<>();
+            }
+        }
+        return records;
+    }
+
+    private record Record(long size, byte[] signature)
+    {
+        // Left empty intentionally
+    }
+}
@@ -0,0 +1,504 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Immutable compact map of EDT resource signatures.<br>
+ *
+ * Resource paths are kept sorted and front-coded (each path stores only the suffix that differs from the previous one,
+ * with a full path every {@value #RESTART_INTERVAL} entries), all signatures share one contiguous slab and lookups
+ * go through an open-addressing hash table of entry indexes. A table of tens of thousands of resources therefore
+ * consists of a handful of arrays instead of a map entry, a string and a byte array per resource.<br>
+ *
+ * Iteration order is the lexicographical order of the UTF-8 encoded paths. Values returned are copies.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class CompactSignatureTable
+    extends AbstractMap<String, byte[]>
+{
+    private static final int RESTART_INTERVAL = 16;
+
+    private static final CompactSignatureTable EMPTY = of(Map.of());
+
+    private final int size;
+    private final byte[] keyBlob;
+    private final int[] restartOffsets;
+    private final int[] hashes;
+    private final int[] table;
+    private final byte[] signatures;
+    private final int signatureLength;
+    private final int[] signatureOffsets;
+
+    private CompactSignatureTable(int size, byte[] keyBlob, int[] restartOffsets, int[] hashes, int[] table,
+        byte[] signatures, int signatureLength, int[] signatureOffsets)
+    {
+        this.size = size;
+        this.keyBlob = keyBlob;
+        this.restartOffsets = restartOffsets;
+        this.hashes = hashes;
+        this.table = table;
+        this.signatures = signatures;
+        this.signatureLength = signatureLength;
+        this.signatureOffsets = signatureOffsets;
+    }
+
+    /**
+     * @return An empty table. Never {@code null}
+     */
+    static CompactSignatureTable empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a compact table of given signatures. A compact table is returned as is.
+     *
+     * @param source The signatures mapped to resource paths. Cannot be {@code null}
+     * @return The compact table. Never {@code null}
+     */
+    static CompactSignatureTable of(Map<String, byte[]> source)
+    {
+        Preconditions.checkNotNull(source);
+        if (source instanceof CompactSignatureTable compactTable)
+        {
+            return compactTable;
+        }
+
+        int size = source.size();
+        String[] names = new String[size];
+        byte[][] keys = new byte[size][];
+        byte[][] values = new byte[size][];
+        int idx = 0;
+        for (Entry<String, byte[]> entry : source.entrySet())
+        {
+            names[idx] = entry.getKey();
+            keys[idx] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            values[idx] = entry.getValue();
+            idx++;
+        }
+
+        Integer[] order = new Integer[size];
+        for (idx = 0; idx < size; idx++)
+        {
+            order[idx] = idx;
+        }
+        Arrays.sort(order, (left, right) -> Arrays.compareUnsigned(keys[left], keys[right]));
+
+        // Front-coded keys
+        ByteSink keySink = new ByteSink(Math.max(16, size * 16));
+        int[] restartOffsets = new int[(size + RESTART_INTERVAL - 1) / RESTART_INTERVAL];
+        byte[] previous = new byte[0];
+        // Signatures slab
+        int signatureLength = size > 0 ? values[order[0]].length : 0;
+        boolean uniform = true;
+        int totalSignatureLength = 0;
+        for (byte[] value : values)
+        {
+            uniform &= value.length == signatureLength;
+            totalSignatureLength += value.length;
+        }
+        byte[] signatures = new byte[totalSignatureLength];
+        int[] signatureOffsets = uniform ? null : new int[size + 1];
+        int signatureOffset = 0;
+
+        int[] hashes = new int[size];
+        for (idx = 0; idx < size; idx++)
+        {
+            byte[] key = keys[order[idx]];
+            int shared = 0;
+            if (idx % RESTART_INTERVAL == 0)
+            {
+                restartOffsets[idx / RESTART_INTERVAL] = keySink.length();
+            }
+            else
+            {
+                int limit = Math.min(previous.length, key.length);
+                while (shared < limit && previous[shared] == key[shared])
+                {
+                    shared++;
+                }
+            }
+            keySink.writeVarInt(shared);
+            keySink.writeVarInt(key.length - shared);
+            keySink.write(key, shared, key.length - shared);
+            previous = key;
+
+            hashes[idx] = mix(names[order[idx]].hashCode());
+
+            byte[] value = values[order[idx]];
+            if (signatureOffsets != null)
+            {
+                signatureOffsets[idx] = signatureOffset;
+            }
+            System.arraycopy(value, 0, signatures, signatureOffset, value.length);
+            signatureOffset += value.length;
+        }
+        if (signatureOffsets != null)
+        {
+            signatureOffsets[size] = signatureOffset;
+        }
+
+        int[] table = new int[tableCapacity(size)];
+        int mask = table.length - 1;
+        for (idx = 0; idx < size; idx++)
+        {
+            int slot = hashes[idx] & mask;
+            while (table[slot] != 0)
+            {
+                slot = (slot + 1) & mask;
+            }
+            table[slot] = idx + 1;
+        }
+
+        return new CompactSignatureTable(size, keySink.toByteArray(), restartOffsets, hashes, table, signatures,
+            signatureLength, signatureOffsets);
+    }
+
+    @Override
+    public int size()
+    {
+        return size;
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        return key instanceof String stringKey && indexOf(stringKey) != -1;
+    }
+
+    @Override
+    public byte[] get(Object key)
+    {
+        int entry = key instanceof String stringKey ? indexOf(stringKey) : -1;
+        return entry != -1 ? signature(entry) : null;
+    }
+
+    @Override
+    public Set<Entry<String, byte[]>> entrySet()
+    {
+        return new AbstractSet<>()
+        {
+            @Override
+            public Iterator<Entry<String, byte[]>> iterator()
+            {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return size;
+            }
+        };
+    }
+
+    /**
+     * Finds an entry index of a given resource path
+     *
+     * @param key The resource path. Cannot be {@code null}
+     * @return The entry index in the iteration order or {@code -1} if the resource is absent
+     */
+    int indexOf(String key)
+    {
+        int hash = mix(key.hashCode());
+        int mask = table.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask)
+        {
+            int entry = table[slot] - 1;
+            if (entry == -1)
+            {
+                return -1;
+            }
+            if (hashes[entry] == hash && key.equals(key(entry)))
+            {
+                return entry;
+            }
+        }
+    }
+
+    /**
+     * Gets a resource path by an entry index
+     *
+     * @param entry The entry index in the iteration order
+     * @return The resource path. Never {@code null}
+     */
+    String key(int entry)
+    {
+        Preconditions.checkElementIndex(entry, size);
+        KeyCursor cursor = new KeyCursor(entry - entry % RESTART_INTERVAL);
+        while (cursor.entry < entry)
+        {
+            cursor.advance();
+        }
+        return cursor.current();
+    }
+
+    /**
+     * Gets a signature by an entry index
+     *
+     * @param entry The entry index in the iteration order
+     * @return A copy of the signature. Never {@code null}
+     */
+    byte[] signature(int entry)
+    {
+        int from = signatureOffsets == null ? entry * signatureLength : signatureOffsets[entry];
+        int to = signatureOffsets == null ? from + signatureLength : signatureOffsets[entry + 1];
+        return Arrays.copyOfRange(signatures, from, to);
+    }
+
+    /**
+     * Compares signatures of two entries without copying them
+     *
+     * @param entry The entry index in this table
+     * @param other The other table. Cannot be {@code null}
+     * @param otherEntry The entry index in the other table
+     * @return {@code true} if the signatures are equal
+     */
+    boolean signatureEquals(int entry, CompactSignatureTable other, int otherEntry)
+    {
+        int from = signatureOffsets == null ? entry * signatureLength : signatureOffsets[entry];
+        int to = signatureOffsets == null ? from + signatureLength : signatureOffsets[entry + 1];
+        int otherFrom =
+            other.signatureOffsets == null ? otherEntry * other.signatureLength : other.signatureOffsets[otherEntry];
+        int otherTo =
+            other.signatureOffsets == null ? otherFrom + other.signatureLength : other.signatureOffsets[otherEntry + 1];
+        return Arrays.equals(signatures, from, to, other.signatures, otherFrom, otherTo);
+    }
+
+    /**
+     * Compares two tables in a single pass as a merge join over their sorted keys. Keys and signatures are decoded
+     * only for differences, equal entries are matched on raw bytes.
+     *
+     * @param source The source table. Cannot be {@code null}
+     * @param destination The destination table. Cannot be {@code null}
+     * @param sink The receiver of differences in the key order, signatures are hex encoded. Cannot be {@code null}
+     */
+    static void diff(CompactSignatureTable source, CompactSignatureTable destination, SyncStateDiff.Sink sink)
+    {
+        Preconditions.checkNotNull(source);
+        Preconditions.checkNotNull(destination);
+        Preconditions.checkNotNull(sink);
+
+        HexFormat hex = HexFormat.of();
+        KeyCursor left = source.new KeyCursor(0);
+        KeyCursor right = destination.new KeyCursor(0);
+        while (left.entry < source.size || right.entry < destination.size)
+        {
+            int comparison;
+            if (left.entry == source.size)
+            {
+                comparison = 1;
+            }
+            else if (right.entry == destination.size)
+            {
+                comparison = -1;
+            }
+            else
+            {
+                comparison = Arrays.compareUnsigned(left.buffer, 0, left.length, right.buffer, 0, right.length);
+            }
+
+            if (comparison < 0)
+            {
+                sink.accept(SyncStateDiff.Kind.SOURCE_ONLY, left.current(),
+                    hex.formatHex(source.signature(left.entry)), null);
+                left.next();
+            }
+            else if (comparison > 0)
+            {
+                sink.accept(SyncStateDiff.Kind.DESTINATION_ONLY, right.current(), null,
+                    hex.formatHex(destination.signature(right.entry)));
+                right.next();
+            }
+            else
+            {
+                if (!source.signatureEquals(left.entry, destination, right.entry))
+                {
+                    sink.accept(SyncStateDiff.Kind.CHANGED, left.current(), hex.formatHex(source.signature(left.entry)),
+                        hex.formatHex(destination.signature(right.entry)));
+                }
+                left.next();
+                right.next();
+            }
+        }
+    }
+
+    private static int mix(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableCapacity(int count)
+    {
+        int capacity = 2;
+        while (capacity < count * 2L)
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /*
+     * Sequential decoder of front-coded keys
+     */
+    private final class KeyCursor
+    {
+        private byte[] buffer = new byte[128];
+        private int length;
+        private int offset;
+        private int entry;
+
+        KeyCursor(int restartEntry)
+        {
+            if (restartEntry < size)
+            {
+                this.entry = restartEntry - 1;
+                this.offset = restartOffsets[restartEntry / RESTART_INTERVAL];
+                advance();
+            }
+            else
+            {
+                this.entry = size;
+            }
+        }
+
+        void advance()
+        {
+            int shared = readVarInt();
+            int suffixLength = readVarInt();
+            if (buffer.length < shared + suffixLength)
+            {
+                buffer = Arrays.copyOf(buffer, Math.max(buffer.length * 2, shared + suffixLength));
+            }
+            System.arraycopy(keyBlob, offset, buffer, shared, suffixLength);
+            offset += suffixLength;
+            length = shared + suffixLength;
+            entry++;
+        }
+
+        /*
+         * Moves to the next entry or past the last one
+         */
+        void next()
+        {
+            if (entry + 1 < size)
+            {
+                advance();
+            }
+            else
+            {
+                entry = size;
+            }
+        }
+
+        String current()
+        {
+            return new String(buffer, 0, length, StandardCharsets.UTF_8);
+        }
+
+        private int readVarInt()
+        {
+            int value = 0;
+            int shift = 0;
+            byte b;
+            do
+            {
+                b = keyBlob[offset++];
+                value |= (b & 0x7F) << shift;
+                shift += 7;
+            }
+            while (b < 0);
+            return value;
+        }
+    }
+
+    private final class EntryIterator
+        implements Iterator<Map.Entry<String, byte[]>>
+    {
+        private final KeyCursor cursor = new KeyCursor(0);
+
+        @Override
+        public boolean hasNext()
+        {
+            return cursor.entry < size;
+        }
+
+        @Override
+        public Map.Entry<String, byte[]> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, byte[]> result =
+                new AbstractMap.SimpleImmutableEntry<>(cursor.current(), signature(cursor.entry));
+            cursor.next();
+            return result;
+        }
+    }
+
+    /*
+     * Growable byte array
+     */
+    private static final class ByteSink
+    {
+        private byte[] bytes;
+        private int length;
+
+        ByteSink(int capacity)
+        {
+            this.bytes = new byte[capacity];
+        }
+
+        int length()
+        {
+            return length;
+        }
+
+        void write(byte[] source, int offset, int count)
+        {
+            ensureCapacity(count);
+            System.arraycopy(source, offset, bytes, length, count);
+            length += count;
+        }
+
+        void writeVarInt(int value)
+        {
+            ensureCapacity(5);
+            int remaining = value;
+            while ((remaining & ~0x7F) != 0)
+            {
+                bytes[length++] = (byte)((remaining & 0x7F) | 0x80);
+                remaining >>>= 7;
+            }
+            bytes[length++] = (byte)remaining;
+        }
+
+        byte[] toByteArray()
+        {
+            return Arrays.copyOf(bytes, length);
+        }
+
+        private void ensureCapacity(int extra)
+        {
+            if (length + extra > bytes.length)
+            {
+                bytes = Arrays.copyOf(bytes, Math.max(bytes.length * 2, length + extra));
+            }
+        }
+    }
+}
@@ -0,0 +1,252 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.zip.CRC32C;
+
+import com.e1c.edt.internal.ibtools.service.ConfigDumpInfoParser.IngestResult;
+import com.e1c.edt.internal.ibtools.service.EdtIBSynchronizationStateManager.ConfigDumpParseResult;
+import com.google.common.base.Preconditions;
+
+/**
+ * Binary sidecar cache of a parsed ConfigDumpInfo file.<br>
+ *
+ * The sidecar ('ConfigDumpInfo.bin') is kept next to the XML file and holds the configuration UUID and the versions
+ * tree in the form it is read without parsing or rebuilding. It is valid as long as the size and the modification
+ * time of the XML file are unchanged. When only the modification time differs (e.g. the state folder was copied)
+ * the SHA-256 digest of the XML content is compared, which is still much cheaper than parsing, and the sidecar is
+ * re-stamped. In any other case the XML is parsed and the sidecar is rewritten.<br>
+ *
+ * The sidecar is an optimization only: it is written on a best-effort basis and a missing, unreadable or corrupted
+ * sidecar just leads to parsing of the XML.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class ConfigDumpInfoCache
+{
+    /**
+     * The name of the sidecar file
+     */
+    static final String SIDECAR_FILE = "ConfigDumpInfo.bin"; //$NON-NLS-1$
+
+    private static final int MAGIC = 0x45434431; // "ECD1"
+    private static final int VERSION = 1;
+    private static final long UNTRUSTED_MODIFICATION_TIME = Long.MIN_VALUE;
+
+    /*
+     * A file modified this close to the moment the sidecar is written may still be changed within the same timestamp
+     * granularity, so its modification time is not trusted and the digest is checked instead
+     */
+    private static final long RACY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private ConfigDumpInfoCache()
+    {
+        // Utility class
+    }
+
+    /**
+     * Loads a parsed ConfigDumpInfo file from its sidecar if the sidecar is valid, otherwise parses the file and
+     * (re-)writes the sidecar.
+     *
+     * @param cdiFile The ConfigDumpInfo file. Cannot be {@code null}
+     * @return The result of parsing. Never {@code null}
+     */
+    static ConfigDumpParseResult load(Path cdiFile)
+    {
+        Preconditions.checkNotNull(cdiFile);
+
+        BasicFileAttributes attributes;
+        try
+        {
+            attributes = Files.readAttributes(cdiFile, BasicFileAttributes.class);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        Path sidecarFile = cdiFile.resolveSibling(SIDECAR_FILE);
+        Sidecar sidecar = read(sidecarFile);
+        if (sidecar != null && sidecar.size() == attributes.size())
+        {
+            if (sidecar.modified() != UNTRUSTED_MODIFICATION_TIME
+                && sidecar.modified() == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS))
+            {
+                return sidecar.parseResult();
+            }
+
+            byte[] digest = SignatureHasher.computeSignature(cdiFile, attributes.size());
+            if (Arrays.equals(digest, sidecar.digest()))
+            {
+                store(cdiFile, digest, sidecar.parseResult());
+                return sidecar.parseResult();
+            }
+        }
+
+        IngestResult result = ConfigDumpInfoParser.ingest(cdiFile, null);
+        store(cdiFile, result.digest(), result.parseResult());
+        return result.parseResult();
+    }
+
+    /**
+     * Writes a sidecar of a ConfigDumpInfo file. Failures are reported and ignored.
+     *
+     * @param cdiFile The ConfigDumpInfo file. Cannot be {@code null}
+     * @param digest The SHA-256 digest of the file content. Cannot be {@code null}
+     * @param parseResult The result of parsing of the file. Cannot be {@code null}
+     */
+    static void store(Path cdiFile, byte[] digest, ConfigDumpParseResult parseResult)
+    {
+        Preconditions.checkNotNull(cdiFile);
+        Preconditions.checkNotNull(digest);
+        Preconditions.checkNotNull(parseResult);
+
+        Path sidecarFile = cdiFile.resolveSibling(SIDECAR_FILE);
+        Path tempFile = sidecarFile.resolveSibling(SIDECAR_FILE + "." + UUID.randomUUID() + ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+        try
+        {
+            ByteArrayOutputStream payload = new ByteArrayOutputStream();
+            try (DataOutputStream dos = new DataOutputStream(payload))
+            {
+                writeString(dos, parseResult.configurationUUID());
+                PlatformVersionTree.of(parseResult.versions()).write(dos);
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(payload.toByteArray());
+
+            BasicFileAttributes attributes = Files.readAttributes(cdiFile, BasicFileAttributes.class);
+            long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+            if (modified > TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - RACY_INTERVAL_NANOS)
+            {
+                modified = UNTRUSTED_MODIFICATION_TIME;
+            }
+
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 1 << 16)))
+            {
+                dos.writeInt(MAGIC);
+                dos.writeInt(VERSION);
+                dos.writeLong(attributes.size());
+                dos.writeLong(modified);
+                dos.writeInt(digest.length);
+                dos.write(digest);
+                dos.writeInt((int)checksum.getValue());
+                dos.writeInt(payload.size());
+                payload.writeTo(dos);
+            }
+            SyncIndexWriter.publish(tempFile, sidecarFile);
+        }
+        catch (IOException e)
+        {
+            System.out.println(MessageFormat.format("''{0}'' cannot be written: {1}", sidecarFile, e.getMessage())); //$NON-NLS-1$
+            try
+            {
+                Files.deleteIfExists(tempFile);
+            }
+            catch (IOException ex)
+            {
+                // The original failure is reported
+            }
+        }
+    }
+
+    /*
+     * Returns null if the sidecar is absent or unusable
+     */
+    private static Sidecar read(Path sidecarFile)
+    {
+        ByteBuffer buffer;
+        try
+        {
+            buffer = ByteBuffer.wrap(Files.readAllBytes(sidecarFile));
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (IOException e)
+        {
+            System.out.println(MessageFormat.format("''{0}'' cannot be read: {1}", sidecarFile, e.getMessage())); //$NON-NLS-1$
+            return null;
+        }
+
+        try
+        {
+            if (buffer.getInt() != MAGIC || buffer.getInt() != VERSION)
+            {
+                return null;
+            }
+            long size = buffer.getLong();
+            long modified = buffer.getLong();
+            byte[] digest = new byte[buffer.getInt()];
+            buffer.get(digest);
+            int expectedChecksum = buffer.getInt();
+            int payloadSize = buffer.getInt();
+            if (payloadSize != buffer.remaining())
+            {
+                return null;
+            }
+            CRC32C checksum = new CRC32C();
+            checksum.update(buffer.duplicate());
+            if ((int)checksum.getValue() != expectedChecksum)
+            {
+                return null;
+            }
+
+            String configurationUUID = readString(buffer);
+            PlatformVersionTree versions = PlatformVersionTree.read(buffer);
+            return new Sidecar(size, modified, digest, new ConfigDumpParseResult(versions, configurationUUID));
+        }
+        catch (BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e)
+        {
+            return null;
+        }
+    }
+
+    private static void writeString(DataOutputStream dos, String value) throws IOException
+    {
+        if (value == null)
+        {
+            dos.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length == -1)
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private record Sidecar(long size, long modified, byte[] digest, ConfigDumpParseResult parseResult)
+    {
+        // Left empty intentionally
+    }
+}
@@ -0,0 +1,560 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.e1c.edt.internal.ibtools.service.EdtIBSynchronizationStateManager.ConfigDumpParseResult;
+import com.google.common.base.Preconditions;
+
+/**
+ * Byte-level parser of ConfigDumpInfo.xml files.<br>
+ *
+ * The file is read into heap windows and scanned as UTF-8 bytes directly, only metadata names and their
+ * {@code configVersion} values are materialized as strings. The file is not memory-mapped: a mapping lives until it
+ * is garbage collected and keeps the file from being replaced on Windows. Large files are split into chunks on line
+ * boundaries which are parsed in parallel and merged in the file order, so the result is the same as of a sequential
+ * line-by-line parse.<br>
+ *
+ * A file can also be ingested: copied, parsed and digested in a single sequential pass.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class ConfigDumpInfoParser
+{
+    private static final long MIN_CHUNK_SIZE = 8L << 20;
+    private static final long MAX_CHUNK_SIZE = Integer.MAX_VALUE;
+    private static final int WINDOW_SIZE = 1 << 20;
+    private static final String TEMP_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+    private static final byte[] METADATA_TAG = "<Metadata".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+    private static final byte[] NAME_ATTRIBUTE = "name=\"".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+    private static final byte[] ID_ATTRIBUTE = "id=\"".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+    private static final byte[] VERSION_ATTRIBUTE = "configVersion=\"".getBytes(StandardCharsets.US_ASCII); //$NON-NLS-1$
+    private static final byte[] CONFIGURATION_PREFIX =
+        EdtIBSynchronizationStateManager.CONFIGURATION_RECORD_PATTERN.getBytes(StandardCharsets.US_ASCII);
+
+    private static final byte QUOTE = '"';
+    private static final byte DOT = '.';
+    private static final byte CR = '\r';
+    private static final byte LF = '\n';
+
+    private static volatile ExecutorService executor;
+
+    private ConfigDumpInfoParser()
+    {
+        // Utility class
+    }
+
+    /**
+     * Parses a given ConfigDumpInfo file
+     *
+     * @param location The location of the file. Cannot be {@code null}
+     * @return The result of parsing. Never {@code null}
+     */
+    static ConfigDumpParseResult parse(Path location)
+    {
+        Preconditions.checkNotNull(location);
+
+        try (FileChannel channel = FileChannel.open(location, StandardOpenOption.READ))
+        {
+            long size = channel.size();
+            List<long[]> chunks = split(channel, size);
+            if (chunks.size() == 1)
+            {
+                return merge(List.of(parseChunk(channel, 0, size)));
+            }
+
+            List<CompletableFuture<ChunkResult>> futures = new ArrayList<>(chunks.size());
+            for (long[] chunk : chunks)
+            {
+                futures.add(CompletableFuture.supplyAsync(() -> {
+                    try
+                    {
+                        return parseChunk(channel, chunk[0], chunk[1]);
+                    }
+                    catch (IOException e)
+                    {
+                        throw new UncheckedIOException(e);
+                    }
+                }, getExecutor()));
+            }
+
+            List<ChunkResult> results = new ArrayList<>(futures.size());
+            for (CompletableFuture<ChunkResult> future : futures)
+            {
+                results.add(future.join());
+            }
+            return merge(results);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Copies a given ConfigDumpInfo file to a target location and parses it in a single pass over the source: every
+     * block read is written to the copy, fed to the digest and scanned for metadata records. It is meant for slow
+     * (e.g. network) sources which should not be read twice. The copy is written to a temporary file next to the
+     * target one which replaces the target by a rename only when it is complete, so a hard linked target is never
+     * modified and an interrupted ingest leaves the previous file intact.
+     *
+     * @param source The location of the source file. Cannot be {@code null}
+     * @param target The location of the copy, an existing file is replaced. May be {@code null} to only parse and
+     * digest the source
+     * @return The result of parsing along with the SHA-256 digest of the content. Never {@code null}
+     */
+    static IngestResult ingest(Path source, Path target)
+    {
+        Preconditions.checkNotNull(source);
+
+        MessageDigest digest = SignatureHasher.newDigest();
+        ChunkResult result = new ChunkResult();
+        Path tempFile = target != null
+            ? target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX) //$NON-NLS-1$
+            : null;
+        try
+        {
+            try (FileChannel input = FileChannel.open(source, StandardOpenOption.READ);
+                FileChannel output = tempFile != null
+                    ? FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW) : null)
+            {
+                int windowSize = (int)Math.min(WINDOW_SIZE, input.size() + 1);
+                new LineScanner(windowSize, true, result).scan((bytes, offset, length) -> {
+                    int read = input.read(ByteBuffer.wrap(bytes, offset, length));
+                    if (read > 0)
+                    {
+                        digest.update(bytes, offset, read);
+                        ByteBuffer block = ByteBuffer.wrap(bytes, offset, read);
+                        while (output != null && block.hasRemaining())
+                        {
+                            output.write(block);
+                        }
+                    }
+                    return read;
+                });
+            }
+            if (tempFile != null)
+            {
+                SyncIndexWriter.publish(tempFile, target);
+                tempFile = null;
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            if (tempFile != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(tempFile);
+                }
+                catch (IOException e)
+                {
+                    // The original failure is more important
+                }
+            }
+        }
+        return new IngestResult(merge(List.of(result)), digest.digest());
+    }
+
+    /*
+     * Splits the file into chunks [start, end) ending on line boundaries
+     */
+    private static List<long[]> split(FileChannel channel, long size) throws IOException
+    {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        long chunkSize = Math.max(MIN_CHUNK_SIZE, (size + parallelism - 1) / parallelism);
+        chunkSize = Math.min(chunkSize, MAX_CHUNK_SIZE / 2);
+
+        List<long[]> chunks = new ArrayList<>();
+        long start = 0;
+        ByteBuffer probe = ByteBuffer.allocate(4096);
+        while (start < size)
+        {
+            long end = start + chunkSize;
+            if (end >= size)
+            {
+                end = size;
+            }
+            else
+            {
+                end = nextLineStart(channel, end, size, probe);
+            }
+            chunks.add(new long[] { start, end });
+            start = end;
+        }
+        if (chunks.isEmpty())
+        {
+            chunks.add(new long[] { 0, 0 });
+        }
+        return chunks;
+    }
+
+    private static long nextLineStart(FileChannel channel, long from, long size, ByteBuffer probe) throws IOException
+    {
+        long position = from;
+        while (position < size)
+        {
+            probe.clear();
+            int read = channel.read(probe, position);
+            if (read <= 0)
+            {
+                break;
+            }
+            for (int idx = 0; idx < read; idx++)
+            {
+                byte b = probe.get(idx);
+                if (b == LF)
+                {
+                    return position + idx + 1;
+                }
+                if (b == CR)
+                {
+                    // "\r\n" is a single line terminator
+                    long next = position + idx + 1;
+                    if (idx + 1 < read)
+                    {
+                        return probe.get(idx + 1) == LF ? next + 1 : next;
+                    }
+                    ByteBuffer single = ByteBuffer.allocate(1);
+                    return next < size && channel.read(single, next) == 1 && single.get(0) == LF ? next + 1 : next;
+                }
+            }
+            position += read;
+        }
+        return size;
+    }
+
+    private static ChunkResult parseChunk(FileChannel channel, long start, long end) throws IOException
+    {
+        ChunkResult result = new ChunkResult();
+        if (end <= start)
+        {
+            return result;
+        }
+
+        // Positional reads are independent of other chunks, so chunks share the channel
+        long[] position = { start };
+        new LineScanner((int)Math.min(WINDOW_SIZE, end - start), start == 0, result).scan((bytes, offset, length) -> {
+            if (position[0] >= end)
+            {
+                return -1;
+            }
+            int read = channel.read(ByteBuffer.wrap(bytes, offset, (int)Math.min(length, end - position[0])),
+                position[0]);
+            if (read > 0)
+            {
+                position[0] += read;
+            }
+            return read;
+        });
+        return result;
+    }
+
+    private static void parseLine(byte[] bytes, int lineStart, int lineEnd, ChunkResult result)
+    {
+        int position = lineStart;
+        while (position < lineEnd && Byte.toUnsignedInt(bytes[position]) <= ' ')
+        {
+            position++;
+        }
+        if (!startsWith(bytes, position, lineEnd, METADATA_TAG))
+        {
+            return;
+        }
+
+        int nameStart = indexOf(bytes, position, lineEnd, NAME_ATTRIBUTE);
+        if (nameStart == -1)
+        {
+            return;
+        }
+        nameStart += NAME_ATTRIBUTE.length;
+        int nameEnd = indexOf(bytes, nameStart, lineEnd, QUOTE);
+        if (nameEnd == -1)
+        {
+            return;
+        }
+
+        if (result.configurationUUID == null && isConfigurationRecord(bytes, nameStart, nameEnd))
+        {
+            String id = attributeValue(bytes, position, lineEnd, ID_ATTRIBUTE);
+            if (id != null)
+            {
+                result.configurationUUID = id;
+            }
+        }
+
+        String version = attributeValue(bytes, position, lineEnd, VERSION_ATTRIBUTE);
+        if (version != null)
+        {
+            result.versions.put(new String(bytes, nameStart, nameEnd - nameStart, StandardCharsets.UTF_8), version);
+        }
+    }
+
+    private static String attributeValue(byte[] bytes, int lineStart, int lineEnd, byte[] attribute)
+    {
+        int valueStart = indexOf(bytes, lineStart, lineEnd, attribute);
+        if (valueStart == -1)
+        {
+            return null;
+        }
+        valueStart += attribute.length;
+        int valueEnd = indexOf(bytes, valueStart, lineEnd, QUOTE);
+        return valueEnd != -1 ? new String(bytes, valueStart, valueEnd - valueStart, StandardCharsets.UTF_8) : null;
+    }
+
+    /*
+     * "Configuration.<Name>" without further dots
+     */
+    private static boolean isConfigurationRecord(byte[] bytes, int nameStart, int nameEnd)
+    {
+        if (!startsWith(bytes, nameStart, nameEnd, CONFIGURATION_PREFIX))
+        {
+            return false;
+        }
+        return indexOf(bytes, nameStart + CONFIGURATION_PREFIX.length, nameEnd, DOT) == -1;
+    }
+
+    private static boolean startsWith(byte[] bytes, int from, int to, byte[] pattern)
+    {
+        if (to - from < pattern.length)
+        {
+            return false;
+        }
+        for (int idx = 0; idx < pattern.length; idx++)
+        {
+            if (bytes[from + idx] != pattern[idx])
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte[] pattern)
+    {
+        int last = to - pattern.length;
+        byte first = pattern[0];
+        for (int position = from; position <= last; position++)
+        {
+            if (bytes[position] == first && startsWith(bytes, position, to, pattern))
+            {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static int indexOf(byte[] bytes, int from, int to, byte value)
+    {
+        for (int position = from; position < to; position++)
+        {
+            if (bytes[position] == value)
+            {
+                return position;
+            }
+        }
+        return -1;
+    }
+
+    private static ConfigDumpParseResult merge(List<ChunkResult> results)
+    {
+        Map<String, String> versions;
+        if (results.size() == 1)
+        {
+            versions = results.get(0).versions;
+        }
+        else
+        {
+            int size = 0;
+            for (ChunkResult result : results)
+            {
+                size += result.versions.size();
+            }
+            versions = new HashMap<>(size * 4 / 3 + 1);
+            for (ChunkResult result : results)
+            {
+                // Chunks are merged in the file order, so the last record wins as in a sequential parse
+                versions.putAll(result.versions);
+            }
+        }
+
+        String configurationUUID = null;
+        for (ChunkResult result : results)
+        {
+            if (result.configurationUUID != null)
+            {
+                configurationUUID = result.configurationUUID;
+                break;
+            }
+        }
+        return new ConfigDumpParseResult(PlatformVersionTree.of(versions), configurationUUID);
+    }
+
+    private static ExecutorService getExecutor()
+    {
+        ExecutorService result = executor;
+        if (result == null)
+        {
+            synchronized (ConfigDumpInfoParser.class)
+            {
+                result = executor;
+                if (result == null)
+                {
+                    AtomicInteger counter = new AtomicInteger();
+                    result = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+                        Thread thread = new Thread(runnable, "cdi-parser-" + counter.incrementAndGet()); //$NON-NLS-1$
+                        thread.setDaemon(true);
+                        return thread;
+                    });
+                    executor = result;
+                }
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Result of a ConfigDumpInfo ingest
+     *
+     * @param parseResult The result of parsing. Never {@code null}
+     * @param digest The SHA-256 digest of the file content. Never {@code null}
+     */
+    record IngestResult(ConfigDumpParseResult parseResult, byte[] digest)
+    {
+        // Left empty intentionally
+    }
+
+    /*
+     * Source of bytes to scan, returns -1 at the end
+     */
+    @FunctionalInterface
+    private interface ByteSource
+    {
+        int read(byte[] bytes, int offset, int length) throws IOException;
+    }
+
+    /*
+     * Splits a byte source into lines terminated by LF, CR or CR LF and parses them
+     */
+    private static final class LineScanner
+    {
+        private final ChunkResult result;
+        private byte[] window;
+        private boolean skip;
+
+        LineScanner(int windowSize, boolean skipFirstLine, ChunkResult result)
+        {
+            this.window = new byte[Math.max(windowSize, 1)];
+            this.skip = skipFirstLine;
+            this.result = result;
+        }
+
+        void scan(ByteSource source) throws IOException
+        {
+            int length = 0;
+            boolean pendingLF = false;
+            boolean last = false;
+            while (!last)
+            {
+                if (length == window.length)
+                {
+                    // A line longer than the window
+                    window = Arrays.copyOf(window, window.length * 2);
+                }
+                int read = source.read(window, length, window.length - length);
+                last = read == -1;
+                length += Math.max(read, 0);
+
+                int lineStart = 0;
+                if (pendingLF && length > 0)
+                {
+                    // CR LF split between two reads, nothing but the LF is left in the window
+                    lineStart = window[0] == LF ? 1 : 0;
+                    pendingLF = false;
+                }
+                while (lineStart < length)
+                {
+                    int lineEnd = indexOfLineEnd(lineStart, length);
+                    if (lineEnd == -1)
+                    {
+                        if (!last)
+                        {
+                            break;
+                        }
+                        lineEnd = length;
+                    }
+
+                    if (skip)
+                    {
+                        skip = false;
+                    }
+                    else
+                    {
+                        parseLine(window, lineStart, lineEnd, result);
+                    }
+
+                    lineStart = lineEnd + 1;
+                    if (lineEnd < length && window[lineEnd] == CR)
+                    {
+                        if (lineStart == length)
+                        {
+                            pendingLF = true;
+                        }
+                        else if (window[lineStart] == LF)
+                        {
+                            lineStart++;
+                        }
+                    }
+                }
+
+                lineStart = Math.min(lineStart, length);
+                length -= lineStart;
+                System.arraycopy(window, lineStart, window, 0, length);
+            }
+        }
+
+        private int indexOfLineEnd(int from, int to)
+        {
+            for (int position = from; position < to; position++)
+            {
+                byte b = window[position];
+                if (b == LF || b == CR)
+                {
+                    return position;
+                }
+            }
+            return -1;
+        }
+    }
+
+    private static final class ChunkResult
+    {
+        private final Map<String, String> versions = new HashMap<>();
+        private String configurationUUID;
+    }
+}
@@ -3,43 +3,47 @@
  */
 package com.e1c.edt.internal.ibtools.service;
 
-import java.io.BufferedInputStream;
 import java.io.BufferedReader;
-import java.io.DataInputStream;
-import java.io.DataOutputStream;
-import java.io.File;
-import java.io.FileInputStream;
-import java.io.FileOutputStream;
+import java.io.ByteArrayInputStream;
 import java.io.FileReader;
 import java.io.IOException;
-import java.io.InputStream;
+import java.io.InputStreamReader;
 import java.io.UncheckedIOException;
 import java.nio.charset.Charset;
 import java.nio.charset.StandardCharsets;
 import java.nio.file.FileVisitResult;
 import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
 import java.nio.file.Path;
 import java.nio.file.SimpleFileVisitor;
-import java.nio.file.StandardCopyOption;
 import java.nio.file.attribute.BasicFileAttributes;
 import java.text.MessageFormat;
-import java.util.Arrays;
-import java.util.Collection;
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Set;
+import java.util.TreeMap;
 import java.util.UUID;
-import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import java.util.regex.Matcher;
 import java.util.regex.Pattern;
-import java.util.stream.Collectors;
 
 import com._1c.g5.v8.dt.core.ICoreConstants;
 import com._1c.g5.v8.dt.platform.services.core.infobases.sync.IConfigDumpInfoStore;
+import com.e1c.edt.internal.ibtools.service.ConfigDumpInfoParser.IngestResult;
 import com.google.common.base.Preconditions;
-import com.google.common.hash.Hashing;
 
 /**
  * 1C:EDT IB synchronization state management facility.
@@ -53,7 +57,8 @@ public class EdtIBSynchronizationStateManager
     public static final int PATH_SEPARATOR = '/';
 
     private static final String PROJECT_FILE = ".project"; //$NON-NLS-1$
-    private static final String SOURCE_FOLDER = "src"; //$NON-NLS-1$
+    private static final int WORKSPACE_DISCOVERY_DEPTH = 3;
+    static final String SOURCE_FOLDER = "src"; //$NON-NLS-1$
 
     private static final String NAME_START_TAG = "<name>"; //$NON-NLS-1$
     private static final String NATURES_START_TAG = "<natures>"; //$NON-NLS-1$
@@ -61,10 +66,10 @@ public class EdtIBSynchronizationStateManager
     private static final Pattern NATURE_PATTERN = Pattern.compile("<nature>(.*?)</nature>"); //$NON-NLS-1$
     private static final Pattern NAME_PATTERN = Pattern.compile("<name>(.*?)</name>"); //$NON-NLS-1$
 
-    private static final String EXTENSION_SYNC_STATE_HOLDER = "ext"; //$NON-NLS-1$
-    private static final String INDEX_FILE = "index.idx"; //$NON-NLS-1$
+    static final String EXTENSION_SYNC_STATE_HOLDER = "ext"; //$NON-NLS-1$
+    static final String INDEX_FILE = "index.idx"; //$NON-NLS-1$
 
-    private static final String CONFIGURATION_RECORD_PATTERN = "Configuration."; //$NON-NLS-1$
+    static final String CONFIGURATION_RECORD_PATTERN = "Configuration."; //$NON-NLS-1$
 
     /**
      * Generates a synthetic IB synchronization state for a given source project (both configuration and extensions project
@@ -79,364 +84,771 @@ public class EdtIBSynchronizationStateManager
     public void generateIBSyncState(Path sourceProjectFolder, Path sourceConfigDumpInfoFile, String generationId,
         UUID targetIBUuid, Path syncStateTargetFolder)
     {
-        // Step 1: Determine the type of the project - a Configuration or an Extension
-        ProjectInfo projectInfo = getProjectInfo(sourceProjectFolder);
-        // Step 2: Create/update target folders
-        Path targetFolder = initAndGetTargetFolders(projectInfo, targetIBUuid, syncStateTargetFolder);
-        // Step 3: Copy source ConfigDumpInfo.xml directly to the destination
-        copyConfigDumpInfo(sourceConfigDumpInfoFile, targetFolder);
-        // Step 4: Re-create EDT source signatures directly
-        Map<Path, byte[]> signatures = collectSignatures(sourceProjectFolder);
-        // Step 5: Parse source config dump info to receive generation id
-        ConfigDumpParseResult configDumpInfoParseResult = parseConfigDump(sourceConfigDumpInfoFile);
-        // Step 6: Create/Update combined synchronization state
-        updateIBSynchronizationState(signatures, configDumpInfoParseResult, generationId, sourceProjectFolder,
-            targetFolder);
+        generateIBSyncState(sourceProjectFolder, sourceConfigDumpInfoFile, generationId, targetIBUuid,
+            syncStateTargetFolder, GenerationSettings.DEFAULT);
+    }
+
+    /**
+     * Generates a synthetic IB synchronization state for a given source project (both configuration and extensions project
+     * types are supported) and a target IB with given generation settings
+     *
+     * @param sourceProjectFolder A source 1C:EDT project folder. Cannot be {@code null}
+     * @param sourceConfigDumpInfoFile A path to a ConfigDumpInfo.xml being received from the source IB. Cannot be {@code null}
+     * @param generationId A global generation identifier being received from the source IB. Cannot be {@code null}
+     * @param targetIBUuid A target IB UUID. Cannot be {@code null}
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param settings Generation settings. Cannot be {@code null}
+     */
+    public void generateIBSyncState(Path sourceProjectFolder, Path sourceConfigDumpInfoFile, String generationId,
+        UUID targetIBUuid, Path syncStateTargetFolder, GenerationSettings settings)
+    {
+        generateIBSyncState(sourceProjectFolder, sourceConfigDumpInfoFile, generationId, List.of(targetIBUuid),
+            syncStateTargetFolder, settings);
     }
 
-    public void compareIBSyncStates(Path sourceStateFolder, Path destinationStateFolder)
+    /**
+     * Generates synthetic IB synchronization states for a given source project (both configuration and extensions
+     * project types are supported) and several target IBs which are full clones of the same source IB.<br>
+     *
+     * The project is hashed and ConfigDumpInfo.xml is parsed only once, states of all target IBs are written
+     * concurrently from the same result.
+     *
+     * @param sourceProjectFolder A source 1C:EDT project folder. Cannot be {@code null}
+     * @param sourceConfigDumpInfoFile A path to a ConfigDumpInfo.xml being received from the source IB. Cannot be {@code null}
+     * @param generationId A global generation identifier being received from the source IB. Cannot be {@code null}
+     * @param targetIBUuids UUIDs of target IBs. Cannot be {@code null} or empty
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param settings Generation settings. Cannot be {@code null}
+     * @return Statistics of the generation phases. Never {@code null}
+     */
+    public GenerationStats generateIBSyncState(Path sourceProjectFolder, Path sourceConfigDumpInfoFile,
+        String generationId, List<UUID> targetIBUuids, Path syncStateTargetFolder, GenerationSettings settings)
     {
-        // Step 1: parse source state
-        InfobaseSyncState sourceState = parseState(sourceStateFolder);
-        // Step 2: parse destination state
-        InfobaseSyncState destinationState = parseState(destinationStateFolder);
+        Preconditions.checkNotNull(targetIBUuids);
+        Preconditions.checkArgument(!targetIBUuids.isEmpty());
 
-        if (sourceState != null && destinationState != null)
+        SignatureCache cache = settings.signatureCacheFile() != null
+            ? SignatureCache.load(settings.signatureCacheFile(), sourceProjectFolder) : null;
+        GenerationStats stats;
+        try (SignatureCollector collector = new SignatureCollector(settings))
+        {
+            stats = generateIBSyncState(
+                new ProjectSyncSource(sourceProjectFolder, sourceConfigDumpInfoFile, generationId), targetIBUuids,
+                syncStateTargetFolder, settings, collector, cache);
+        }
+        if (cache != null)
         {
-            compareSyncStates(sourceState, destinationState, "Configuration"); //$NON-NLS-1$
+            cache.save();
+        }
+        return stats;
+    }
 
-            // TODO extension states
-            if (sourceState.getExtensionSyncStates().isEmpty())
-            {
+    /**
+     * Generates a synthetic IB synchronization state of a given source project within a long-living session. Hashing
+     * workers of the session are shared with concurrent requests, signatures of unchanged resources are taken from the
+     * previous generation of the same project in the session.
+     *
+     * @param source The source of the project. Cannot be {@code null}
+     * @param targetIBUuids UUIDs of target IBs. Cannot be {@code null} or empty
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param session The session. Cannot be {@code null}
+     * @return Statistics of the generation phases. Never {@code null}
+     */
+    public GenerationStats generateIBSyncState(ProjectSyncSource source, List<UUID> targetIBUuids,
+        Path syncStateTargetFolder, SyncStateSession session)
+    {
+        Preconditions.checkNotNull(source);
+        Preconditions.checkNotNull(targetIBUuids);
+        Preconditions.checkArgument(!targetIBUuids.isEmpty());
+        Preconditions.checkNotNull(syncStateTargetFolder);
+        Preconditions.checkNotNull(session);
+
+        SignatureCache cache = session.openSignatureCache(source.projectFolder());
+        GenerationStats stats = generateIBSyncState(source, targetIBUuids, syncStateTargetFolder,
+            session.getSettings(), session.getCollector(), cache);
+        session.keepSignatureCache(source.projectFolder(), cache);
+        return stats;
+    }
 
-            }
+    /**
+     * Generates a synthetic IB synchronization state of a project straight from a revision of its Git repository
+     * without checking it out. Resources are streamed from the object database with the conversions (e.g. of line
+     * endings) a checkout of the revision would apply, so the state matches the one generated for a checkout.
+     * Symbolic links and submodules of the source folder are skipped, resources having the export-ignore attribute
+     * make the generation fail.
+     *
+     * @param repositoryFolder A work tree folder of the repository or a bare repository folder. Cannot be {@code null}
+     * @param revision A revision in any notation Git understands. Cannot be {@code null}
+     * @param projectPath The project folder relative to the repository root, empty for the root. Cannot be
+     * {@code null}
+     * @param sourceConfigDumpInfoFile A path to a ConfigDumpInfo.xml being received from the source IB. Cannot be
+     * {@code null}
+     * @param generationId A global generation identifier being received from the source IB. Cannot be {@code null}
+     * @param targetIBUuids UUIDs of target IBs. Cannot be {@code null} or empty
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param settings Generation settings, the signature cache file is not used. Cannot be {@code null}
+     * @return Statistics of the generation phases. Never {@code null}
+     */
+    public GenerationStats generateIBSyncState(Path repositoryFolder, String revision, String projectPath,
+        Path sourceConfigDumpInfoFile, String generationId, List<UUID> targetIBUuids, Path syncStateTargetFolder,
+        GenerationSettings settings)
+    {
+        Preconditions.checkNotNull(repositoryFolder);
+        Preconditions.checkNotNull(revision);
+        Preconditions.checkNotNull(projectPath);
+        Preconditions.checkNotNull(targetIBUuids);
+        Preconditions.checkArgument(!targetIBUuids.isEmpty());
+        Preconditions.checkNotNull(syncStateTargetFolder);
+        Preconditions.checkNotNull(settings);
+
+        GitRepository repository = GitRepository.openRepository(repositoryFolder);
+        String commit = repository.resolveCommit(revision);
+        String normalizedProjectPath = normalizePath(projectPath).replaceAll("^/+|/+$", ""); //$NON-NLS-1$ //$NON-NLS-2$
+        String projectPrefix = normalizedProjectPath.isEmpty() ? "" : normalizedProjectPath + (char)PATH_SEPARATOR; //$NON-NLS-1$
+        // Resources are keyed as if the revision was checked out to the repository folder
+        ProjectSyncSource source = new ProjectSyncSource(repository.getWorkTree().resolve(normalizedProjectPath),
+            sourceConfigDumpInfoFile, generationId);
+
+        GenerationStats stats = new GenerationStats(source.projectFolder() + "@" + commit); //$NON-NLS-1$
+        // Step 1: Determine the type of the project - a Configuration or an Extension
+        GenerationStats.Timer phase = stats.start(GenerationStats.PROJECT_PHASE);
+        byte[] projectDefinition = repository.readBlob(commit, projectPrefix + PROJECT_FILE);
+        ProjectInfo projectInfo;
+        try (BufferedReader projectDefinitionReader = new BufferedReader(
+            new InputStreamReader(new ByteArrayInputStream(projectDefinition), StandardCharsets.UTF_8)))
+        {
+            projectInfo = getProjectInfo(projectDefinitionReader);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
         }
+        phase.finish(1, projectDefinition.length);
+
+        RevisionSignatureCollector collector = new RevisionSignatureCollector(repository, commit, settings);
+        return generateIBSyncState(projectInfo, source, targetIBUuids, syncStateTargetFolder, settings,
+            () -> collector.collect(normalizedProjectPath, source.projectFolder(), stats), stats);
     }
 
-    private void compareSyncStates(InfobaseSyncState sourceState, InfobaseSyncState destinationState,
-        String projectName)
+    /**
+     * Generates a synthetic IB synchronization state of a given source project and keeps it up to date while the
+     * project is being changed. Only changed resources are re-hashed, the state is rewritten when changes settle down
+     * or on demand, see {@link SyncStateWatcher}.
+     *
+     * @param sourceProjectFolder A source 1C:EDT project folder. Cannot be {@code null}
+     * @param sourceConfigDumpInfoFile A path to a ConfigDumpInfo.xml being received from the source IB. Cannot be
+     * {@code null}
+     * @param generationId A global generation identifier being received from the source IB. Cannot be {@code null}
+     * @param targetIBUuids UUIDs of target IBs. Cannot be {@code null} or empty
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param debounceMillis The time in milliseconds without changes after that the state is rewritten, non-positive
+     * values stand for rewriting on demand only
+     * @param settings Generation settings, the signature cache file is not used. Cannot be {@code null}
+     * @return The started watcher which must be closed. Never {@code null}
+     */
+    public SyncStateWatcher watchIBSyncState(Path sourceProjectFolder, Path sourceConfigDumpInfoFile,
+        String generationId, List<UUID> targetIBUuids, Path syncStateTargetFolder, long debounceMillis,
+        GenerationSettings settings)
     {
-        System.out.println("State of: " + projectName); //$NON-NLS-1$
-        if (!sourceState.getConfigurationUUID().equals(destinationState.getConfigurationUUID()))
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(sourceConfigDumpInfoFile);
+        Preconditions.checkNotNull(generationId);
+        Preconditions.checkNotNull(targetIBUuids);
+        Preconditions.checkArgument(!targetIBUuids.isEmpty());
+        Preconditions.checkNotNull(syncStateTargetFolder);
+        Preconditions.checkNotNull(settings);
+
+        ProjectInfo projectInfo = getProjectInfo(sourceProjectFolder);
+        List<Path> targetFolders = new ArrayList<>(targetIBUuids.size());
+        for (UUID targetIBUuid : new LinkedHashSet<>(targetIBUuids))
         {
-            System.out.println("  ConfigurationUUID S:" + sourceState.getConfigurationUUID() + " D:" //$NON-NLS-1$//$NON-NLS-2$
-                + destinationState.getConfigurationUUID());
+            targetFolders.add(initAndGetTargetFolders(projectInfo, targetIBUuid, syncStateTargetFolder));
         }
-
-        if (!sourceState.getGenerationId().equals(destinationState.getGenerationId()))
+        // The ConfigDumpInfo.xml belongs to the source IB, so it is ingested and copied to other targets once for
+        // all writes which rewrite only indexes and summaries
+        IngestResult configDumpInfo = ingestConfigDumpInfo(sourceConfigDumpInfoFile, targetFolders.get(0));
+        Path ingestedConfigDumpInfoFile = targetFolders.get(0).resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        for (Path targetFolder : targetFolders.subList(1, targetFolders.size()))
         {
-            System.out.println("  GenerationId S:" + sourceState.getConfigurationUUID() + " D:" //$NON-NLS-1$//$NON-NLS-2$
-                + destinationState.getConfigurationUUID());
+            copyConfigDumpInfo(ingestedConfigDumpInfoFile, targetFolder);
         }
 
-        // Compare EDT resource indexes
-        Set<String> sourceOnlyKeys = new HashSet<>(sourceState.getEdtResourceSignatures().keySet());
-        sourceOnlyKeys.removeAll(destinationState.getEdtResourceSignatures().keySet());
-        if (!sourceOnlyKeys.isEmpty())
+        SyncStateWatcher watcher = new SyncStateWatcher(sourceProjectFolder, settings, debounceMillis,
+            signatures -> updateIBSynchronizationStates(signatures, configDumpInfo, generationId, sourceProjectFolder,
+                targetFolders, false, settings));
+        try
+        {
+            watcher.start();
+        }
+        catch (RuntimeException e)
         {
-            System.out.println("  Source only EDT resources:"); //$NON-NLS-1$
-            for (String key : sourceOnlyKeys)
+            watcher.close();
+            throw e;
+        }
+        return watcher;
+    }
+
+    /**
+     * Generates synthetic IB synchronization states of several projects (e.g. a configuration and all of its
+     * extensions) in one pass for a target IB or several target IBs which are full clones of the same source IB.<br>
+     *
+     * Projects are generated concurrently and resources of all of them are hashed on a shared pool, so small
+     * extensions are hashed alongside the configuration. The persistent signature cache is not used.
+     *
+     * @param sources Sources of the projects. Cannot be {@code null} or empty
+     * @param targetIBUuids UUIDs of target IBs. Cannot be {@code null} or empty
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param settings Generation settings. Cannot be {@code null}
+     */
+    public void generateIBSyncStates(List<ProjectSyncSource> sources, List<UUID> targetIBUuids,
+        Path syncStateTargetFolder, GenerationSettings settings)
+    {
+        Preconditions.checkNotNull(sources);
+        Preconditions.checkArgument(!sources.isEmpty());
+        Preconditions.checkNotNull(targetIBUuids);
+        Preconditions.checkArgument(!targetIBUuids.isEmpty());
+
+        long start = System.nanoTime();
+        AtomicInteger counter = new AtomicInteger();
+        // Project threads mostly walk folders and wait for hashing, parsing and writing is the rest of their work
+        ExecutorService projectExecutor = Executors.newFixedThreadPool(sources.size(), runnable -> {
+            Thread thread = new Thread(runnable, "ib-sync-state-project-" + counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        try (SignatureCollector collector = new SignatureCollector(settings))
+        {
+            CompletableFuture.allOf(sources.stream()
+                .map(source -> CompletableFuture.runAsync(
+                    () -> generateIBSyncState(source, targetIBUuids, syncStateTargetFolder, settings, collector, null),
+                    projectExecutor))
+                .toArray(CompletableFuture[]::new)).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
             {
-                System.out.println("   " + key); //$NON-NLS-1$
+                throw cause;
             }
+            throw e;
         }
+        finally
+        {
+            projectExecutor.shutdownNow();
+        }
+        System.out.println(MessageFormat.format("Sync. states of {0} projects generated in {1} ms", sources.size(), //$NON-NLS-1$
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
 
-        Set<String> destinationOnlyKeys = new HashSet<>(destinationState.getEdtResourceSignatures().keySet());
-        destinationOnlyKeys.removeAll(sourceState.getEdtResourceSignatures().keySet());
-        if (!destinationOnlyKeys.isEmpty())
+    /**
+     * Discovers 1C:EDT configuration and extension projects in a workspace folder by their '.project' files. The
+     * workspace folder itself and its nested folders up to {@value #WORKSPACE_DISCOVERY_DEPTH} levels are searched,
+     * projects are not searched inside of other projects.
+     *
+     * @param workspaceFolder The workspace folder. Cannot be {@code null}
+     * @return Folders of found projects mapped to their names. Never {@code null}
+     */
+    public static Map<String, Path> discoverProjects(Path workspaceFolder)
+    {
+        Preconditions.checkNotNull(workspaceFolder);
+
+        Map<String, Path> projects = new TreeMap<>();
+        try
         {
-            System.out.println("  Destination only EDT resources:"); //$NON-NLS-1$
-            for (String key : destinationOnlyKeys)
+            Files.walkFileTree(workspaceFolder, Set.of(), WORKSPACE_DISCOVERY_DEPTH, new SimpleFileVisitor<Path>()
             {
-                System.out.println("   " + key); //$NON-NLS-1$
-            }
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs)
+                {
+                    if (!dir.equals(workspaceFolder) && dir.getFileName().toString().startsWith(".")) //$NON-NLS-1$
+                    {
+                        return FileVisitResult.SKIP_SUBTREE;
+                    }
+                    if (!Files.isRegularFile(dir.resolve(PROJECT_FILE)))
+                    {
+                        return FileVisitResult.CONTINUE;
+                    }
+                    try
+                    {
+                        ProjectInfo projectInfo = getProjectInfo(dir);
+                        projects.put(projectInfo.name(), dir);
+                    }
+                    catch (IllegalStateException e)
+                    {
+                        // Not a configuration or an extension project
+                    }
+                    return FileVisitResult.SKIP_SUBTREE;
+                }
+            });
         }
-
-        Set<String> bothSideKeys = new HashSet<>(sourceState.getEdtResourceSignatures().keySet());
-        bothSideKeys.retainAll(destinationState.getEdtResourceSignatures().keySet());
-        boolean first = true;
-        for (String key : bothSideKeys)
+        catch (IOException e)
         {
-            byte[] sourceSignature = sourceState.getEdtResourceSignatures().get(key);
-            byte[] destinationSignature = destinationState.getEdtResourceSignatures().get(key);
+            throw new UncheckedIOException(e);
+        }
+        return projects;
+    }
+
+    private static GenerationStats generateIBSyncState(ProjectSyncSource source, List<UUID> targetIBUuids,
+        Path syncStateTargetFolder, GenerationSettings settings, SignatureCollector collector, SignatureCache cache)
+    {
+        GenerationStats stats = new GenerationStats(source.projectFolder().toString());
+        // Step 1: Determine the type of the project - a Configuration or an Extension
+        GenerationStats.Timer phase = stats.start(GenerationStats.PROJECT_PHASE);
+        ProjectInfo projectInfo = getProjectInfo(source.projectFolder());
+        phase.finish(1, sizeOf(source.projectFolder().resolve(PROJECT_FILE)));
+        return generateIBSyncState(projectInfo, source, targetIBUuids, syncStateTargetFolder, settings,
+            () -> collector.collect(source.projectFolder(), cache, stats), stats);
+    }
 
-            if (!Arrays.equals(sourceSignature, destinationSignature))
+    private static GenerationStats generateIBSyncState(ProjectInfo projectInfo, ProjectSyncSource source,
+        List<UUID> targetIBUuids, Path syncStateTargetFolder, GenerationSettings settings,
+        Supplier<Map<Path, byte[]>> signatureCollector, GenerationStats stats)
+    {
+        // Step 2: Create/update target folders of every target IB
+        GenerationStats.Timer phase = stats.start(GenerationStats.TARGETS_PHASE);
+        List<Path> targetFolders = new ArrayList<>(targetIBUuids.size());
+        for (UUID targetIBUuid : new LinkedHashSet<>(targetIBUuids))
+        {
+            targetFolders.add(initAndGetTargetFolders(projectInfo, targetIBUuid, syncStateTargetFolder));
+        }
+        phase.finish(targetFolders.size(), 0);
+        // Step 3: Copy source ConfigDumpInfo.xml to the first destination parsing it in the same pass
+        phase = stats.start(GenerationStats.CONFIG_DUMP_INFO_PHASE);
+        IngestResult configDumpInfo = ingestConfigDumpInfo(source.configDumpInfoFile(), targetFolders.get(0));
+        phase.finish(1, sizeOf(targetFolders.get(0).resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO)));
+        // Step 4: Re-create EDT source signatures directly (the walk and the hashing phases)
+        Map<Path, byte[]> signatures = signatureCollector.get();
+        // Step 5: Create/Update combined synchronization states and their summaries
+        phase = stats.start(GenerationStats.WRITE_PHASE);
+        updateIBSynchronizationStates(signatures, configDumpInfo, source.generationId(), source.projectFolder(),
+            targetFolders, true, settings);
+        long writtenFiles = 0;
+        long writtenBytes = 0;
+        List<String> stateFiles =
+            List.of(INDEX_FILE, SyncStateSummary.SUMMARY_FILE, IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        for (Path targetFolder : targetFolders)
+        {
+            for (String file : stateFiles)
             {
-                if (first)
+                // ConfigDumpInfo.xml of the first state is written by the previous phase
+                if (targetFolder != targetFolders.get(0) || !file.equals(IConfigDumpInfoStore.CONFIG_DUMP_INFO))
                 {
-                    System.out.println("  EDT resource signature differences"); //$NON-NLS-1$
-                    first = false;
+                    long size = sizeOf(targetFolder.resolve(file));
+                    writtenFiles += size >= 0 ? 1 : 0;
+                    writtenBytes += Math.max(size, 0);
                 }
-
-                System.out.println("    " + key); //$NON-NLS-1$
             }
         }
+        phase.finish(writtenFiles, writtenBytes);
+        stats.finish();
+        return stats;
+    }
 
-        // Compare 1C:Enterprise resource indexes
-        sourceOnlyKeys = new HashSet<>(sourceState.getPlatformResourceVersions().keySet());
-        sourceOnlyKeys.removeAll(destinationState.getPlatformResourceVersions().keySet());
-        if (!sourceOnlyKeys.isEmpty())
+    /*
+     * Gets the size of a file, -1 if there is no such file
+     */
+    private static long sizeOf(Path file)
+    {
+        try
         {
-            System.out.println("  Source only 1C:Enterprise resources:"); //$NON-NLS-1$
-            for (String key : sourceOnlyKeys)
-            {
-                System.out.println("   " + key); //$NON-NLS-1$
-            }
+            return Files.size(file);
         }
-
-        destinationOnlyKeys = new HashSet<>(destinationState.getPlatformResourceVersions().keySet());
-        destinationOnlyKeys.removeAll(sourceState.getPlatformResourceVersions().keySet());
-        if (!destinationOnlyKeys.isEmpty())
+        catch (NoSuchFileException e)
         {
-            System.out.println("  Destination only 1C:Enterprise resources:"); //$NON-NLS-1$
-            for (String key : destinationOnlyKeys)
-            {
-                System.out.println("   " + key); //$NON-NLS-1$
-            }
+            return -1;
         }
-
-        bothSideKeys = new HashSet<>(sourceState.getPlatformResourceVersions().keySet());
-        bothSideKeys.retainAll(destinationState.getPlatformResourceVersions().keySet());
-        first = true;
-        for (String key : bothSideKeys)
+        catch (IOException e)
         {
-            String sourceVersion = sourceState.getPlatformResourceVersions().get(key);
-            String destinationVersion = destinationState.getPlatformResourceVersions().get(key);
-
-            if (!sourceVersion.equals(destinationVersion))
-            {
-                if (first)
-                {
-                    System.out.println("  1C:Enterprise resource version differences"); //$NON-NLS-1$
-                    first = false;
-                }
-
-                System.out.println("    " + key + " S:" + sourceVersion + " D:" + destinationVersion); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
-            }
+            throw new UncheckedIOException(e);
         }
     }
 
-    private static InfobaseSyncState parseState(Path syncStateFolder)
+    /**
+     * Regenerates an existing IB synchronization state of a given source project for another revision of its sources.
+     * Only the resources changed between the base and the target revisions of the local Git repository the project
+     * belongs to are re-hashed, deleted resources are dropped, all other signatures, the generation identifier and
+     * the configuration UUID are taken from the existing state as is.<br>
+     *
+     * The target revision must be checked out in the work tree since the changed resources are hashed from there, the
+     * source folder of the project must have no uncommitted changes or untracked files, otherwise the patched state
+     * would match neither the target revision nor the work tree.
+     *
+     * @param sourceProjectFolder A source 1C:EDT project folder inside of a Git work tree. Cannot be {@code null}
+     * @param sourceStateFolder A folder of the existing sync. state of the project for the base revision (the one
+     * containing 'index.idx'). Cannot be {@code null}
+     * @param baseRevision The revision the existing sync. state corresponds to. Cannot be {@code null}
+     * @param targetRevision The revision a new sync. state is produced for. Cannot be {@code null}
+     * @param targetIBUuid A target IB UUID. May be {@code null} to update the existing sync. state in place
+     * @param syncStateTargetFolder A target folder for sync states of IBs. May be {@code null} to update the existing
+     * sync. state in place
+     * @param settings Generation settings. Cannot be {@code null}
+     */
+    public void patchIBSyncState(Path sourceProjectFolder, Path sourceStateFolder, String baseRevision,
+        String targetRevision, UUID targetIBUuid, Path syncStateTargetFolder, GenerationSettings settings)
     {
-        long timestamp = 0;
-        String generationId = null;
-        String configurationId = null;
-        Map<String, byte[]> edtSignatures = null;
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkNotNull(baseRevision);
+        Preconditions.checkNotNull(targetRevision);
+        Preconditions.checkNotNull(settings);
+
+        // Step 1: Load the existing state
+        SyncIndexReader sourceIndex;
+        try
+        {
+            sourceIndex = SyncIndexReader.read(sourceStateFolder.resolve(INDEX_FILE));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
 
-        // TODO check if we have extensions without a base
-        Path storePath = syncStateFolder.resolve(INDEX_FILE);
-        if (!storePath.toFile().exists())
+        // Step 2: Collect changes of the project sources between the revisions
+        GitRepository repository = GitRepository.open(sourceProjectFolder);
+        String targetCommit = repository.resolveCommit(targetRevision);
+        if (!targetCommit.equals(repository.resolveCommit("HEAD"))) //$NON-NLS-1$
         {
-            System.out.println(
-                MessageFormat.format("'index.idx' file is absent for configuration state {0}", syncStateFolder)); //$NON-NLS-1$
+            throw new IllegalStateException(
+                MessageFormat.format("Target revision {0} is not checked out in {1}", targetRevision, //$NON-NLS-1$
+                    repository.getWorkTree()));
         }
-        else
+        String projectPath = repository.toRepositoryPath(sourceProjectFolder);
+        String projectPrefix = projectPath.isEmpty() ? "" : projectPath + (char)PATH_SEPARATOR; //$NON-NLS-1$
+        if (repository.hasLocalChanges(projectPrefix + SOURCE_FOLDER))
         {
-            try (DataInputStream dis = new DataInputStream(new FileInputStream(storePath.toFile())))
-            {
-                timestamp = dis.readLong();
+            throw new IllegalStateException(MessageFormat.format(
+                "Sources of {0} have uncommitted changes or untracked files, they cannot be patched", //$NON-NLS-1$
+                sourceProjectFolder));
+        }
+        List<GitRepository.Change> changes = repository.diff(repository.resolveCommit(baseRevision), targetCommit,
+            projectPrefix + SOURCE_FOLDER);
 
-                int count = dis.readInt();
-                edtSignatures = new HashMap<>(count);
-                for (int idx = 0; idx < count; idx++)
+        // Step 3: Re-hash changed resources and drop deleted ones
+        Map<String, byte[]> edtSignatures = new HashMap<>(sourceIndex.asMap());
+        int updated = 0;
+        int removed = 0;
+        for (GitRepository.Change change : changes)
+        {
+            String key = change.path().substring(projectPrefix.length());
+            Path file = repository.getWorkTree().resolve(change.path());
+            if (change.deleted() || !Files.isRegularFile(file))
+            {
+                if (edtSignatures.remove(key) != null)
                 {
-                    String key = normalizePath(dis.readUTF());
-                    int valueSize = dis.readInt();
-                    byte[] value = new byte[valueSize];
-                    dis.read(value);
-
-                    edtSignatures.put(key, value);
+                    removed++;
                 }
-
-                generationId = dis.readUTF();
-                configurationId = dis.readUTF();
             }
-            catch (Exception e)
+            else
             {
-                e.printStackTrace(System.out);
-                return null;
+                try
+                {
+                    edtSignatures.put(key, SignatureHasher.computeSignature(file, Files.size(file)));
+                    updated++;
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
             }
         }
 
-        ConfigDumpParseResult mainPlatformResourceVersions = null;
-        Path cdiPath = syncStateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
-        if (!cdiPath.toFile().exists())
-        {
-            System.out.println(MessageFormat.format("'ConfigDumpInfo.xml' file is absent for configuration state {0}", //$NON-NLS-1$
-                syncStateFolder));
-        }
-        else
+        // Step 4: Write the new state
+        Path targetFolder = sourceStateFolder;
+        if (targetIBUuid != null && syncStateTargetFolder != null)
         {
-            mainPlatformResourceVersions = parseConfigDump(cdiPath);
+            targetFolder = initAndGetTargetFolders(getProjectInfo(sourceProjectFolder), targetIBUuid,
+                syncStateTargetFolder);
+            copyConfigDumpInfo(sourceStateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO), targetFolder);
         }
+        SyncIndexWriter.write(targetFolder.resolve(INDEX_FILE), edtSignatures, sourceIndex.getGenerationId(),
+            sourceIndex.getConfigurationUUID(), settings.durable());
+        writeSyncStateSummary(targetFolder, edtSignatures, sourceIndex.getGenerationId(),
+            sourceIndex.getConfigurationUUID());
 
-        InfobaseSyncState state = new InfobaseSyncState(timestamp, configurationId, edtSignatures,
-            mainPlatformResourceVersions != null ? mainPlatformResourceVersions.versions : null, generationId);
-
-        addActualExtensionState(syncStateFolder, state);
-
-        return state;
+        System.out.println(MessageFormat.format("Sync. state patched: {0} changes, {1} resources re-hashed, {2} removed", //$NON-NLS-1$
+            changes.size(), updated, removed));
     }
 
-    private static String normalizePath(String rawPath)
+    /**
+     * Derives IB synchronization states of new IBs being full clones of an IB having a valid state. A state does not
+     * depend on the UUID of its IB, so the existing state including its extension states is cloned as is: files are
+     * copied or, on request, hard linked where possible, nothing is re-hashed or parsed. Existing states of the new IBs
+     * are replaced. Linked states change together if their files are rewritten in place.
+     *
+     * @param sourceStateFolder A folder of the existing sync. state (the one containing 'index.idx' and named after
+     * the UUID of its IB). Cannot be {@code null}
+     * @param targetIBUuids UUIDs of new IBs. Cannot be {@code null} or empty
+     * @param syncStateTargetFolder A target folder for sync states of IBs. Cannot be {@code null}
+     * @param link Whether files should be hard linked where possible instead of being copied
+     * @param settings Generation settings. Cannot be {@code null}
+     */
+    public void retargetIBSyncState(Path sourceStateFolder, List<UUID> targetIBUuids, Path syncStateTargetFolder,
+        boolean link, GenerationSettings settings)
     {
-        return rawPath.replace('\\', (char)PATH_SEPARATOR);
-    }
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkNotNull(targetIBUuids);
+        Preconditions.checkArgument(!targetIBUuids.isEmpty());
+        Preconditions.checkNotNull(syncStateTargetFolder);
+        Preconditions.checkNotNull(settings);
 
-    private static void addActualExtensionState(Path syncStateFolder, InfobaseSyncState state)
-    {
-        Path extensionStorePath = syncStateFolder.resolve(EXTENSION_SYNC_STATE_HOLDER);
-        if (!extensionStorePath.toFile().exists())
+        if (!Files.isRegularFile(sourceStateFolder.resolve(INDEX_FILE)))
         {
-            // No extension indexes found
-            return;
+            throw new IllegalStateException(
+                MessageFormat.format("{0} is not a sync. state folder", sourceStateFolder)); //$NON-NLS-1$
         }
 
-        String[] subdirs = extensionStorePath.toFile().list();
-        for (String extensionName : subdirs)
+        Path normalizedSourceFolder = sourceStateFolder.toAbsolutePath().normalize();
+        for (UUID targetIBUuid : new LinkedHashSet<>(targetIBUuids))
         {
-            Path extensionDirPath = extensionStorePath.resolve(extensionName);
-            File extensionDir = extensionDirPath.toFile();
-            if (extensionDir.isDirectory())
+            long start = System.nanoTime();
+            Path targetFolder = syncStateTargetFolder.resolve(targetIBUuid.toString());
+            if (targetFolder.toAbsolutePath().normalize().equals(normalizedSourceFolder))
             {
-                long timestamp = 0;
-                String generationId = null;
-                String configurationId = null;
-                Map<String, byte[]> edtSignatures = null;
+                throw new IllegalStateException(
+                    MessageFormat.format("Sync. state {0} cannot be retargeted to itself", sourceStateFolder)); //$NON-NLS-1$
+            }
 
-                Path storePath = extensionDirPath.resolve(INDEX_FILE);
-                if (!storePath.toFile().exists())
-                {
-                    System.out.println(MessageFormat.format("'index.idx' file is absent for extension state {0}", //$NON-NLS-1$
-                        extensionName));
-                }
-                else
-                {
-                    try (DataInputStream dis = new DataInputStream(new FileInputStream(storePath.toFile())))
-                    {
-                        timestamp = dis.readLong();
-
-                        int count = dis.readInt();
-                        edtSignatures = new HashMap<>(count);
-                        for (int idx = 0; idx < count; idx++)
-                        {
-                            String key = dis.readUTF();
-                            int valueSize = dis.readInt();
-                            byte[] value = new byte[valueSize];
-                            dis.read(value);
-
-                            edtSignatures.put(key, value);
-                        }
-
-                        generationId = dis.readUTF();
-                        configurationId = dis.readUTF();
-                    }
-                    catch (Exception e)
-                    {
-                        e.printStackTrace(System.out);
-                        continue;
-                    }
-                }
+            SyncStateCloner.Result result =
+                SyncStateCloner.clone(sourceStateFolder, targetFolder, link, settings.durable());
+            System.out.println(MessageFormat.format("Sync. state {0} derived: {1} files linked, {2} copied in {3} ms", //$NON-NLS-1$
+                targetIBUuid, result.linked(), result.copied(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        }
+    }
 
-                Path cdiPath = extensionDirPath.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
-                if (!cdiPath.toFile().exists())
-                {
-                    System.out
-                        .println(MessageFormat.format("'ConfigDumpInfo.xml' file is absent for extension state {0}", //$NON-NLS-1$
-                            extensionName));
-                }
+    /**
+     * Compares two IB synchronization states
+     *
+     * @param sourceStateFolder A folder of the source sync. state (the one containing 'index.idx'). Cannot be
+     * {@code null}
+     * @param destinationStateFolder A folder of the destination sync. state. Cannot be {@code null}
+     * @return The differences between the states including the differences of their extension states. Never
+     * {@code null}
+     * @throws IllegalStateException if a state cannot be loaded
+     */
+    public SyncStateDiff compareIBSyncStates(Path sourceStateFolder, Path destinationStateFolder)
+    {
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkNotNull(destinationStateFolder);
 
-                ConfigDumpParseResult extensionPlatformResourceVersions = parseConfigDump(cdiPath);
-                state.getExtensionSyncStates()
-                    .put(extensionName, new InfobaseSyncState(timestamp, configurationId, edtSignatures,
-                        extensionPlatformResourceVersions.versions, generationId));
-            }
+        try (SyncStateComparator comparator = new SyncStateComparator())
+        {
+            return compareIBSyncStates(sourceStateFolder, destinationStateFolder, comparator);
         }
     }
 
-    private static void updateIBSynchronizationState(Map<Path, byte[]> signatures,
-        ConfigDumpParseResult configDumpInfoParseResult, String generationId, Path sourceProjectFolder,
-        Path targetFolder)
+    /**
+     * Compares two IB synchronization states within a long-living session. Comparison workers of the session are
+     * shared with concurrent requests.
+     *
+     * @param sourceStateFolder A folder of the source sync. state (the one containing 'index.idx'). Cannot be
+     * {@code null}
+     * @param destinationStateFolder A folder of the destination sync. state. Cannot be {@code null}
+     * @param session The session. Cannot be {@code null}
+     * @return The differences between the states including the differences of their extension states. Never
+     * {@code null}
+     * @throws IllegalStateException if a state cannot be loaded
+     */
+    public SyncStateDiff compareIBSyncStates(Path sourceStateFolder, Path destinationStateFolder,
+        SyncStateSession session)
     {
-        try (DataOutputStream dao =
-            new DataOutputStream(new FileOutputStream(targetFolder.resolve(INDEX_FILE).toFile())))
-        {
-            // Writing the sync. timestamp
-            dao.writeLong(System.currentTimeMillis());
-            dao.writeInt(signatures.size());
-            for (Entry<Path, byte[]> entry : signatures.entrySet())
-            {
-                // Resource path
-                dao.writeUTF(normalizePath(sourceProjectFolder.relativize(entry.getKey()).toString()));
-                // Signature length
-                dao.writeInt(entry.getValue().length);
-                // Signature body
-                dao.write(entry.getValue());
-            }
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkNotNull(destinationStateFolder);
+        Preconditions.checkNotNull(session);
 
-            // IB data generation identifier
-            dao.writeUTF(generationId);
-            // Configuration object UUID
-            dao.writeUTF(configDumpInfoParseResult.configurationUUID());
+        return compareIBSyncStates(sourceStateFolder, destinationStateFolder, session.getComparator());
+    }
+
+    private static SyncStateDiff compareIBSyncStates(Path sourceStateFolder, Path destinationStateFolder,
+        SyncStateComparator comparator)
+    {
+        try
+        {
+            // States are compared by their summaries where possible, otherwise they are loaded concurrently and
+            // EDT and platform resources of the configuration and of every extension are compared concurrently
+            return comparator.compareWithExtensions(sourceStateFolder, destinationStateFolder).join();
         }
-        catch (IOException e)
+        catch (CompletionException e)
         {
-            throw new UncheckedIOException(e);
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            throw e;
         }
     }
 
-    private static Map<Path, byte[]> collectSignatures(Path sourceProjectFolder)
+    /**
+     * Verifies that the EDT resources of a project match an IB synchronization state without generating a new state.
+     * The set of resource paths is checked first, then resources are checked by their sizes where possible and the
+     * rest of them are hashed in parallel.
+     *
+     * @param sourceProjectFolder A source 1C:EDT project folder. Cannot be {@code null}
+     * @param stateFolder A folder of the sync. state (the one containing 'index.idx'). Cannot be {@code null}
+     * @param stopAtFirstDifference Whether the verification should stop at the first difference found
+     * @param settings Generation settings, the signature cache is only read. Cannot be {@code null}
+     * @return The differences of EDT resources, the state is the source and the project is the destination. Never
+     * {@code null}
+     * @throws IllegalStateException if the state cannot be loaded
+     */
+    public SyncStateDiff verifyIBSyncState(Path sourceProjectFolder, Path stateFolder, boolean stopAtFirstDifference,
+        GenerationSettings settings)
     {
-        // Collect all existent source files at once
-        Collection<Path> targetFiles = new HashSet<>();
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(stateFolder);
+        Preconditions.checkNotNull(settings);
+
+        SignatureCache cache = settings.signatureCacheFile() != null
+            ? SignatureCache.load(settings.signatureCacheFile(), sourceProjectFolder) : null;
+        return verifyIBSyncState(sourceProjectFolder, stateFolder, stopAtFirstDifference, cache,
+            settings.effectiveThreads());
+    }
+
+    /**
+     * Verifies that the EDT resources of a project match an IB synchronization state within a long-living session.
+     * Signatures kept by the session for the project are used as a cache.
+     *
+     * @param sourceProjectFolder A source 1C:EDT project folder. Cannot be {@code null}
+     * @param stateFolder A folder of the sync. state (the one containing 'index.idx'). Cannot be {@code null}
+     * @param stopAtFirstDifference Whether the verification should stop at the first difference found
+     * @param session The session. Cannot be {@code null}
+     * @return The differences of EDT resources, the state is the source and the project is the destination. Never
+     * {@code null}
+     * @throws IllegalStateException if the state cannot be loaded
+     */
+    public SyncStateDiff verifyIBSyncState(Path sourceProjectFolder, Path stateFolder, boolean stopAtFirstDifference,
+        SyncStateSession session)
+    {
+        Preconditions.checkNotNull(sourceProjectFolder);
+        Preconditions.checkNotNull(stateFolder);
+        Preconditions.checkNotNull(session);
+
+        return verifyIBSyncState(sourceProjectFolder, stateFolder, stopAtFirstDifference,
+            session.openSignatureCache(sourceProjectFolder), session.getSettings().effectiveThreads());
+    }
+
+    private static SyncStateDiff verifyIBSyncState(Path sourceProjectFolder, Path stateFolder,
+        boolean stopAtFirstDifference, SignatureCache cache, int threads)
+    {
+        SyncIndexReader index;
         try
         {
-            Files.walkFileTree(sourceProjectFolder.resolve(SOURCE_FOLDER), new SimpleFileVisitor<Path>()
-            {
-                @Override
-                public FileVisitResult visitFile(Path path, BasicFileAttributes attrs)
-                {
-                    targetFiles.add(path);
-                    return FileVisitResult.CONTINUE;
-                }
-            });
+            // The index is not kept mapped, so a served state can be regenerated right after the verification
+            index = SyncIndexReader.read(stateFolder.resolve(INDEX_FILE));
         }
         catch (IOException e)
         {
-            throw new UncheckedIOException(e);
+            throw new IllegalStateException(MessageFormat.format("Sync. state {0} cannot be loaded", stateFolder), e); //$NON-NLS-1$
         }
 
-        // Collect source signatures using the same alghorithm that 1C:EDT is using
-        Map<Path, byte[]> signatures =
-            targetFiles.parallelStream().collect(Collectors.toConcurrentMap(file -> file, file -> {
-                return computeSignature(file);
-            }, (oldValue, newValue) -> oldValue, ConcurrentHashMap::new));
+        List<SyncStateDiff.Difference> differences =
+            new SyncStateVerifier(sourceProjectFolder, index, cache, stopAtFirstDifference, threads).verify();
+        return new SyncStateDiff(getProjectInfo(sourceProjectFolder).name(), index.getConfigurationUUID(),
+            index.getConfigurationUUID(), index.getGenerationId(), index.getGenerationId(), differences, List.of());
+    }
 
-        return signatures;
+    static String normalizePath(String rawPath)
+    {
+        return rawPath.replace('\\', (char)PATH_SEPARATOR);
     }
 
-    private static byte[] computeSignature(Path filePath)
+    /*
+     * Writes indexes and summaries of states, the ConfigDumpInfo.xml ingested to the first target folder is copied to
+     * the other ones along with them if requested
+     */
+    private static void updateIBSynchronizationStates(Map<Path, byte[]> signatures, IngestResult configDumpInfo,
+        String generationId, Path sourceProjectFolder, List<Path> targetFolders, boolean copyConfigDumpInfo,
+        GenerationSettings settings)
     {
-        try (InputStream inputStream = new BufferedInputStream(Files.newInputStream(filePath), 4096))
+        Map<String, byte[]> edtSignatures = new HashMap<>(signatures.size() * 4 / 3 + 1);
+        for (Entry<Path, byte[]> entry : signatures.entrySet())
         {
-            return computeSignature(inputStream);
+            edtSignatures.put(normalizePath(sourceProjectFolder.relativize(entry.getKey()).toString()),
+                entry.getValue());
         }
-        catch (IOException e)
+        ConfigDumpParseResult parseResult = configDumpInfo.parseResult();
+        SyncStateSummary.Content summary = SyncStateSummary.prepare(edtSignatures, generationId,
+            parseResult.configurationUUID(), parseResult.versions(), configDumpInfo.digest());
+
+        Path ingestedConfigDumpInfoFile = targetFolders.get(0).resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        Consumer<Path> stateWriter = targetFolder -> {
+            if (copyConfigDumpInfo && !targetFolder.equals(targetFolders.get(0)))
+            {
+                copyConfigDumpInfo(ingestedConfigDumpInfoFile, targetFolder);
+            }
+            SyncIndexWriter.write(targetFolder.resolve(INDEX_FILE), edtSignatures, generationId,
+                parseResult.configurationUUID(), settings.durable());
+            SyncStateSummary.write(targetFolder, summary);
+        };
+        if (targetFolders.size() == 1)
         {
-            throw new UncheckedIOException(e);
+            stateWriter.accept(targetFolders.get(0));
+            return;
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        ExecutorService executor = Executors.newFixedThreadPool(
+            Math.min(targetFolders.size(), settings.effectiveThreads()), runnable -> {
+                Thread thread = new Thread(runnable, "ib-sync-state-writer-" + counter.incrementAndGet()); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        try
+        {
+            CompletableFuture.allOf(targetFolders.stream()
+                .map(targetFolder -> CompletableFuture.runAsync(() -> stateWriter.accept(targetFolder), executor))
+                .toArray(CompletableFuture[]::new)).join();
         }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            throw e;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+        System.out.println(MessageFormat.format("Sync. states written for {0} infobases", targetFolders.size())); //$NON-NLS-1$
     }
 
-    private static byte[] computeSignature(InputStream content)
+    /*
+     * Writes a summary of a state whose ConfigDumpInfo.xml has not been parsed yet
+     */
+    private static void writeSyncStateSummary(Path stateFolder, Map<String, byte[]> edtSignatures,
+        String generationId, String configurationUUID)
     {
-        try
+        Path cdiFile = stateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        Map<String, String> versions = null;
+        byte[] digest = null;
+        if (Files.isRegularFile(cdiFile))
         {
-            return Hashing.sha256().hashBytes(content.readAllBytes()).asBytes();
+            try
+            {
+                versions = ConfigDumpInfoCache.load(cdiFile).versions();
+                digest = SignatureHasher.computeSignature(cdiFile, Files.size(cdiFile));
+            }
+            catch (IOException e)
+            {
+                throw new UncheckedIOException(e);
+            }
         }
-        catch (IOException e)
+        SyncStateSummary.write(stateFolder, edtSignatures, generationId, configurationUUID, versions, digest);
+    }
+
+    private static IngestResult ingestConfigDumpInfo(Path sourceConfigDumpInfoFile, Path targetFolder)
+    {
+        if (!Files.exists(sourceConfigDumpInfoFile) || Files.isDirectory(sourceConfigDumpInfoFile))
         {
-            throw new UncheckedIOException(e);
+            throw new IllegalStateException("sourceConfigDumpInfoFile is missing"); //$NON-NLS-1$
         }
+        Path targetConfigDumpInfoFile = targetFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        IngestResult result = ConfigDumpInfoParser.ingest(sourceConfigDumpInfoFile, targetConfigDumpInfoFile);
+        System.out.println(MessageFormat.format("ConfigDumpInfo.xml ingested: {0} versions, digest {1}", //$NON-NLS-1$
+            result.parseResult().versions().size(), HexFormat.of().formatHex(result.digest())));
+        ConfigDumpInfoCache.store(targetConfigDumpInfoFile, result.digest(), result.parseResult());
+        return result;
     }
 
     private static void copyConfigDumpInfo(Path sourceConfigDumpInfoFile, Path targetFolder)
@@ -447,8 +859,13 @@ public class EdtIBSynchronizationStateManager
         }
         try
         {
-            Files.copy(sourceConfigDumpInfoFile, targetFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO),
-                StandardCopyOption.REPLACE_EXISTING);
+            copyFile(sourceConfigDumpInfoFile, targetFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO));
+            // The sidecar is re-validated by the content digest since the copy has another modification time
+            Path sourceSidecarFile = sourceConfigDumpInfoFile.resolveSibling(ConfigDumpInfoCache.SIDECAR_FILE);
+            if (Files.isRegularFile(sourceSidecarFile))
+            {
+                copyFile(sourceSidecarFile, targetFolder.resolve(ConfigDumpInfoCache.SIDECAR_FILE));
+            }
         }
         catch (IOException e)
         {
@@ -456,6 +873,24 @@ public class EdtIBSynchronizationStateManager
         }
     }
 
+    /*
+     * Copies a file through a temporary one which replaces the target by a rename, so files of hard linked states
+     * are never modified in place
+     */
+    private static void copyFile(Path source, Path target) throws IOException
+    {
+        Path tempFile = target.resolveSibling(target.getFileName() + "." + UUID.randomUUID() + ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+        try
+        {
+            Files.copy(source, tempFile);
+            SyncIndexWriter.publish(tempFile, target);
+        }
+        finally
+        {
+            Files.deleteIfExists(tempFile);
+        }
+    }
+
     private static Path initAndGetTargetFolders(ProjectInfo projectInfo, UUID targetIBUuid, Path syncStateTargetFolder)
     {
         Path targetFolder = syncStateTargetFolder.resolve(targetIBUuid.toString());
@@ -487,53 +922,58 @@ public class EdtIBSynchronizationStateManager
             throw new IllegalStateException("projectDefinitionPath is missing"); //$NON-NLS-1$
         }
 
-        Set<String> natures = new HashSet<>();
-        String projectName = null;
         try (BufferedReader projectDefinitionReader =
             new BufferedReader(new FileReader(projectDefinitionPath.toFile(), Charset.forName("UTF-8")))) //$NON-NLS-1$
         {
-            String line;
-            boolean naturesBlock = false;
+            return getProjectInfo(projectDefinitionReader);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
 
-            while ((line = projectDefinitionReader.readLine().trim()) != null)
+    private static ProjectInfo getProjectInfo(BufferedReader projectDefinitionReader) throws IOException
+    {
+        Set<String> natures = new HashSet<>();
+        String projectName = null;
+        String line;
+        boolean naturesBlock = false;
+
+        while ((line = projectDefinitionReader.readLine()) != null)
+        {
+            line = line.trim();
+            if (projectName == null && line.startsWith(NAME_START_TAG))
             {
-                if (projectName == null && line.startsWith(NAME_START_TAG))
+                // Reading the project name
+                Matcher matcher = NAME_PATTERN.matcher(line);
+                if (matcher.find())
                 {
-                    // Reading the project name
-                    Matcher matcher = NAME_PATTERN.matcher(line);
-                    if (matcher.find())
-                    {
-                        projectName = matcher.group(1).trim();
-                    }
+                    projectName = matcher.group(1).trim();
                 }
+            }
 
-                // Start to read only if the file starts with natures tag
-                if (!naturesBlock && line.trim().startsWith(NATURES_START_TAG))
-                {
-                    naturesBlock = true;
-                }
+            // Start to read only if the file starts with natures tag
+            if (!naturesBlock && line.trim().startsWith(NATURES_START_TAG))
+            {
+                naturesBlock = true;
+            }
 
-                // Finishing if finishing natures tag is found
-                if (naturesBlock && line.trim().startsWith(NATURES_END_TAG))
-                {
-                    break;
-                }
+            // Finishing if finishing natures tag is found
+            if (naturesBlock && line.trim().startsWith(NATURES_END_TAG))
+            {
+                break;
+            }
 
-                if (naturesBlock)
+            if (naturesBlock)
+            {
+                Matcher matcher = NATURE_PATTERN.matcher(line);
+                while (matcher.find())
                 {
-                    Matcher matcher = NATURE_PATTERN.matcher(line);
-                    while (matcher.find())
-                    {
-                        natures.add(matcher.group(1).trim());
-                    }
+                    natures.add(matcher.group(1).trim());
                 }
             }
         }
-        catch (IOException e)
-        {
-            throw new UncheckedIOException(e);
-        }
-
         if (natures.contains(com._1c.g5.v8.dt.core.ICoreConstants.V8_EXTENSION_NATURE))
         {
             return new ProjectInfo(com._1c.g5.v8.dt.core.ICoreConstants.V8_EXTENSION_NATURE, projectName);
@@ -549,7 +989,8 @@ public class EdtIBSynchronizationStateManager
     }
 
     /**
-     * Parses a given ConfigDumpInfo file
+     * Parses a given ConfigDumpInfo file. The binary sidecar next to the file is used instead of parsing when it is
+     * valid, otherwise the sidecar is (re-)written, see {@link ConfigDumpInfoCache}
      *
      * @param location The location of the file. Cannot be {@link NullPointerException}
      * @return The result of parsing. Cannot be {@link null}
@@ -557,53 +998,7 @@ public class EdtIBSynchronizationStateManager
      */
     public static ConfigDumpParseResult parseConfigDump(Path location)
     {
-        Preconditions.checkNotNull(location);
-
-        Map<String, String> versions = new HashMap<>();
-        String configurationUUID = null;
-        try (BufferedReader reader = new BufferedReader(new FileReader(location.toFile(), StandardCharsets.UTF_8)))
-        {
-            String line = reader.readLine();
-            while (line != null)
-            {
-                line = reader.readLine();
-
-                if (line != null && line.stripLeading().startsWith("<Metadata")) //$NON-NLS-1$
-                {
-                    int nameStartIdx = line.indexOf("name=\""); //$NON-NLS-1$
-                    String name = line.substring(nameStartIdx + 6, line.indexOf("\"", nameStartIdx + 6)); //$NON-NLS-1$
-                    if (configurationUUID == null && isConfigurationRecord(name))
-                    {
-                        int idStartIdx = line.indexOf("id=\""); //$NON-NLS-1$
-                        configurationUUID = line.substring(idStartIdx + 4, line.indexOf("\"", idStartIdx + 4)); //$NON-NLS-1$
-                    }
-
-                    int versionStartIdx = line.indexOf("configVersion=\""); //$NON-NLS-1$
-                    if (versionStartIdx != -1)
-                    {
-                        String versionId =
-                            line.substring(versionStartIdx + 15, line.indexOf("\"", versionStartIdx + 15)); //$NON-NLS-1$
-                        versions.put(name, versionId);
-                    }
-                }
-            }
-        }
-        catch (IOException e)
-        {
-            throw new UncheckedIOException(e);
-        }
-
-        return new ConfigDumpParseResult(versions, configurationUUID);
-    }
-
-    private static boolean isConfigurationRecord(String name)
-    {
-        boolean result = name.startsWith(CONFIGURATION_RECORD_PATTERN);
-        if (result)
-        {
-            result = name.lastIndexOf(".") == CONFIGURATION_RECORD_PATTERN.length() - 1; //$NON-NLS-1$
-        }
-        return result;
+        return ConfigDumpInfoCache.load(location);
     }
 
     private record ProjectInfo(String leadingNature, String name)
@@ -615,11 +1010,12 @@ public class EdtIBSynchronizationStateManager
      * Internal record which used to transfer parse result of a ConfigDumpInfo files.
      *
      * @param versions Map where keys are metadata element names like "Catalog.Справочник.Form.ФормаЭлемента.Form"
-     * and values are versions of element content as deemed by platform. Never null.
+     * and values are versions of element content as deemed by platform. Parsers provide an immutable hierarchical
+     * map, see {@link PlatformVersionTree}. Never null.
      * @param configurationUUID UUID of root metadata object. Could be null or empty if dump file
      * does not contain version for root metadata object.
      */
-    private record ConfigDumpParseResult(Map<String, String> versions, String configurationUUID)
+    record ConfigDumpParseResult(Map<String, String> versions, String configurationUUID)
     {
         // Left empty intentionally
     }
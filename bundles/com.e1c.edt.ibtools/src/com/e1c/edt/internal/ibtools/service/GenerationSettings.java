@@ -0,0 +1,37 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.nio.file.Path;
+
+/**
+ * Settings of IB synchronization state generation.
+ *
+ * @param signatureCacheFile A file of the persistent signature cache. May be {@code null} if no cache should be used
+ * @param blobCacheFile A file of the persistent signature cache keyed by Git blob identifiers shared by work trees of
+ * a repository. May be {@code null} if no such cache should be used
+ * @param threads The number of hashing workers. Non-positive values stand for the number of available processors
+ * @param virtualThreads Whether hashing workers should be run on virtual threads (if the runtime supports them)
+ * @param durable Whether written sync. state files should be forced to the storage device before being published
+ *
+ * @author Alexander Tretyakevich
+ */
+public record GenerationSettings(Path signatureCacheFile, Path blobCacheFile, int threads, boolean virtualThreads,
+    boolean durable)
+{
+    /**
+     * Default settings: no caches, a worker per available processor, platform threads, no forced writes
+     */
+    public static final GenerationSettings DEFAULT = new GenerationSettings(null, null, 0, false, false);
+
+    /**
+     * Gets the actual number of hashing workers
+     *
+     * @return The number of hashing workers, always positive
+     */
+    public int effectiveThreads()
+    {
+        return threads > 0 ? threads : Runtime.getRuntime().availableProcessors();
+    }
+}
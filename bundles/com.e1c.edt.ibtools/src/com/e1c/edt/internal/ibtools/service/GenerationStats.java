@@ -0,0 +1,216 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.MessageFormat;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Statistics of phases of IB synchronization state generation: wall time, files and bytes processed and bytes
+ * allocated. Every finished phase is reported to the standard output and emitted as a {@link SyncStatePhaseEvent}
+ * JFR event.<br>
+ *
+ * Allocated bytes are sampled over all live threads of the process when a phase starts and finishes, so they include
+ * allocations of concurrent generations and miss allocations of threads terminated during the phase. The signature
+ * collection phases overlap: resources are hashed while the tree is being walked.
+ *
+ * @author Alexander Tretyakevich
+ */
+public final class GenerationStats
+{
+    /**
+     * Determining the type of the project
+     */
+    public static final String PROJECT_PHASE = "project"; //$NON-NLS-1$
+
+    /**
+     * Creating target folders of the states
+     */
+    public static final String TARGETS_PHASE = "targets"; //$NON-NLS-1$
+
+    /**
+     * Copying and parsing ConfigDumpInfo.xml
+     */
+    public static final String CONFIG_DUMP_INFO_PHASE = "configDumpInfo"; //$NON-NLS-1$
+
+    /**
+     * Walking the source tree of the project
+     */
+    public static final String WALK_PHASE = "walk"; //$NON-NLS-1$
+
+    /**
+     * Hashing resources not found in a signature cache, it starts along with the walk
+     */
+    public static final String HASH_PHASE = "hash"; //$NON-NLS-1$
+
+    /**
+     * Writing indices and summaries of the states
+     */
+    public static final String WRITE_PHASE = "write"; //$NON-NLS-1$
+
+    private final String project;
+    private final long start = System.nanoTime();
+    private final List<Phase> phases = new CopyOnWriteArrayList<>();
+    private volatile long totalNanos = -1;
+
+    /**
+     * Constructs statistics of a generation
+     *
+     * @param project The name of the project. Cannot be {@code null}
+     */
+    GenerationStats(String project)
+    {
+        this.project = Preconditions.checkNotNull(project);
+    }
+
+    /**
+     * Statistics of a finished phase
+     *
+     * @param name The name of the phase
+     * @param wallNanos The wall time of the phase in nanoseconds
+     * @param files The number of processed files
+     * @param bytes The number of processed bytes
+     * @param allocatedBytes The number of bytes allocated during the phase, {@code -1} if the runtime does not
+     * measure allocations
+     */
+    public record Phase(String name, long wallNanos, long files, long bytes, long allocatedBytes)
+    {
+        /**
+         * Gets the throughput of the phase
+         *
+         * @return Processed bytes per second
+         */
+        public double throughput()
+        {
+            return wallNanos > 0 ? bytes * (double)TimeUnit.SECONDS.toNanos(1) / wallNanos : 0;
+        }
+    }
+
+    /**
+     * Gets the name of the project
+     *
+     * @return The name of the project. Never {@code null}
+     */
+    public String getProject()
+    {
+        return project;
+    }
+
+    /**
+     * Gets finished phases in the order of their completion
+     *
+     * @return The finished phases. Never {@code null}
+     */
+    public List<Phase> getPhases()
+    {
+        return List.copyOf(phases);
+    }
+
+    /**
+     * Gets the wall time of the whole generation
+     *
+     * @return The wall time in nanoseconds or {@code -1} if the generation is not finished
+     */
+    public long getTotalNanos()
+    {
+        return totalNanos;
+    }
+
+    /**
+     * Starts a phase
+     *
+     * @param name The name of the phase. Cannot be {@code null}
+     * @return The started phase to be finished. Never {@code null}
+     */
+    Timer start(String name)
+    {
+        return new Timer(Preconditions.checkNotNull(name));
+    }
+
+    /**
+     * Marks the whole generation as finished
+     */
+    void finish()
+    {
+        totalNanos = System.nanoTime() - start;
+        System.out.println(MessageFormat.format("Sync. state of project {0} generated in {1} ms", project, //$NON-NLS-1$
+            TimeUnit.NANOSECONDS.toMillis(totalNanos)));
+    }
+
+    /*
+     * Sums bytes allocated by all live threads, -1 if the runtime does not measure allocations
+     */
+    private static long getAllocatedBytes()
+    {
+        ThreadMXBean threadBean = ManagementFactory.getThreadMXBean();
+        if (!(threadBean instanceof com.sun.management.ThreadMXBean allocationBean)
+            || !allocationBean.isThreadAllocatedMemoryEnabled())
+        {
+            return -1;
+        }
+        long allocated = 0;
+        for (long threadAllocated : allocationBean.getThreadAllocatedBytes(threadBean.getAllThreadIds()))
+        {
+            // -1 for threads terminated since their identifiers were taken
+            allocated += Math.max(threadAllocated, 0);
+        }
+        return allocated;
+    }
+
+    /**
+     * A started phase
+     */
+    final class Timer
+    {
+        private final String name;
+        private final SyncStatePhaseEvent event = new SyncStatePhaseEvent();
+        private final long phaseStart;
+        private final long allocatedAtStart;
+
+        private Timer(String name)
+        {
+            this.name = name;
+            this.allocatedAtStart = getAllocatedBytes();
+            this.event.begin();
+            this.phaseStart = System.nanoTime();
+        }
+
+        /**
+         * Finishes the phase
+         *
+         * @param files The number of processed files
+         * @param bytes The number of processed bytes
+         */
+        void finish(long files, long bytes)
+        {
+            long wallNanos = System.nanoTime() - phaseStart;
+            event.end();
+            long allocatedAtEnd = getAllocatedBytes();
+            long allocated = allocatedAtStart < 0 || allocatedAtEnd < 0 ? -1
+                : Math.max(allocatedAtEnd - allocatedAtStart, 0);
+            Phase phase = new Phase(name, wallNanos, files, bytes, allocated);
+            phases.add(phase);
+
+            if (event.shouldCommit())
+            {
+                event.project = project;
+                event.phase = name;
+                event.files = files;
+                event.bytes = bytes;
+                event.allocated = allocated;
+                event.commit();
+            }
+            System.out.println(MessageFormat.format(
+                "Phase {0} of project {1}: {2} ms, {3} files, {4} bytes ({5,number,0.0} MB/s), {6} bytes allocated", //$NON-NLS-1$
+                name, project, TimeUnit.NANOSECONDS.toMillis(wallNanos), files, bytes,
+                phase.throughput() / (1 << 20), allocated));
+        }
+    }
+}
@@ -0,0 +1,385 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Minimal facade of a local Git repository backed by the {@code git} command line client.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class GitRepository
+{
+    private static final String GIT = "git"; //$NON-NLS-1$
+    private static final Set<String> REGULAR_FILE_MODES = Set.of("100644", "100755"); //$NON-NLS-1$ //$NON-NLS-2$
+    private static final String SYMBOLIC_LINK_MODE = "120000"; //$NON-NLS-1$
+
+    private final Path workTree;
+
+    private GitRepository(Path workTree)
+    {
+        this.workTree = workTree;
+    }
+
+    /**
+     * Opens a repository the given folder belongs to.
+     *
+     * @param folder A folder inside of a work tree of the repository. Cannot be {@code null}
+     * @return The repository. Never {@code null}
+     * @throws IllegalStateException if the folder does not belong to a Git work tree
+     */
+    static GitRepository open(Path folder)
+    {
+        Preconditions.checkNotNull(folder);
+
+        String topLevel = new String(run(folder, "rev-parse", "--show-toplevel"), StandardCharsets.UTF_8).strip(); //$NON-NLS-1$ //$NON-NLS-2$
+        try
+        {
+            return new GitRepository(Paths.get(topLevel).toRealPath());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Opens a repository given by its work tree or, for a bare repository, by its own folder. Only the operations
+     * reading revisions are supported by a bare repository.
+     *
+     * @param folder A folder inside of a work tree of the repository or a bare repository folder. Cannot be
+     * {@code null}
+     * @return The repository. Never {@code null}
+     * @throws IllegalStateException if the folder does not belong to a Git repository
+     */
+    static GitRepository openRepository(Path folder)
+    {
+        Preconditions.checkNotNull(folder);
+
+        String bare = new String(run(folder, "rev-parse", "--is-bare-repository"), StandardCharsets.UTF_8).strip(); //$NON-NLS-1$ //$NON-NLS-2$
+        if (!Boolean.parseBoolean(bare))
+        {
+            return open(folder);
+        }
+        try
+        {
+            return new GitRepository(folder.toRealPath());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The root of the work tree or the folder of a bare repository. Never {@code null}
+     */
+    Path getWorkTree()
+    {
+        return workTree;
+    }
+
+    /**
+     * Gets a path of a given folder relative to the work tree root in Git notation.
+     *
+     * @param folder A folder inside of the work tree. Cannot be {@code null}
+     * @return The relative path using {@code /} separators. Empty for the work tree root
+     */
+    String toRepositoryPath(Path folder)
+    {
+        try
+        {
+            return EdtIBSynchronizationStateManager.normalizePath(workTree.relativize(folder.toRealPath()).toString());
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Resolves a revision to a commit object identifier.
+     *
+     * @param revision A revision in any notation Git understands. Cannot be {@code null}
+     * @return The commit identifier. Never {@code null}
+     */
+    String resolveCommit(String revision)
+    {
+        return new String(run(workTree, "rev-parse", "--verify", "--end-of-options", revision + "^{commit}"), //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            StandardCharsets.UTF_8).strip();
+    }
+
+    /**
+     * Lists files changed between two revisions. Renames are reported as a deletion and an addition.
+     *
+     * @param baseRevision The base revision. Cannot be {@code null}
+     * @param targetRevision The target revision. Cannot be {@code null}
+     * @param pathSpec A path (relative to the work tree root) to limit the changes with. Cannot be {@code null}
+     * @return The changes. Never {@code null}
+     */
+    List<Change> diff(String baseRevision, String targetRevision, String pathSpec)
+    {
+        byte[] output = run(workTree, "diff", "--name-status", "--no-renames", "-z", baseRevision, targetRevision, //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+            "--", pathSpec); //$NON-NLS-1$
+
+        // Records are "<status>\0<path>\0"
+        List<Change> changes = new ArrayList<>();
+        int start = 0;
+        String status = null;
+        for (int idx = 0; idx < output.length; idx++)
+        {
+            if (output[idx] == 0)
+            {
+                String token = new String(output, start, idx - start, StandardCharsets.UTF_8);
+                if (status == null)
+                {
+                    status = token;
+                }
+                else
+                {
+                    changes.add(new Change(status.charAt(0) == 'D', token));
+                    status = null;
+                }
+                start = idx + 1;
+            }
+        }
+        return changes;
+    }
+
+    /**
+     * Checks whether the work tree has uncommitted changes (staged or not) or untracked files. Ignored files are not
+     * taken into account.
+     *
+     * @param pathSpec A path (relative to the work tree root) to limit the check with. Cannot be {@code null}
+     * @return {@code true} if there are such changes or files
+     */
+    boolean hasLocalChanges(String pathSpec)
+    {
+        return run(workTree, "status", "--porcelain", "-z", "--untracked-files=all", "--", pathSpec).length > 0; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+    }
+
+    /**
+     * Lists blob identifiers of regular files of the index whose work tree content is unchanged. Files having
+     * unmerged entries or differing from the index in the work tree (including the ones whose index stat data is just
+     * out of date) are not listed.
+     *
+     * @param pathSpec A path (relative to the work tree root) to limit the files with. Cannot be {@code null}
+     * @return Blob identifiers mapped to file paths relative to the work tree root. Never {@code null}
+     */
+    Map<String, String> listUnchangedBlobs(String pathSpec)
+    {
+        // Records are "<mode> <object> <stage>\t<path>\0"
+        Map<String, String> blobs = new HashMap<>();
+        for (String entry : split(run(workTree, "ls-files", "--stage", "-z", "--", pathSpec))) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        {
+            int tab = entry.indexOf('\t');
+            String[] fields = entry.substring(0, tab).split(" "); //$NON-NLS-1$
+            if (fields.length == 3 && REGULAR_FILE_MODES.contains(fields[0]) && "0".equals(fields[2])) //$NON-NLS-1$
+            {
+                blobs.put(entry.substring(tab + 1), fields[1]);
+            }
+        }
+        for (String path : split(run(workTree, "diff-files", "--name-only", "-z", "--", pathSpec))) //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        {
+            blobs.remove(path);
+        }
+        return blobs;
+    }
+
+    /**
+     * Lists entries of a tree of a commit recursively.
+     *
+     * @param commit The commit. Cannot be {@code null}
+     * @param path A path (relative to the repository root) to limit the entries with, it is taken literally. Cannot
+     * be {@code null}
+     * @return The blob and submodule entries in the tree order. Never {@code null}
+     */
+    List<TreeEntry> listTree(String commit, String path)
+    {
+        // Records are "<mode> <type> <object> <size>\t<path>\0", the size of a submodule is "-"
+        List<TreeEntry> entries = new ArrayList<>();
+        for (String entry : split(run(workTree, "--literal-pathspecs", "ls-tree", "-r", "-l", "-z", "--full-tree", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$ //$NON-NLS-6$
+            commit, "--", path))) //$NON-NLS-1$
+        {
+            int tab = entry.indexOf('\t');
+            String[] fields = entry.substring(0, tab).split(" +"); //$NON-NLS-1$
+            entries.add(new TreeEntry(fields[0], fields[2], "-".equals(fields[3]) ? -1 : Long.parseLong(fields[3]), //$NON-NLS-1$
+                entry.substring(tab + 1)));
+        }
+        return entries;
+    }
+
+    /**
+     * Reads the raw content of a blob of a commit.
+     *
+     * @param commit The commit. Cannot be {@code null}
+     * @param path The blob path relative to the repository root. Cannot be {@code null}
+     * @return The content. Never {@code null}
+     * @throws IllegalStateException if there is no such blob
+     */
+    byte[] readBlob(String commit, String path)
+    {
+        return run(workTree, "cat-file", "blob", commit + ':' + path); //$NON-NLS-1$ //$NON-NLS-2$
+    }
+
+    /**
+     * Streams files of a commit the way they are checked out: line endings and other conversions configured by the
+     * attributes of the commit and by the repository settings are applied. Files are streamed in the tree order as
+     * {@code git archive} produces them, so the attributes affecting archives (export-ignore, export-subst) apply too.
+     *
+     * @param commit The commit. Cannot be {@code null}
+     * @param paths Paths (relative to the repository root) of files and folders to stream, they are taken literally.
+     * Cannot be {@code null} or empty
+     * @param consumer The consumer of regular files. Cannot be {@code null}
+     */
+    void archive(String commit, List<String> paths, TarReader.EntryConsumer consumer)
+    {
+        Preconditions.checkArgument(!paths.isEmpty());
+
+        List<String> arguments = new ArrayList<>(paths.size() + 5);
+        arguments.addAll(List.of("--literal-pathspecs", "archive", "--format=tar", commit, "--")); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+        arguments.addAll(paths);
+        run(workTree, arguments, output -> {
+            TarReader.read(output, consumer);
+            // The rest of the archive is padding, it is drained so the command does not fail on a closed pipe
+            output.transferTo(OutputStream.nullOutputStream());
+            return null;
+        });
+    }
+
+    private static List<String> split(byte[] output)
+    {
+        List<String> tokens = new ArrayList<>();
+        int start = 0;
+        for (int idx = 0; idx < output.length; idx++)
+        {
+            if (output[idx] == 0)
+            {
+                tokens.add(new String(output, start, idx - start, StandardCharsets.UTF_8));
+                start = idx + 1;
+            }
+        }
+        return tokens;
+    }
+
+    private static byte[] run(Path directory, String... arguments)
+    {
+        return run(directory, Arrays.asList(arguments), InputStream::readAllBytes);
+    }
+
+    /*
+     * Runs a command passing its output to a given reader, the command is killed if the reader fails
+     */
+    private static <T> T run(Path directory, List<String> arguments, OutputReader<T> outputReader)
+    {
+        List<String> command = new ArrayList<>(arguments.size() + 1);
+        command.add(GIT);
+        command.addAll(arguments);
+        try
+        {
+            Process process = new ProcessBuilder(command).directory(directory.toFile()).start();
+            process.getOutputStream().close();
+            CompletableFuture<byte[]> error = CompletableFuture.supplyAsync(() -> readAll(process.getErrorStream()));
+            T output;
+            try (InputStream stream = process.getInputStream())
+            {
+                output = outputReader.read(stream);
+            }
+            catch (IOException | RuntimeException e)
+            {
+                process.destroyForcibly();
+                throw e;
+            }
+            int exitCode = process.waitFor();
+            if (exitCode != 0)
+            {
+                throw new IllegalStateException(MessageFormat.format("{0} failed with exit code {1}: {2}", //$NON-NLS-1$
+                    String.join(" ", command), exitCode, new String(error.join(), StandardCharsets.UTF_8).strip())); //$NON-NLS-1$
+            }
+            return output;
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private static byte[] readAll(InputStream stream)
+    {
+        try (stream)
+        {
+            return stream.readAllBytes();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * A changed file
+     *
+     * @param deleted Whether the file is absent in the target revision
+     * @param path The file path relative to the work tree root
+     */
+    record Change(boolean deleted, String path)
+    {
+        // Left empty intentionally
+    }
+
+    /**
+     * An entry of a tree
+     *
+     * @param mode The file mode
+     * @param object The object identifier
+     * @param size The size of a blob, {@code -1} for a submodule
+     * @param path The path relative to the repository root
+     */
+    record TreeEntry(String mode, String object, long size, String path)
+    {
+        /**
+         * @return Whether the entry is a regular file (neither a symbolic link nor a submodule)
+         */
+        boolean isRegularFile()
+        {
+            return REGULAR_FILE_MODES.contains(mode);
+        }
+
+        /**
+         * @return Whether the entry is a symbolic link
+         */
+        boolean isSymbolicLink()
+        {
+            return SYMBOLIC_LINK_MODE.equals(mode);
+        }
+    }
+
+    @FunctionalInterface
+    private interface OutputReader<T>
+    {
+        T read(InputStream output) throws IOException;
+    }
+}
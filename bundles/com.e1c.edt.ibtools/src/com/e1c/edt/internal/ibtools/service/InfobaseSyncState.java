@@ -3,13 +3,16 @@
  */
 package com.e1c.edt.internal.ibtools.service;
 
-import java.util.Collections;
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Map.Entry;
 
 /**
- * Infobase synchronization state holder
+ * Infobase synchronization state holder.<br>
+ *
+ * Resource signatures and platform resource versions are immutable and kept in a compact form, so they are shared
+ * between a state and its clones instead of being copied. Platform resource versions are kept as a tree of metadata
+ * element names, so versions of an element and all of its nested elements are available without a full scan.
  *
  * @author Alexander Tretyakevich
  */
@@ -19,8 +22,8 @@ public final class InfobaseSyncState
     private final String generationId;
     private final String configurationUUID;
 
-    private final Map<String, byte[]> edtResourceSignatures;
-    private final Map<String, String> platformResourceVersions;
+    private final CompactSignatureTable edtResourceSignatures;
+    private final PlatformVersionTree platformResourceVersions;
 
     private final Map<String, InfobaseSyncState> extensionSyncStates;
 
@@ -43,28 +46,39 @@ public final class InfobaseSyncState
     {
         this.timestamp = timestamp;
         this.configurationUUID = configurationUUID;
-        this.edtResourceSignatures =
-            new HashMap<>(edtResourceHashes != null ? edtResourceHashes : Collections.emptyMap());
-        this.platformResourceVersions =
-            new HashMap<>(platformResourceVersions != null ? platformResourceVersions : Collections.emptyMap());
+        this.edtResourceSignatures = edtResourceHashes != null ? CompactSignatureTable.of(edtResourceHashes)
+            : CompactSignatureTable.empty();
+        this.platformResourceVersions = platformResourceVersions != null
+            ? PlatformVersionTree.of(platformResourceVersions) : PlatformVersionTree.empty();
         this.generationId = generationId;
         this.extensionSyncStates = new HashMap<>();
     }
 
+    /*
+     * Constructs a clone sharing immutable parts of the original
+     */
+    private InfobaseSyncState(InfobaseSyncState original)
+    {
+        this.timestamp = original.timestamp;
+        this.configurationUUID = original.configurationUUID;
+        this.edtResourceSignatures = original.edtResourceSignatures;
+        this.platformResourceVersions = original.platformResourceVersions;
+        this.generationId = original.generationId;
+        this.extensionSyncStates = new HashMap<>();
+    }
+
+    /**
+     * Clones the state. The clone shares signatures and versions with the original (they are immutable),
+     * only the holder of extension states is copied.
+     */
     @Override
     public InfobaseSyncState clone()
     {
-        InfobaseSyncState clone = new InfobaseSyncState(timestamp, configurationUUID, edtResourceSignatures,
-            platformResourceVersions, generationId);
+        InfobaseSyncState clone = new InfobaseSyncState(this);
 
         for (Entry<String, InfobaseSyncState> extensionEntry : extensionSyncStates.entrySet())
         {
-            InfobaseSyncState extensionState = extensionEntry.getValue();
-            clone.getExtensionSyncStates()
-                .put(extensionEntry.getKey(),
-                    new InfobaseSyncState(extensionState.getTimestamp(), extensionState.getConfigurationUUID(),
-                        extensionState.getEdtResourceSignatures(), extensionState.getPlatformResourceVersions(),
-                        extensionState.getGenerationId()));
+            clone.getExtensionSyncStates().put(extensionEntry.getKey(), extensionEntry.getValue().clone());
         }
 
         return clone;
@@ -83,8 +97,8 @@ public final class InfobaseSyncState
     /**
      * Gets signatures of EDT resources.
      *
-     * @return Map where keys are resources relative paths (starting from 'src' folder, inclusive)
-     * and values are their content hashes. Never {@code null}.
+     * @return Unmodifiable map where keys are resources relative paths (starting from 'src' folder, inclusive)
+     * and values are copies of their content hashes. Never {@code null}.
      */
     public Map<String, byte[]> getEdtResourceSignatures()
     {
@@ -94,14 +108,41 @@ public final class InfobaseSyncState
     /**
      * Gets versions of metadata objects as seen in infobase configuration by platform.
      *
-     * @return Map where keys are metadata element names (FQN) like "Catalog.Справочник.Form.ФормаЭлемента.Form"
-     * and values are versions of element content as deemed by platform. Never null.
+     * @return Unmodifiable map where keys are metadata element names (FQN) like
+     * "Catalog.Справочник.Form.ФормаЭлемента.Form" and values are versions of element content as deemed by platform.
+     * Never null.
      */
     public Map<String, String> getPlatformResourceVersions()
     {
         return platformResourceVersions;
     }
 
+    /**
+     * Gets versions of a metadata object and all of its nested objects as seen in infobase configuration by platform.
+     *
+     * @param metadataName A metadata element name (FQN) like "Catalog.Справочник". Only whole name segments match,
+     * i.e. "Catalog.Спр" does not match "Catalog.Справочник". Cannot be {@code null}
+     * @return Unmodifiable map where keys are metadata element names (FQN) and values are versions of element content
+     * as deemed by platform. Never null.
+     */
+    public Map<String, String> getPlatformResourceVersions(String metadataName)
+    {
+        return platformResourceVersions.subtree(metadataName);
+    }
+
+    /*
+     * Compact forms of signatures and versions for merge joins
+     */
+    CompactSignatureTable getEdtResourceSignatureTable()
+    {
+        return edtResourceSignatures;
+    }
+
+    PlatformVersionTree getPlatformResourceVersionTree()
+    {
+        return platformResourceVersions;
+    }
+
     /**
      * The global generation identifier being received from the platform
      *
@@ -0,0 +1,734 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.DataOutput;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Immutable hierarchical map of platform resource versions.<br>
+ *
+ * Metadata element names like "Catalog.Справочник.Form.ФормаЭлемента.Form" are split into dotted segments which
+ * are interned (every distinct segment is kept once) and arranged into a trie whose nodes are rows of a few int
+ * arrays. Versions (hex strings of a fixed width as a rule) are packed into one binary slab, a version which is not
+ * a lowercase hex string is kept as UTF-8 as is.<br>
+ *
+ * Besides plain lookups the trie answers prefix queries, see {@link #subtree(String)}. Iteration is a depth-first
+ * traversal where siblings are ordered by their segments, so a parent element precedes its nested elements.<br>
+ *
+ * The arrays can be written as is and read back without rebuilding the trie.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class PlatformVersionTree
+    extends AbstractMap<String, String>
+{
+    private static final char SEPARATOR = '.';
+    private static final int ROOT = 0;
+    private static final int NO_VERSION = -1;
+
+    private static final PlatformVersionTree EMPTY = of(Map.of());
+
+    private final Structure structure;
+    private final int root;
+    private final String rootName;
+
+    private PlatformVersionTree(Structure structure, int root, String rootName)
+    {
+        this.structure = structure;
+        this.root = root;
+        this.rootName = rootName;
+    }
+
+    /**
+     * @return An empty tree. Never {@code null}
+     */
+    static PlatformVersionTree empty()
+    {
+        return EMPTY;
+    }
+
+    /**
+     * Builds a tree of given versions. A tree is returned as is.
+     *
+     * @param source The versions mapped to metadata element names. Cannot be {@code null}
+     * @return The tree. Never {@code null}
+     */
+    static PlatformVersionTree of(Map<String, String> source)
+    {
+        Preconditions.checkNotNull(source);
+        if (source instanceof PlatformVersionTree tree)
+        {
+            return tree;
+        }
+
+        // Step 1: build a temporary trie interning segments
+        Map<String, String> segmentPool = new HashMap<>();
+        BuildNode buildRoot = new BuildNode(null);
+        for (Entry<String, String> entry : source.entrySet())
+        {
+            String name = entry.getKey();
+            BuildNode node = buildRoot;
+            int from = 0;
+            while (true)
+            {
+                int to = name.indexOf(SEPARATOR, from);
+                String segment = segmentPool.computeIfAbsent(name.substring(from, to == -1 ? name.length() : to),
+                    value -> value);
+                node = node.child(segment);
+                if (to == -1)
+                {
+                    break;
+                }
+                from = to + 1;
+            }
+            node.version = Preconditions.checkNotNull(entry.getValue());
+        }
+
+        // Step 2: lay nodes out breadth-first, so children of a node are contiguous and sorted
+        List<BuildNode> nodes = new ArrayList<>();
+        nodes.add(buildRoot);
+        for (int idx = 0; idx < nodes.size(); idx++)
+        {
+            BuildNode node = nodes.get(idx);
+            node.firstChild = nodes.size();
+            nodes.addAll(node.sortedChildren());
+        }
+
+        int nodeCount = nodes.size();
+        Map<String, Integer> segmentIds = new HashMap<>();
+        List<String> segments = new ArrayList<>();
+        int[] nodeSegments = new int[nodeCount];
+        int[] firstChildren = new int[nodeCount];
+        int[] childCounts = new int[nodeCount];
+        int[] nodeVersions = new int[nodeCount];
+        int[] subtreeSizes = new int[nodeCount];
+        List<String> versions = new ArrayList<>(source.size());
+        for (int idx = 0; idx < nodeCount; idx++)
+        {
+            BuildNode node = nodes.get(idx);
+            nodeSegments[idx] = node.segment == null ? -1 : segmentIds.computeIfAbsent(node.segment, segment -> {
+                segments.add(segment);
+                return segments.size() - 1;
+            });
+            firstChildren[idx] = node.firstChild;
+            childCounts[idx] = node.childCount();
+            if (node.version != null)
+            {
+                nodeVersions[idx] = versions.size();
+                versions.add(node.version);
+            }
+            else
+            {
+                nodeVersions[idx] = NO_VERSION;
+            }
+        }
+        // Children always follow their parent, so sizes are accumulated in the reverse order
+        for (int idx = nodeCount - 1; idx >= 0; idx--)
+        {
+            int size = nodeVersions[idx] != NO_VERSION ? 1 : 0;
+            for (int child = firstChildren[idx]; child < firstChildren[idx] + childCounts[idx]; child++)
+            {
+                size += subtreeSizes[child];
+            }
+            subtreeSizes[idx] = size;
+        }
+
+        Structure structure = new Structure(segments.toArray(String[]::new), nodeSegments, firstChildren,
+            childCounts, nodeVersions, subtreeSizes, VersionSlab.of(versions));
+        return new PlatformVersionTree(structure, ROOT, ""); //$NON-NLS-1$
+    }
+
+    /**
+     * Provides versions of a given metadata element and all of its nested elements, e.g. all versions under
+     * "Catalog.Справочник". Only whole segments match: "Catalog.Спр" does not match "Catalog.Справочник".
+     *
+     * @param prefix The metadata element name. Cannot be {@code null}
+     * @return The view of the matching part of the tree, keys are full element names. Never {@code null}
+     */
+    PlatformVersionTree subtree(String prefix)
+    {
+        Preconditions.checkNotNull(prefix);
+        int node = find(prefix);
+        if (node == -1)
+        {
+            return EMPTY;
+        }
+        return new PlatformVersionTree(structure, node, prefix);
+    }
+
+    /**
+     * Writes the tree in a binary form which is read back by {@link #read(ByteBuffer)} without rebuilding the tree
+     *
+     * @param output The output. Cannot be {@code null}
+     * @throws IOException if the output fails
+     */
+    void write(DataOutput output) throws IOException
+    {
+        Preconditions.checkState(root == ROOT, "A subtree cannot be written"); //$NON-NLS-1$
+
+        output.writeInt(structure.segments.length);
+        for (String segment : structure.segments)
+        {
+            byte[] bytes = segment.getBytes(StandardCharsets.UTF_8);
+            output.writeInt(bytes.length);
+            output.write(bytes);
+        }
+        output.writeInt(structure.nodeSegments.length);
+        writeInts(output, structure.nodeSegments);
+        writeInts(output, structure.firstChildren);
+        writeInts(output, structure.childCounts);
+        writeInts(output, structure.nodeVersions);
+        writeInts(output, structure.subtreeSizes);
+        structure.versions.write(output);
+    }
+
+    /**
+     * Reads a tree written by {@link #write(DataOutput)}
+     *
+     * @param input The input positioned at the start of the tree. Cannot be {@code null}
+     * @return The tree. Never {@code null}
+     * @throws java.nio.BufferUnderflowException if the input is truncated
+     */
+    static PlatformVersionTree read(ByteBuffer input)
+    {
+        String[] segments = new String[input.getInt()];
+        for (int idx = 0; idx < segments.length; idx++)
+        {
+            byte[] bytes = new byte[input.getInt()];
+            input.get(bytes);
+            segments[idx] = new String(bytes, StandardCharsets.UTF_8);
+        }
+        int nodeCount = input.getInt();
+        int[] nodeSegments = readInts(input, nodeCount);
+        int[] firstChildren = readInts(input, nodeCount);
+        int[] childCounts = readInts(input, nodeCount);
+        int[] nodeVersions = readInts(input, nodeCount);
+        int[] subtreeSizes = readInts(input, nodeCount);
+        VersionSlab versions = VersionSlab.read(input);
+        return new PlatformVersionTree(new Structure(segments, nodeSegments, firstChildren, childCounts,
+            nodeVersions, subtreeSizes, versions), ROOT, ""); //$NON-NLS-1$
+    }
+
+    /**
+     * Compares two trees in a single pass as a merge join of their sorted siblings, level by level. Names and versions
+     * are decoded only for differences, equal versions are matched on packed bytes.
+     *
+     * @param source The source tree. Cannot be {@code null}
+     * @param destination The destination tree. Cannot be {@code null}
+     * @param sink The receiver of differences in the iteration order. Cannot be {@code null}
+     */
+    static void diff(PlatformVersionTree source, PlatformVersionTree destination, SyncStateDiff.Sink sink)
+    {
+        Preconditions.checkArgument(source.root == ROOT && destination.root == ROOT, "Subtrees cannot be compared"); //$NON-NLS-1$
+        Preconditions.checkNotNull(sink);
+
+        diff(source, ROOT, destination, ROOT, new StringBuilder(), sink);
+    }
+
+    /*
+     * Compares nodes having the same name, a node is -1 if the respective tree has no such name
+     */
+    private static void diff(PlatformVersionTree source, int sourceNode, PlatformVersionTree destination,
+        int destinationNode, StringBuilder name, SyncStateDiff.Sink sink)
+    {
+        int sourceVersion = sourceNode != -1 ? source.structure.nodeVersions[sourceNode] : NO_VERSION;
+        int destinationVersion =
+            destinationNode != -1 ? destination.structure.nodeVersions[destinationNode] : NO_VERSION;
+        if (sourceVersion != NO_VERSION && destinationVersion != NO_VERSION)
+        {
+            if (!source.structure.versions.equals(sourceVersion, destination.structure.versions, destinationVersion))
+            {
+                sink.accept(SyncStateDiff.Kind.CHANGED, name.toString(), source.structure.versions.get(sourceVersion),
+                    destination.structure.versions.get(destinationVersion));
+            }
+        }
+        else if (sourceVersion != NO_VERSION)
+        {
+            sink.accept(SyncStateDiff.Kind.SOURCE_ONLY, name.toString(), source.structure.versions.get(sourceVersion),
+                null);
+        }
+        else if (destinationVersion != NO_VERSION)
+        {
+            sink.accept(SyncStateDiff.Kind.DESTINATION_ONLY, name.toString(), null,
+                destination.structure.versions.get(destinationVersion));
+        }
+
+        int sourceChild = sourceNode != -1 ? source.structure.firstChildren[sourceNode] : 0;
+        int sourceEnd = sourceNode != -1 ? sourceChild + source.structure.childCounts[sourceNode] : 0;
+        int destinationChild = destinationNode != -1 ? destination.structure.firstChildren[destinationNode] : 0;
+        int destinationEnd =
+            destinationNode != -1 ? destinationChild + destination.structure.childCounts[destinationNode] : 0;
+        boolean top = sourceNode == ROOT || destinationNode == ROOT;
+        int nameLength = name.length();
+        while (sourceChild < sourceEnd || destinationChild < destinationEnd)
+        {
+            String sourceSegment = sourceChild < sourceEnd ? source.segment(sourceChild) : null;
+            String destinationSegment =
+                destinationChild < destinationEnd ? destination.segment(destinationChild) : null;
+            int comparison = sourceSegment == null ? 1
+                : destinationSegment == null ? -1 : sourceSegment.compareTo(destinationSegment);
+
+            if (!top)
+            {
+                name.append(SEPARATOR);
+            }
+            name.append(comparison <= 0 ? sourceSegment : destinationSegment);
+            diff(source, comparison <= 0 ? sourceChild : -1, destination, comparison >= 0 ? destinationChild : -1,
+                name, sink);
+            name.setLength(nameLength);
+
+            if (comparison <= 0)
+            {
+                sourceChild++;
+            }
+            if (comparison >= 0)
+            {
+                destinationChild++;
+            }
+        }
+    }
+
+    private String segment(int node)
+    {
+        return structure.segments[structure.nodeSegments[node]];
+    }
+
+    @Override
+    public int size()
+    {
+        return structure.subtreeSizes[root];
+    }
+
+    @Override
+    public boolean containsKey(Object key)
+    {
+        if (key instanceof String name)
+        {
+            int node = find(name);
+            return node != -1 && structure.nodeVersions[node] != NO_VERSION;
+        }
+        return false;
+    }
+
+    @Override
+    public String get(Object key)
+    {
+        if (key instanceof String name)
+        {
+            int node = find(name);
+            if (node != -1 && structure.nodeVersions[node] != NO_VERSION)
+            {
+                return structure.versions.get(structure.nodeVersions[node]);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Set<Entry<String, String>> entrySet()
+    {
+        return new AbstractSet<>()
+        {
+            @Override
+            public Iterator<Entry<String, String>> iterator()
+            {
+                return new EntryIterator();
+            }
+
+            @Override
+            public int size()
+            {
+                return PlatformVersionTree.this.size();
+            }
+        };
+    }
+
+    /*
+     * Finds a node of an element name in this (sub)tree, the node may have no version
+     */
+    private int find(String name)
+    {
+        if (root == ROOT)
+        {
+            return descend(ROOT, name, 0);
+        }
+        if (!name.startsWith(rootName))
+        {
+            return -1;
+        }
+        if (name.length() == rootName.length())
+        {
+            return root;
+        }
+        if (name.charAt(rootName.length()) != SEPARATOR)
+        {
+            return -1;
+        }
+        return descend(root, name, rootName.length() + 1);
+    }
+
+    private int descend(int start, String name, int offset)
+    {
+        int node = start;
+        int from = offset;
+        while (true)
+        {
+            int to = name.indexOf(SEPARATOR, from);
+            int end = to == -1 ? name.length() : to;
+            node = findChild(node, name, from, end);
+            if (node == -1 || to == -1)
+            {
+                return node;
+            }
+            from = to + 1;
+        }
+    }
+
+    /*
+     * Binary search among sorted children of a node
+     */
+    private int findChild(int node, String name, int from, int to)
+    {
+        int low = structure.firstChildren[node];
+        int high = low + structure.childCounts[node] - 1;
+        while (low <= high)
+        {
+            int middle = (low + high) >>> 1;
+            int comparison = compare(segment(middle), name, from, to);
+            if (comparison < 0)
+            {
+                low = middle + 1;
+            }
+            else if (comparison > 0)
+            {
+                high = middle - 1;
+            }
+            else
+            {
+                return middle;
+            }
+        }
+        return -1;
+    }
+
+    /*
+     * Compares a segment with a region of a name the way String.compareTo does
+     */
+    private static int compare(String segment, String name, int from, int to)
+    {
+        int length = Math.min(segment.length(), to - from);
+        for (int idx = 0; idx < length; idx++)
+        {
+            int difference = segment.charAt(idx) - name.charAt(from + idx);
+            if (difference != 0)
+            {
+                return difference;
+            }
+        }
+        return segment.length() - (to - from);
+    }
+
+    private static void writeInts(DataOutput output, int[] values) throws IOException
+    {
+        for (int value : values)
+        {
+            output.writeInt(value);
+        }
+    }
+
+    private static int[] readInts(ByteBuffer input, int count)
+    {
+        int[] values = new int[count];
+        input.asIntBuffer().get(values);
+        input.position(input.position() + count * Integer.BYTES);
+        return values;
+    }
+
+    /*
+     * Shared arrays of a tree and its subtree views
+     */
+    private record Structure(String[] segments, int[] nodeSegments, int[] firstChildren, int[] childCounts,
+        int[] nodeVersions, int[] subtreeSizes, VersionSlab versions)
+    {
+        // Left empty intentionally
+    }
+
+    /*
+     * Packed versions: lowercase hex strings of an even length are kept as bytes they encode, other strings as UTF-8
+     */
+    private static final class VersionSlab
+    {
+        private static final HexFormat HEX = HexFormat.of();
+
+        private final byte[] bytes;
+        private final int stride;
+        private final int[] offsets;
+        private final BitSet raw;
+
+        private VersionSlab(byte[] bytes, int stride, int[] offsets, BitSet raw)
+        {
+            this.bytes = bytes;
+            this.stride = stride;
+            this.offsets = offsets;
+            this.raw = raw;
+        }
+
+        static VersionSlab of(List<String> versions)
+        {
+            int count = versions.size();
+            byte[][] encoded = new byte[count][];
+            BitSet raw = new BitSet();
+            int total = 0;
+            boolean uniform = true;
+            for (int idx = 0; idx < count; idx++)
+            {
+                String version = versions.get(idx);
+                if (isPackable(version))
+                {
+                    encoded[idx] = HEX.parseHex(version);
+                }
+                else
+                {
+                    encoded[idx] = version.getBytes(StandardCharsets.UTF_8);
+                    raw.set(idx);
+                }
+                uniform &= encoded[idx].length == encoded[0].length;
+                total += encoded[idx].length;
+            }
+            uniform &= raw.isEmpty();
+
+            byte[] bytes = new byte[total];
+            int[] offsets = uniform ? null : new int[count + 1];
+            int offset = 0;
+            for (int idx = 0; idx < count; idx++)
+            {
+                if (offsets != null)
+                {
+                    offsets[idx] = offset;
+                }
+                System.arraycopy(encoded[idx], 0, bytes, offset, encoded[idx].length);
+                offset += encoded[idx].length;
+            }
+            if (offsets != null)
+            {
+                offsets[count] = offset;
+            }
+            return new VersionSlab(bytes, count > 0 && uniform ? encoded[0].length : 0, offsets, raw);
+        }
+
+        void write(DataOutput output) throws IOException
+        {
+            output.writeInt(bytes.length);
+            output.write(bytes);
+            output.writeInt(stride);
+            output.writeBoolean(offsets != null);
+            if (offsets != null)
+            {
+                output.writeInt(offsets.length);
+                writeInts(output, offsets);
+            }
+            long[] rawWords = raw.toLongArray();
+            output.writeInt(rawWords.length);
+            for (long word : rawWords)
+            {
+                output.writeLong(word);
+            }
+        }
+
+        static VersionSlab read(ByteBuffer input)
+        {
+            byte[] bytes = new byte[input.getInt()];
+            input.get(bytes);
+            int stride = input.getInt();
+            int[] offsets = input.get() != 0 ? readInts(input, input.getInt()) : null;
+            long[] rawWords = new long[input.getInt()];
+            input.asLongBuffer().get(rawWords);
+            input.position(input.position() + rawWords.length * Long.BYTES);
+            return new VersionSlab(bytes, stride, offsets, BitSet.valueOf(rawWords));
+        }
+
+        boolean equals(int version, VersionSlab other, int otherVersion)
+        {
+            if (raw.get(version) != other.raw.get(otherVersion))
+            {
+                return false;
+            }
+            int from = offsets == null ? version * stride : offsets[version];
+            int to = offsets == null ? from + stride : offsets[version + 1];
+            int otherFrom = other.offsets == null ? otherVersion * other.stride : other.offsets[otherVersion];
+            int otherTo = other.offsets == null ? otherFrom + other.stride : other.offsets[otherVersion + 1];
+            return Arrays.equals(bytes, from, to, other.bytes, otherFrom, otherTo);
+        }
+
+        String get(int version)
+        {
+            int from = offsets == null ? version * stride : offsets[version];
+            int to = offsets == null ? from + stride : offsets[version + 1];
+            return raw.get(version) ? new String(bytes, from, to - from, StandardCharsets.UTF_8)
+                : HEX.formatHex(bytes, from, to);
+        }
+
+        private static boolean isPackable(String version)
+        {
+            if (version.isEmpty() || version.length() % 2 != 0)
+            {
+                return false;
+            }
+            for (int idx = 0; idx < version.length(); idx++)
+            {
+                char c = version.charAt(idx);
+                if (!(c >= '0' && c <= '9' || c >= 'a' && c <= 'f'))
+                {
+                    return false;
+                }
+            }
+            return true;
+        }
+    }
+
+    /*
+     * Mutable node used while a tree is being built
+     */
+    private static final class BuildNode
+    {
+        private final String segment;
+        private Map<String, BuildNode> children;
+        private String version;
+        private int firstChild;
+
+        BuildNode(String segment)
+        {
+            this.segment = segment;
+        }
+
+        BuildNode child(String childSegment)
+        {
+            if (children == null)
+            {
+                // Most nodes are leaves
+                children = new HashMap<>(4);
+            }
+            return children.computeIfAbsent(childSegment, BuildNode::new);
+        }
+
+        int childCount()
+        {
+            return children == null ? 0 : children.size();
+        }
+
+        List<BuildNode> sortedChildren()
+        {
+            if (children == null)
+            {
+                return List.of();
+            }
+            List<BuildNode> result = new ArrayList<>(children.values());
+            result.sort(Comparator.comparing(child -> child.segment));
+            return result;
+        }
+    }
+
+    /*
+     * Depth-first traversal of the (sub)tree
+     */
+    private final class EntryIterator
+        implements Iterator<Map.Entry<String, String>>
+    {
+        private final StringBuilder name = new StringBuilder(rootName);
+        private int[] nodes = new int[16];
+        private int[] nameLengths = new int[16];
+        private int depth;
+        private int next = -1;
+
+        EntryIterator()
+        {
+            push(root, rootName.length());
+            advance();
+        }
+
+        @Override
+        public boolean hasNext()
+        {
+            return next != -1;
+        }
+
+        @Override
+        public Map.Entry<String, String> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            Map.Entry<String, String> result = new AbstractMap.SimpleImmutableEntry<>(name.toString(),
+                structure.versions.get(structure.nodeVersions[next]));
+            advance();
+            return result;
+        }
+
+        /*
+         * Pops nodes until one with a version is found, children are pushed in the reverse order
+         */
+        private void advance()
+        {
+            next = -1;
+            while (depth > 0)
+            {
+                depth--;
+                int node = nodes[depth];
+                name.setLength(nameLengths[depth]);
+                if (node != root)
+                {
+                    // Children of the root of the whole tree are the only ones laid out right after it
+                    if (node > structure.childCounts[ROOT])
+                    {
+                        name.append(SEPARATOR);
+                    }
+                    name.append(segment(node));
+                }
+
+                int first = structure.firstChildren[node];
+                for (int child = first + structure.childCounts[node] - 1; child >= first; child--)
+                {
+                    push(child, name.length());
+                }
+
+                if (structure.nodeVersions[node] != NO_VERSION)
+                {
+                    next = node;
+                    return;
+                }
+            }
+        }
+
+        private void push(int node, int nameLength)
+        {
+            if (depth == nodes.length)
+            {
+                nodes = Arrays.copyOf(nodes, depth * 2);
+                nameLengths = Arrays.copyOf(nameLengths, depth * 2);
+            }
+            nodes[depth] = node;
+            nameLengths[depth] = nameLength;
+            depth++;
+        }
+    }
+}
@@ -0,0 +1,32 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.nio.file.Path;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Source of a synchronization state of a project for batch generation
+ *
+ * @param projectFolder A source 1C:EDT project folder. Cannot be {@code null}
+ * @param configDumpInfoFile A path to a ConfigDumpInfo.xml being received from the source IB for the project. Cannot
+ * be {@code null}
+ * @param generationId A global generation identifier being received from the source IB for the project. Cannot be
+ * {@code null}
+ *
+ * @author Alexander Tretyakevich
+ */
+public record ProjectSyncSource(Path projectFolder, Path configDumpInfoFile, String generationId)
+{
+    /**
+     * Constructs an instance
+     */
+    public ProjectSyncSource
+    {
+        Preconditions.checkNotNull(projectFolder);
+        Preconditions.checkNotNull(configDumpInfoFile);
+        Preconditions.checkNotNull(generationId);
+    }
+}
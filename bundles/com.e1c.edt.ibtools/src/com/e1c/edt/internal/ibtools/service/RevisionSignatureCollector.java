@@ -0,0 +1,253 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Collects EDT resource signatures of a project straight from a revision of its Git repository, so no work tree has
+ * to be checked out. Files are streamed from the object database (loose objects and packs alike) by {@code git archive}
+ * with the same conversions a checkout applies and are hashed as they arrive.<br>
+ *
+ * The source folder is split into batches of whole metadata object folders which are streamed by concurrent
+ * {@code git archive} processes. Signatures of blobs already hashed for another checkout or revision are taken from
+ * the blob signature cache if one is configured.<br>
+ *
+ * Signatures match the ones of a checkout of the revision for regular files only. Sources with symbolic links are
+ * rejected: a checkout hashes the content of the link target, or the text of the link where links are not supported
+ * (e.g. on Windows), so the signature depends on the checkout. Submodules are skipped as their folders are empty in
+ * a checkout without initialized submodules.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class RevisionSignatureCollector
+{
+    /*
+     * Batches are made smaller than a share of a thread, so big batches started first are balanced by small ones
+     */
+    private static final int BATCHES_PER_THREAD = 4;
+
+    /*
+     * Paths of a batch are passed on the command line, so their length is kept well below the limits of all platforms
+     */
+    private static final int MAX_BATCH_PATHS_LENGTH = 8192;
+
+    /*
+     * Files are batched by "src/<metadata type>/<metadata object>" folders
+     */
+    private static final int BATCH_UNIT_DEPTH = 3;
+
+    private final GitRepository repository;
+    private final String commit;
+    private final GenerationSettings settings;
+
+    /**
+     * Constructs an instance.
+     *
+     * @param repository The repository. Cannot be {@code null}
+     * @param commit The commit to collect signatures of. Cannot be {@code null}
+     * @param settings The generation settings. Cannot be {@code null}
+     */
+    RevisionSignatureCollector(GitRepository repository, String commit, GenerationSettings settings)
+    {
+        this.repository = Preconditions.checkNotNull(repository);
+        this.commit = Preconditions.checkNotNull(commit);
+        this.settings = Preconditions.checkNotNull(settings);
+    }
+
+    /**
+     * Collects signatures of all resources of the source folder of a given project of the commit and records the walk
+     * (the listing of the tree) and the hashing phases.
+     *
+     * @param projectPath The project folder relative to the repository root in Git notation, empty for the root.
+     * Cannot be {@code null}
+     * @param sourceProjectFolder The folder the project would be checked out to, resource paths are resolved against
+     * it. Cannot be {@code null}
+     * @param stats The statistics to record the phases to. Cannot be {@code null}
+     * @return Signatures mapped to absolute resource paths. Never {@code null}
+     */
+    Map<Path, byte[]> collect(String projectPath, Path sourceProjectFolder, GenerationStats stats)
+    {
+        String projectPrefix =
+            projectPath.isEmpty() ? "" : projectPath + (char)EdtIBSynchronizationStateManager.PATH_SEPARATOR; //$NON-NLS-1$
+
+        // Step 1: List the source tree and batch its files
+        GenerationStats.Timer phase = stats.start(GenerationStats.WALK_PHASE);
+        Map<String, String> blobIds = new HashMap<>();
+        Map<String, Long> unitSizes = new TreeMap<>();
+        long totalBytes = 0;
+        int skippedEntries = 0;
+        for (GitRepository.TreeEntry entry : repository.listTree(commit,
+            projectPrefix + EdtIBSynchronizationStateManager.SOURCE_FOLDER))
+        {
+            if (entry.isSymbolicLink())
+            {
+                throw new IllegalStateException(MessageFormat.format(
+                    "{0} is a symbolic link, its signature depends on the checkout, generate the state from a work tree", //$NON-NLS-1$
+                    entry.path()));
+            }
+            if (!entry.isRegularFile())
+            {
+                // Uninitialized submodules are empty folders in a checkout
+                skippedEntries++;
+                continue;
+            }
+            blobIds.put(entry.path(), entry.object());
+            unitSizes.merge(projectPrefix + getBatchUnit(entry.path().substring(projectPrefix.length())),
+                entry.size(), Long::sum);
+            totalBytes += entry.size();
+        }
+        if (skippedEntries > 0)
+        {
+            System.out.println(MessageFormat.format("{0} submodules of {1} are skipped", //$NON-NLS-1$
+                skippedEntries, sourceProjectFolder));
+        }
+        List<Batch> batches = createBatches(unitSizes, totalBytes);
+        phase.finish(blobIds.size(), totalBytes);
+
+        // Step 2: Stream and hash the batches, the biggest ones first
+        phase = stats.start(GenerationStats.HASH_PHASE);
+        BlobSignatureCache blobCache =
+            settings.blobCacheFile() != null ? BlobSignatureCache.load(settings.blobCacheFile()) : null;
+        Map<Path, byte[]> signatures = new ConcurrentHashMap<>(blobIds.size() * 4 / 3 + 1);
+        AtomicInteger hashedFiles = new AtomicInteger();
+        AtomicLong hashedBytes = new AtomicLong();
+        TarReader.EntryConsumer hasher = (path, size, content) -> {
+            String blobId = blobIds.get(path);
+            byte[] signature = blobCache != null && blobId != null ? blobCache.get(blobId, size) : null;
+            if (signature == null)
+            {
+                signature = SignatureHasher.computeSignature(content);
+                hashedFiles.incrementAndGet();
+                hashedBytes.addAndGet(size);
+                if (blobCache != null && blobId != null)
+                {
+                    blobCache.put(blobId, size, signature);
+                }
+            }
+            signatures.put(sourceProjectFolder.resolve(path.substring(projectPrefix.length())), signature);
+        };
+        stream(batches, hasher);
+        phase.finish(hashedFiles.get(), hashedBytes.get());
+
+        if (signatures.size() != blobIds.size())
+        {
+            throw new IllegalStateException(MessageFormat.format(
+                "{0} of {1} files of {2} are not exported by Git, they may have the export-ignore attribute", //$NON-NLS-1$
+                blobIds.size() - signatures.size(), blobIds.size(), sourceProjectFolder));
+        }
+
+        if (blobCache != null)
+        {
+            System.out.println(MessageFormat.format("Blob signature cache: {0} hits, {1} misses", //$NON-NLS-1$
+                blobCache.getHits(), blobCache.getMisses()));
+            blobCache.save();
+        }
+        return signatures;
+    }
+
+    /*
+     * Gets the folder of a metadata object a resource belongs to or the resource itself if it is not nested that deep
+     */
+    private static String getBatchUnit(String key)
+    {
+        int end = -1;
+        for (int depth = 0; depth < BATCH_UNIT_DEPTH; depth++)
+        {
+            end = key.indexOf(EdtIBSynchronizationStateManager.PATH_SEPARATOR, end + 1);
+            if (end < 0)
+            {
+                return key;
+            }
+        }
+        return key.substring(0, end);
+    }
+
+    /*
+     * Groups neighboring units into batches of a similar size, the batches are ordered by size descending
+     */
+    private List<Batch> createBatches(Map<String, Long> unitSizes, long totalBytes)
+    {
+        long batchBytes = Math.max(totalBytes / ((long)settings.effectiveThreads() * BATCHES_PER_THREAD), 1);
+        List<Batch> batches = new ArrayList<>();
+        Batch batch = null;
+        for (Entry<String, Long> unit : unitSizes.entrySet())
+        {
+            if (batch == null || batch.bytes >= batchBytes
+                || batch.pathsLength + unit.getKey().length() > MAX_BATCH_PATHS_LENGTH)
+            {
+                batch = new Batch();
+                batches.add(batch);
+            }
+            batch.paths.add(unit.getKey());
+            batch.pathsLength += unit.getKey().length() + 1;
+            batch.bytes += unit.getValue();
+        }
+        batches.sort(Comparator.comparingLong((Batch item) -> item.bytes).reversed());
+        return batches;
+    }
+
+    private void stream(List<Batch> batches, TarReader.EntryConsumer hasher)
+    {
+        if (batches.isEmpty())
+        {
+            return;
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        // Readers mostly hash, inflating of objects is done by their Git processes
+        ExecutorService executor =
+            Executors.newFixedThreadPool(Math.min(batches.size(), settings.effectiveThreads()), runnable -> {
+                Thread thread = new Thread(runnable, "ib-sync-git-reader-" + counter.incrementAndGet()); //$NON-NLS-1$
+                thread.setDaemon(true);
+                return thread;
+            });
+        try
+        {
+            CompletableFuture.allOf(batches.stream()
+                .map(batch -> CompletableFuture.runAsync(() -> repository.archive(commit, batch.paths, hasher),
+                    executor))
+                .toArray(CompletableFuture[]::new)).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            throw e;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    /*
+     * Paths streamed by a single Git process
+     */
+    private static final class Batch
+    {
+        private final List<String> paths = new ArrayList<>();
+        private int pathsLength;
+        private long bytes;
+    }
+}
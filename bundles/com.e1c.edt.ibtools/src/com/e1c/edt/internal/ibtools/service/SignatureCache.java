@@ -0,0 +1,261 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Persistent on-disk cache of EDT resource signatures.<br>
+ *
+ * Each record is keyed by a resource relative path (the same one that is written to the sync. index) and is valid
+ * as long as the size, the modification time and the file key (where the file system provides one) of the resource
+ * are unchanged. Only the records that were requested during the current run are written back, so removed resources
+ * do not bloat the cache. A memory-resident cache of a long-running session passes its records from run to run
+ * instead of a file.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SignatureCache
+{
+    private static final int MAGIC = 0x45534331; // "ESC1"
+    private static final int VERSION = 1;
+
+    /*
+     * Files modified this close to the start of the run may still be changed within the same timestamp granularity,
+     * so their signatures are not persisted (the "racily clean" problem)
+     */
+    private static final long RACY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+
+    private final Path cacheFile;
+    private final String projectLocation;
+    private final long runStartNanos;
+    private final Map<String, Record> storedRecords;
+    private final Map<String, Record> actualRecords = new ConcurrentHashMap<>();
+
+    private final AtomicInteger hits = new AtomicInteger();
+    private final AtomicInteger misses = new AtomicInteger();
+
+    private SignatureCache(Path cacheFile, String projectLocation, Map<String, Record> storedRecords)
+    {
+        this.cacheFile = cacheFile;
+        this.projectLocation = projectLocation;
+        this.storedRecords = storedRecords;
+        this.runStartNanos = TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis());
+    }
+
+    /**
+     * Loads the cache from a given file. A missing, corrupted or foreign (created for another project) cache file
+     * results in an empty cache.
+     *
+     * @param cacheFile The cache file. Cannot be {@code null}
+     * @param sourceProjectFolder The project folder the cache is built for. Cannot be {@code null}
+     * @return The loaded cache. Never {@code null}
+     */
+    static SignatureCache load(Path cacheFile, Path sourceProjectFolder)
+    {
+        Preconditions.checkNotNull(cacheFile);
+        Preconditions.checkNotNull(sourceProjectFolder);
+
+        String projectLocation = sourceProjectFolder.toAbsolutePath().normalize().toString();
+        Map<String, Record> records = new HashMap<>();
+        if (Files.isRegularFile(cacheFile))
+        {
+            try (DataInputStream dis = new DataInputStream(new BufferedInputStream(Files.newInputStream(cacheFile))))
+            {
+                if (dis.readInt() == MAGIC && dis.readInt() == VERSION && projectLocation.equals(dis.readUTF()))
+                {
+                    int count = dis.readInt();
+                    records = new HashMap<>(count * 4 / 3 + 1);
+                    for (int idx = 0; idx < count; idx++)
+                    {
+                        String key = dis.readUTF();
+                        long size = dis.readLong();
+                        long modified = dis.readLong();
+                        String fileKey = dis.readUTF();
+                        byte[] signature = new byte[dis.readInt()];
+                        dis.readFully(signature);
+
+                        records.put(key, new Record(size, modified, fileKey, signature));
+                    }
+                }
+            }
+            catch (IOException e)
+            {
+                System.out.println(MessageFormat.format("Signature cache {0} is unreadable and will be rebuilt: {1}", //$NON-NLS-1$
+                    cacheFile, e.getMessage()));
+                records = new HashMap<>();
+            }
+        }
+
+        return new SignatureCache(cacheFile, projectLocation, records);
+    }
+
+    /**
+     * Creates a memory-resident cache holding the records of a previous run. Such a cache is never saved, it is passed
+     * to the next run instead.
+     *
+     * @param sourceProjectFolder The project folder the cache is built for. Cannot be {@code null}
+     * @param previous The cache of the previous run of the same project. May be {@code null}
+     * @return The created cache. Never {@code null}
+     */
+    static SignatureCache inMemory(Path sourceProjectFolder, SignatureCache previous)
+    {
+        Preconditions.checkNotNull(sourceProjectFolder);
+
+        return new SignatureCache(null, sourceProjectFolder.toAbsolutePath().normalize().toString(),
+            previous != null ? previous.actualRecords : Map.of());
+    }
+
+    /**
+     * Gets a cached signature of a resource if the resource is unchanged since the signature was stored.
+     *
+     * @param key The resource relative path. Cannot be {@code null}
+     * @param attributes The actual attributes of the resource. Cannot be {@code null}
+     * @return The cached signature or {@code null} if there is no valid record for the resource
+     */
+    byte[] get(String key, BasicFileAttributes attributes)
+    {
+        Record record = storedRecords.get(key);
+        if (record != null && record.matches(attributes))
+        {
+            hits.incrementAndGet();
+            actualRecords.put(key, record);
+            return record.signature();
+        }
+
+        misses.incrementAndGet();
+        return null;
+    }
+
+    /**
+     * Gets the size of a resource a given signature was computed for.
+     *
+     * @param key The resource relative path. Cannot be {@code null}
+     * @param signature The signature. Cannot be {@code null}
+     * @return The size or {@code -1} if there is no record of the resource with the signature
+     */
+    long getSize(String key, byte[] signature)
+    {
+        Record record = storedRecords.get(key);
+        return record != null && Arrays.equals(record.signature(), signature) ? record.size() : -1;
+    }
+
+    /**
+     * Stores a freshly computed signature of a resource.
+     *
+     * @param key The resource relative path. Cannot be {@code null}
+     * @param attributes The attributes of the resource the signature was computed for. Cannot be {@code null}
+     * @param signature The signature. Cannot be {@code null}
+     */
+    void put(String key, BasicFileAttributes attributes, byte[] signature)
+    {
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        if (modified < runStartNanos - RACY_INTERVAL_NANOS)
+        {
+            actualRecords.put(key, new Record(attributes.size(), modified, fileKey(attributes), signature));
+        }
+    }
+
+    /**
+     * Writes records requested or stored during this run back to the cache file
+     */
+    void save()
+    {
+        Preconditions.checkState(cacheFile != null);
+
+        try
+        {
+            Path parent = cacheFile.toAbsolutePath().getParent();
+            if (parent != null)
+            {
+                Files.createDirectories(parent);
+            }
+
+            // Concurrent runs sharing the cache file write their own temporary files
+            Path tempFile = cacheFile.resolveSibling(cacheFile.getFileName() + "." + UUID.randomUUID() + ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+            try
+            {
+                try (DataOutputStream dos =
+                    new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tempFile), 1 << 16)))
+                {
+                    dos.writeInt(MAGIC);
+                    dos.writeInt(VERSION);
+                    dos.writeUTF(projectLocation);
+                    dos.writeInt(actualRecords.size());
+                    for (Entry<String, Record> entry : actualRecords.entrySet())
+                    {
+                        Record record = entry.getValue();
+                        dos.writeUTF(entry.getKey());
+                        dos.writeLong(record.size());
+                        dos.writeLong(record.modified());
+                        dos.writeUTF(record.fileKey());
+                        dos.writeInt(record.signature().length);
+                        dos.write(record.signature());
+                    }
+                }
+                Files.move(tempFile, cacheFile, StandardCopyOption.REPLACE_EXISTING,
+                    StandardCopyOption.ATOMIC_MOVE);
+            }
+            finally
+            {
+                Files.deleteIfExists(tempFile);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The number of signatures taken from the cache
+     */
+    int getHits()
+    {
+        return hits.get();
+    }
+
+    /**
+     * @return The number of signatures that had to be computed
+     */
+    int getMisses()
+    {
+        return misses.get();
+    }
+
+    private static String fileKey(BasicFileAttributes attributes)
+    {
+        Object fileKey = attributes.fileKey();
+        return fileKey != null ? fileKey.toString() : ""; //$NON-NLS-1$
+    }
+
+    private record Record(long size, long modified, String fileKey, byte[] signature)
+    {
+        boolean matches(BasicFileAttributes attributes)
+        {
+            return size == attributes.size() && modified == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS)
+                && fileKey.equals(SignatureCache.fileKey(attributes));
+        }
+    }
+}
@@ -0,0 +1,472 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.reflect.Method;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Collects EDT resource signatures of a project as a producer/consumer pipeline: the source tree walker feeds
+ * a bounded queue which is drained by a dedicated pool of hashing workers, so hashing starts as soon as the first
+ * file is found and does not compete with other users of the common fork-join pool.<br>
+ *
+ * Several projects may be collected concurrently from different threads: their walkers feed the same queue, so files
+ * of small projects are hashed alongside the files of a big one instead of waiting for it.<br>
+ *
+ * If a blob signature cache is configured, signatures of resources unchanged against the Git index of their work tree
+ * are looked up by their blob identifiers, so the resources already hashed in another work tree or checkout of the
+ * repository are not hashed again. The cache is saved when the collector is closed.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SignatureCollector
+    implements AutoCloseable
+{
+    private static final int QUEUE_CAPACITY = 4096;
+    private static final long OFFER_TIMEOUT_MILLIS = 100;
+
+    /*
+     * Files modified this close to the listing of blobs may have been changed after it, so their blob identifiers are
+     * not trusted
+     */
+    private static final long RACY_INTERVAL_MILLIS = TimeUnit.SECONDS.toMillis(2);
+
+    /*
+     * End-of-stream marker, one per worker
+     */
+    private static final WorkItem POISON = new WorkItem(null, null, null);
+
+    private final GenerationSettings settings;
+    private final BlobSignatureCache blobCache;
+    private final BlockingQueue<WorkItem> queue = new ArrayBlockingQueue<>(QUEUE_CAPACITY);
+    private final ExecutorService workers;
+    private final int threads;
+
+    /**
+     * Constructs an instance and starts its hashing workers.
+     *
+     * @param settings The generation settings. Cannot be {@code null}
+     */
+    SignatureCollector(GenerationSettings settings)
+    {
+        this.settings = Preconditions.checkNotNull(settings);
+        this.threads = settings.effectiveThreads();
+        this.blobCache = settings.blobCacheFile() != null ? BlobSignatureCache.load(settings.blobCacheFile()) : null;
+        this.workers = Executors.newFixedThreadPool(threads, createThreadFactory());
+        for (int idx = 0; idx < threads; idx++)
+        {
+            workers.execute(this::drain);
+        }
+    }
+
+    /**
+     * Collects signatures of all resources of the source folder of a given project. May be called concurrently for
+     * different projects.
+     *
+     * @param sourceProjectFolder The project folder. Cannot be {@code null}
+     * @return Signatures mapped to absolute resource paths. Never {@code null}
+     */
+    Map<Path, byte[]> collect(Path sourceProjectFolder)
+    {
+        return collect(sourceProjectFolder, settings.signatureCacheFile());
+    }
+
+    /**
+     * Collects signatures of all resources of the source folder of a given project using a given signature cache. May
+     * be called concurrently for different projects.
+     *
+     * @param sourceProjectFolder The project folder. Cannot be {@code null}
+     * @param signatureCacheFile The signature cache file of the project. May be {@code null}
+     * @return Signatures mapped to absolute resource paths. Never {@code null}
+     */
+    Map<Path, byte[]> collect(Path sourceProjectFolder, Path signatureCacheFile)
+    {
+        SignatureCache cache =
+            signatureCacheFile != null ? SignatureCache.load(signatureCacheFile, sourceProjectFolder) : null;
+        Map<Path, byte[]> signatures = collect(sourceProjectFolder, cache);
+        if (cache != null)
+        {
+            cache.save();
+        }
+        return signatures;
+    }
+
+    /**
+     * Collects signatures of all resources of the source folder of a given project using a given signature cache. The
+     * cache is not saved. May be called concurrently for different projects.
+     *
+     * @param sourceProjectFolder The project folder. Cannot be {@code null}
+     * @param cache The signature cache of the project. May be {@code null}
+     * @return Signatures mapped to absolute resource paths. Never {@code null}
+     */
+    Map<Path, byte[]> collect(Path sourceProjectFolder, SignatureCache cache)
+    {
+        return collect(sourceProjectFolder, cache, null);
+    }
+
+    /**
+     * Collects signatures of all resources of the source folder of a given project using a given signature cache and
+     * records the walk and the hashing phases. The cache is not saved. May be called concurrently for different
+     * projects.
+     *
+     * @param sourceProjectFolder The project folder. Cannot be {@code null}
+     * @param cache The signature cache of the project. May be {@code null}
+     * @param stats The statistics to record the phases to. May be {@code null}
+     * @return Signatures mapped to absolute resource paths. Never {@code null}
+     */
+    Map<Path, byte[]> collect(Path sourceProjectFolder, SignatureCache cache, GenerationStats stats)
+    {
+        long blobsListedMillis = System.currentTimeMillis();
+        Job job = new Job(sourceProjectFolder, cache, blobCache != null ? listBlobs(sourceProjectFolder) : Map.of(),
+            blobsListedMillis);
+        GenerationStats.Timer hashPhase = stats != null ? stats.start(GenerationStats.HASH_PHASE) : null;
+        GenerationStats.Timer walkPhase = stats != null ? stats.start(GenerationStats.WALK_PHASE) : null;
+        try
+        {
+            walk(job);
+        }
+        finally
+        {
+            // Releasing the token of the walker
+            job.complete();
+        }
+        if (walkPhase != null)
+        {
+            walkPhase.finish(job.walkedFiles, job.walkedBytes);
+        }
+        job.done.join();
+        if (hashPhase != null)
+        {
+            hashPhase.finish(job.hashedFiles.get(), job.hashedBytes.get());
+        }
+
+        if (job.failure.get() != null)
+        {
+            throw job.failure.get();
+        }
+
+        if (cache != null)
+        {
+            System.out.println(MessageFormat.format("Signature cache: {0} hits, {1} misses", cache.getHits(), //$NON-NLS-1$
+                cache.getMisses()));
+        }
+
+        return job.signatures;
+    }
+
+    @Override
+    public void close()
+    {
+        for (int idx = 0; idx < threads; idx++)
+        {
+            putUninterruptibly(queue, POISON);
+        }
+        workers.shutdown();
+
+        if (blobCache != null)
+        {
+            System.out.println(MessageFormat.format("Blob signature cache: {0} hits, {1} misses", //$NON-NLS-1$
+                blobCache.getHits(), blobCache.getMisses()));
+            blobCache.save();
+        }
+    }
+
+    /*
+     * Lists blob identifiers of unchanged resources of a project mapped to their relative paths, a project outside of
+     * a Git work tree has none
+     */
+    private static Map<String, String> listBlobs(Path sourceProjectFolder)
+    {
+        try
+        {
+            GitRepository repository = GitRepository.open(sourceProjectFolder);
+            String projectPath = repository.toRepositoryPath(sourceProjectFolder);
+            String projectPrefix = projectPath.isEmpty() ? "" //$NON-NLS-1$
+                : projectPath + (char)EdtIBSynchronizationStateManager.PATH_SEPARATOR;
+            Map<String, String> blobs = new HashMap<>();
+            repository.listUnchangedBlobs(projectPrefix + EdtIBSynchronizationStateManager.SOURCE_FOLDER)
+                .forEach((path, blobId) -> blobs.put(path.substring(projectPrefix.length()), blobId));
+            return blobs;
+        }
+        catch (IllegalStateException | UncheckedIOException e)
+        {
+            System.out.println(MessageFormat.format("Blob signature cache is not used for {0}: {1}", //$NON-NLS-1$
+                sourceProjectFolder, e.getMessage()));
+            return Map.of();
+        }
+    }
+
+    private void walk(Job job)
+    {
+        try
+        {
+            Files.walkFileTree(job.sourceProjectFolder.resolve(EdtIBSynchronizationStateManager.SOURCE_FOLDER),
+                new SimpleFileVisitor<Path>()
+                {
+                    @Override
+                    public FileVisitResult visitFile(Path path, BasicFileAttributes attrs) throws IOException
+                    {
+                        WorkItem item = new WorkItem(job, path, attrs);
+                        job.pending.incrementAndGet();
+                        job.walkedFiles++;
+                        job.walkedBytes += attrs.size();
+                        try
+                        {
+                            // Hashing workers never stop draining, but a failure makes the rest of the walk useless
+                            while (!queue.offer(item, OFFER_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS))
+                            {
+                                if (job.failure.get() != null)
+                                {
+                                    job.complete();
+                                    return FileVisitResult.TERMINATE;
+                                }
+                            }
+                        }
+                        catch (InterruptedException e)
+                        {
+                            job.complete();
+                            Thread.currentThread().interrupt();
+                            throw new IOException(e);
+                        }
+                        return job.failure.get() == null ? FileVisitResult.CONTINUE : FileVisitResult.TERMINATE;
+                    }
+                });
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private void drain()
+    {
+        WorkItem item;
+        while ((item = takeUninterruptibly(queue)) != POISON)
+        {
+            Job job = item.job();
+            try
+            {
+                if (job.failure.get() == null)
+                {
+                    job.signatures.put(item.path(), computeSignature(item, job));
+                }
+            }
+            catch (RuntimeException e)
+            {
+                job.failure.compareAndSet(null, e);
+            }
+            finally
+            {
+                job.complete();
+            }
+        }
+    }
+
+    private byte[] computeSignature(WorkItem item, Job job)
+    {
+        if (job.cache == null && job.blobIds.isEmpty())
+        {
+            return hash(item, job);
+        }
+
+        String key = EdtIBSynchronizationStateManager
+            .normalizePath(job.sourceProjectFolder.relativize(item.path()).toString());
+        byte[] signature = job.cache != null ? job.cache.get(key, item.attributes()) : null;
+        if (signature != null)
+        {
+            return signature;
+        }
+
+        long size = item.attributes().size();
+        String blobId = job.getBlobId(key, item.attributes());
+        signature = blobId != null ? blobCache.get(blobId, size) : null;
+        if (signature == null)
+        {
+            signature = hash(item, job);
+            if (blobId != null)
+            {
+                blobCache.put(blobId, size, signature);
+            }
+        }
+        if (job.cache != null)
+        {
+            job.cache.put(key, item.attributes(), signature);
+        }
+        return signature;
+    }
+
+    private static byte[] hash(WorkItem item, Job job)
+    {
+        byte[] signature = SignatureHasher.computeSignature(item.path(), item.attributes().size());
+        job.hashedFiles.incrementAndGet();
+        job.hashedBytes.addAndGet(item.attributes().size());
+        return signature;
+    }
+
+    private ThreadFactory createThreadFactory()
+    {
+        if (settings.virtualThreads())
+        {
+            ThreadFactory virtualThreadFactory = createVirtualThreadFactory();
+            if (virtualThreadFactory != null)
+            {
+                return virtualThreadFactory;
+            }
+            System.out.println("Virtual threads are not supported by the runtime, platform threads are used"); //$NON-NLS-1$
+        }
+
+        AtomicInteger counter = new AtomicInteger();
+        return runnable -> {
+            Thread thread = new Thread(runnable, "ib-sync-hasher-" + counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        };
+    }
+
+    /*
+     * The bundle targets Java 17, so virtual threads (Java 21+) are looked up reflectively
+     */
+    private static ThreadFactory createVirtualThreadFactory()
+    {
+        try
+        {
+            Object builder = Thread.class.getMethod("ofVirtual").invoke(null); //$NON-NLS-1$
+            Class<?> builderClass = Class.forName("java.lang.Thread$Builder"); //$NON-NLS-1$
+            builder = builderClass.getMethod("name", String.class, long.class) //$NON-NLS-1$
+                .invoke(builder, "ib-sync-hasher-", 1L); //$NON-NLS-1$
+            Method factoryMethod = builderClass.getMethod("factory"); //$NON-NLS-1$
+            return (ThreadFactory)factoryMethod.invoke(builder);
+        }
+        catch (ReflectiveOperationException e)
+        {
+            return null;
+        }
+    }
+
+    private static WorkItem takeUninterruptibly(BlockingQueue<WorkItem> queue)
+    {
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    return queue.take();
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private static void putUninterruptibly(BlockingQueue<WorkItem> queue, WorkItem item)
+    {
+        boolean interrupted = false;
+        try
+        {
+            while (true)
+            {
+                try
+                {
+                    queue.put(item);
+                    return;
+                }
+                catch (InterruptedException e)
+                {
+                    interrupted = true;
+                }
+            }
+        }
+        finally
+        {
+            if (interrupted)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    private record WorkItem(Job job, Path path, BasicFileAttributes attributes)
+    {
+        // Left empty intentionally
+    }
+
+    /*
+     * Collection of a project. It is done when the walker and all of the queued items have completed.
+     */
+    private static final class Job
+    {
+        private final Path sourceProjectFolder;
+        private final SignatureCache cache;
+        private final Map<String, String> blobIds;
+        private final long blobsListedMillis;
+        private final Map<Path, byte[]> signatures = new ConcurrentHashMap<>();
+        private final AtomicReference<RuntimeException> failure = new AtomicReference<>();
+        // The walker holds a token until the walk is over
+        private final AtomicInteger pending = new AtomicInteger(1);
+        private final CompletableFuture<Void> done = new CompletableFuture<>();
+        private final AtomicInteger hashedFiles = new AtomicInteger();
+        private final AtomicLong hashedBytes = new AtomicLong();
+        // Updated by the walker only
+        private int walkedFiles;
+        private long walkedBytes;
+
+        Job(Path sourceProjectFolder, SignatureCache cache, Map<String, String> blobIds, long blobsListedMillis)
+        {
+            this.sourceProjectFolder = sourceProjectFolder;
+            this.cache = cache;
+            this.blobIds = blobIds;
+            this.blobsListedMillis = blobsListedMillis;
+        }
+
+        /*
+         * Gets the blob identifier of a resource unless the resource may have been changed since the blobs were listed
+         */
+        String getBlobId(String key, BasicFileAttributes attributes)
+        {
+            return attributes.lastModifiedTime().toMillis() < blobsListedMillis - RACY_INTERVAL_MILLIS
+                ? blobIds.get(key) : null;
+        }
+
+        void complete()
+        {
+            if (pending.decrementAndGet() == 0)
+            {
+                done.complete(null);
+            }
+        }
+    }
+}
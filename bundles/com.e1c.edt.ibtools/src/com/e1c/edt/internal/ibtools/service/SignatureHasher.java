@@ -0,0 +1,125 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * SHA-256 hashing engine for EDT resource signatures.<br>
+ *
+ * The produced signatures are byte-identical to the ones 1C:EDT computes (plain SHA-256 of the file content),
+ * but no file is ever copied to the heap in full: digests and direct read buffers are reused per thread, small files
+ * are streamed through a small buffer and large ones through a large one with positional reads. Files are not
+ * memory-mapped: a mapping lives until it is garbage collected and keeps the file from being replaced on Windows.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SignatureHasher
+{
+    /**
+     * Files of this size or larger are hashed through the large buffer
+     */
+    static final long LARGE_FILE_THRESHOLD = 1L << 20;
+
+    private static final String ALGORITHM = "SHA-256"; //$NON-NLS-1$
+    private static final int BUFFER_SIZE = 1 << 16;
+    private static final int LARGE_BUFFER_SIZE = 1 << 20;
+
+    private static final ThreadLocal<MessageDigest> DIGEST = ThreadLocal.withInitial(SignatureHasher::newDigest);
+    private static final ThreadLocal<ByteBuffer> BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(BUFFER_SIZE));
+    private static final ThreadLocal<ByteBuffer> LARGE_BUFFER =
+        ThreadLocal.withInitial(() -> ByteBuffer.allocateDirect(LARGE_BUFFER_SIZE));
+    private static final ThreadLocal<byte[]> STREAM_BUFFER = ThreadLocal.withInitial(() -> new byte[BUFFER_SIZE]);
+
+    private SignatureHasher()
+    {
+        // Utility class
+    }
+
+    /**
+     * Computes a signature of a file.
+     *
+     * @param filePath The file to hash. Cannot be {@code null}
+     * @param size The size of the file as it was seen by the caller, used to choose the hashing strategy only
+     * @return The SHA-256 of the file content. Never {@code null}
+     */
+    static byte[] computeSignature(Path filePath, long size)
+    {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        try (FileChannel channel = FileChannel.open(filePath, StandardOpenOption.READ))
+        {
+            // Large files take fewer reads, the buffer is allocated only by threads which hash them
+            ByteBuffer buffer = size >= LARGE_FILE_THRESHOLD ? LARGE_BUFFER.get() : BUFFER.get();
+            long position = 0;
+            buffer.clear();
+            int read;
+            while ((read = channel.read(buffer, position)) != -1)
+            {
+                position += read;
+                buffer.flip();
+                digest.update(buffer);
+                buffer.clear();
+            }
+            return digest.digest();
+        }
+        catch (IOException e)
+        {
+            digest.reset();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Computes a signature of a stream content. The stream is not closed.
+     *
+     * @param content The content to hash. Cannot be {@code null}
+     * @return The SHA-256 of the content. Never {@code null}
+     */
+    static byte[] computeSignature(InputStream content)
+    {
+        MessageDigest digest = DIGEST.get();
+        digest.reset();
+        byte[] buffer = STREAM_BUFFER.get();
+        try
+        {
+            int read;
+            while ((read = content.read(buffer)) != -1)
+            {
+                digest.update(buffer, 0, read);
+            }
+            return digest.digest();
+        }
+        catch (IOException e)
+        {
+            digest.reset();
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return A new digest of the signature algorithm. Never {@code null}
+     */
+    static MessageDigest newDigest()
+    {
+        try
+        {
+            return MessageDigest.getInstance(ALGORITHM);
+        }
+        catch (NoSuchAlgorithmException e)
+        {
+            // SHA-256 is mandatory for every Java platform implementation
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,487 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.UTFDataFormatException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap;
+import java.util.AbstractSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Lazy reader of a sync. index file ('index.idx') built on top of a heap copy of it. The file is not memory-mapped:
+ * a mapping lives until it is garbage collected and keeps the file from being replaced on Windows.<br>
+ *
+ * The file is scanned once to build a compact offset table and an open-addressing hash table over the raw
+ * (modified UTF-8) keys. Keys and signatures are decoded only when they are looked up or iterated, so checking
+ * a resource presence or getting its signature costs neither a full decode nor per-entry heap objects.<br>
+ *
+ * Keys are matched in the normalized form, i.e. {@code '\'} and {@code '/'} separators are equal.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncIndexReader
+{
+    private static final int FNV_OFFSET_BASIS = 0x811c9dc5;
+    private static final int FNV_PRIME = 0x01000193;
+
+    private final ByteBuffer buffer;
+    private final long timestamp;
+    private final int[] offsets;
+    private final int[] table;
+    private final int size;
+    private final boolean duplicates;
+    private final String generationId;
+    private final String configurationUUID;
+
+    private SyncIndexReader(ByteBuffer buffer) throws IOException
+    {
+        this.buffer = buffer;
+        try
+        {
+            int position = 0;
+            this.timestamp = buffer.getLong(position);
+            position += Long.BYTES;
+            int count = buffer.getInt(position);
+            position += Integer.BYTES;
+            if (count < 0)
+            {
+                throw new IOException("Corrupted sync. index: negative entry count"); //$NON-NLS-1$
+            }
+
+            this.offsets = new int[count];
+            this.table = new int[tableCapacity(count)];
+            int distinct = 0;
+            for (int idx = 0; idx < count; idx++)
+            {
+                offsets[idx] = position;
+                if (insert(idx))
+                {
+                    distinct++;
+                }
+                position = signatureOffset(position);
+                position += Integer.BYTES + buffer.getInt(position);
+            }
+            this.size = distinct;
+            this.duplicates = distinct != count;
+
+            this.generationId = decodeString(position);
+            position += Short.BYTES + Short.toUnsignedInt(buffer.getShort(position));
+            this.configurationUUID = decodeString(position);
+        }
+        catch (IndexOutOfBoundsException | BufferUnderflowException e)
+        {
+            throw new IOException("Corrupted sync. index: unexpected end of file", e); //$NON-NLS-1$
+        }
+    }
+
+    /**
+     * Reads a whole sync. index file into the heap, the file is closed on return.
+     *
+     * @param storePath The index file. Cannot be {@code null}
+     * @return The reader. Never {@code null}
+     * @throws IOException if the file cannot be read or is corrupted
+     */
+    static SyncIndexReader read(Path storePath) throws IOException
+    {
+        Preconditions.checkNotNull(storePath);
+
+        try (FileChannel channel = FileChannel.open(storePath, StandardOpenOption.READ))
+        {
+            ByteBuffer buffer = ByteBuffer.allocate(checkSize(channel, storePath));
+            while (buffer.hasRemaining() && channel.read(buffer) != -1)
+            {
+                // Reading until the buffer is full
+            }
+            return new SyncIndexReader(buffer.flip());
+        }
+    }
+
+    private static int checkSize(FileChannel channel, Path storePath) throws IOException
+    {
+        long fileSize = channel.size();
+        if (fileSize > Integer.MAX_VALUE)
+        {
+            throw new IOException("Sync. index is too large: " + storePath); //$NON-NLS-1$
+        }
+        return (int)fileSize;
+    }
+
+    /**
+     * @return The timestamp the index was written
+     */
+    long getTimestamp()
+    {
+        return timestamp;
+    }
+
+    /**
+     * @return The global generation identifier. Never {@code null}
+     */
+    String getGenerationId()
+    {
+        return generationId;
+    }
+
+    /**
+     * @return The configuration UUID. Never {@code null}
+     */
+    String getConfigurationUUID()
+    {
+        return configurationUUID;
+    }
+
+    /**
+     * @return The number of distinct resources in the index
+     */
+    int size()
+    {
+        return size;
+    }
+
+    /**
+     * Checks whether a resource is present in the index
+     *
+     * @param key The resource relative path. Cannot be {@code null}
+     * @return {@code true} if the resource is present
+     */
+    boolean contains(String key)
+    {
+        return find(key) != -1;
+    }
+
+    /**
+     * Gets a signature of a resource
+     *
+     * @param key The resource relative path. Cannot be {@code null}
+     * @return The signature or {@code null} if the resource is absent
+     */
+    byte[] getSignature(String key)
+    {
+        int entry = find(key);
+        return entry != -1 ? signature(entry) : null;
+    }
+
+    /**
+     * Provides a read-only lazy map view of the index. Lookups use the hash table of the index, iteration decodes
+     * entries on the fly.
+     *
+     * @return The map view where keys are normalized resource relative paths and values are their signatures.
+     * Never {@code null}
+     */
+    Map<String, byte[]> asMap()
+    {
+        return new MapView();
+    }
+
+    private int find(String key)
+    {
+        byte[] encoded = encode(key);
+        int hash = hash(encoded);
+        int mask = table.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask)
+        {
+            int entry = table[slot] - 1;
+            if (entry == -1)
+            {
+                return -1;
+            }
+            if (keyEquals(offsets[entry], encoded))
+            {
+                return entry;
+            }
+        }
+    }
+
+    /*
+     * Returns false if the entry replaces a previous one with the same key (the last one wins as in a map)
+     */
+    private boolean insert(int entry)
+    {
+        int keyOffset = offsets[entry];
+        int hash = hashKey(keyOffset);
+        int mask = table.length - 1;
+        for (int slot = hash & mask;; slot = (slot + 1) & mask)
+        {
+            int existing = table[slot] - 1;
+            if (existing == -1)
+            {
+                table[slot] = entry + 1;
+                return true;
+            }
+            if (keysEqual(offsets[existing], keyOffset))
+            {
+                table[slot] = entry + 1;
+                return false;
+            }
+        }
+    }
+
+    private boolean isShadowed(int entry)
+    {
+        return duplicates && find(key(entry)) != entry;
+    }
+
+    private String key(int entry)
+    {
+        try
+        {
+            return EdtIBSynchronizationStateManager.normalizePath(decodeString(offsets[entry]));
+        }
+        catch (IOException e)
+        {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private byte[] signature(int entry)
+    {
+        int position = signatureOffset(offsets[entry]);
+        byte[] signature = new byte[buffer.getInt(position)];
+        buffer.get(position + Integer.BYTES, signature);
+        return signature;
+    }
+
+    private int signatureOffset(int keyOffset)
+    {
+        return keyOffset + Short.BYTES + Short.toUnsignedInt(buffer.getShort(keyOffset));
+    }
+
+    private int hashKey(int keyOffset)
+    {
+        int length = Short.toUnsignedInt(buffer.getShort(keyOffset));
+        int hash = FNV_OFFSET_BASIS;
+        for (int idx = 0; idx < length; idx++)
+        {
+            hash = (hash ^ normalize(buffer.get(keyOffset + Short.BYTES + idx))) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private static int hash(byte[] encoded)
+    {
+        int hash = FNV_OFFSET_BASIS;
+        for (byte b : encoded)
+        {
+            hash = (hash ^ normalize(b)) * FNV_PRIME;
+        }
+        return mix(hash);
+    }
+
+    private boolean keyEquals(int keyOffset, byte[] encoded)
+    {
+        int length = Short.toUnsignedInt(buffer.getShort(keyOffset));
+        if (length != encoded.length)
+        {
+            return false;
+        }
+        for (int idx = 0; idx < length; idx++)
+        {
+            if (normalize(buffer.get(keyOffset + Short.BYTES + idx)) != normalize(encoded[idx]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private boolean keysEqual(int keyOffset, int otherKeyOffset)
+    {
+        int length = Short.toUnsignedInt(buffer.getShort(keyOffset));
+        if (length != Short.toUnsignedInt(buffer.getShort(otherKeyOffset)))
+        {
+            return false;
+        }
+        for (int idx = 0; idx < length; idx++)
+        {
+            if (normalize(buffer.get(keyOffset + Short.BYTES + idx)) != normalize(
+                buffer.get(otherKeyOffset + Short.BYTES + idx)))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*
+     * Bytes of multi-byte UTF-8 sequences are never less than 0x80, so a separator can be normalized byte-wise
+     */
+    private static int normalize(byte b)
+    {
+        return b == '\\' ? EdtIBSynchronizationStateManager.PATH_SEPARATOR : b & 0xFF;
+    }
+
+    private static int mix(int hash)
+    {
+        return hash ^ (hash >>> 16);
+    }
+
+    private static int tableCapacity(int count)
+    {
+        int capacity = 2;
+        while (capacity < count * 2L)
+        {
+            capacity <<= 1;
+        }
+        return capacity;
+    }
+
+    /*
+     * Decodes a string written by DataOutput.writeUTF (modified UTF-8 with a 2-byte length prefix)
+     */
+    private String decodeString(int offset) throws IOException
+    {
+        int length = Short.toUnsignedInt(buffer.getShort(offset));
+        int position = offset + Short.BYTES;
+        int end = position + length;
+        char[] chars = new char[length];
+        int count = 0;
+        while (position < end)
+        {
+            int b = buffer.get(position) & 0xFF;
+            if (b < 0x80)
+            {
+                chars[count++] = (char)b;
+                position++;
+            }
+            else if ((b & 0xE0) == 0xC0 && position + 1 < end)
+            {
+                chars[count++] = (char)(((b & 0x1F) << 6) | (buffer.get(position + 1) & 0x3F));
+                position += 2;
+            }
+            else if ((b & 0xF0) == 0xE0 && position + 2 < end)
+            {
+                chars[count++] = (char)(((b & 0x0F) << 12) | ((buffer.get(position + 1) & 0x3F) << 6)
+                    | (buffer.get(position + 2) & 0x3F));
+                position += 3;
+            }
+            else
+            {
+                throw new UTFDataFormatException("Malformed input around byte " + position); //$NON-NLS-1$
+            }
+        }
+        return new String(chars, 0, count);
+    }
+
+    /*
+     * Encodes a string the way DataOutput.writeUTF does
+     */
+    private static byte[] encode(String value)
+    {
+        int length = 0;
+        for (int idx = 0; idx < value.length(); idx++)
+        {
+            char c = value.charAt(idx);
+            length += c != 0 && c < 0x80 ? 1 : c < 0x800 ? 2 : 3;
+        }
+
+        byte[] encoded = new byte[length];
+        int position = 0;
+        for (int idx = 0; idx < value.length(); idx++)
+        {
+            char c = value.charAt(idx);
+            if (c != 0 && c < 0x80)
+            {
+                encoded[position++] = (byte)c;
+            }
+            else if (c < 0x800)
+            {
+                encoded[position++] = (byte)(0xC0 | (c >> 6));
+                encoded[position++] = (byte)(0x80 | (c & 0x3F));
+            }
+            else
+            {
+                encoded[position++] = (byte)(0xE0 | (c >> 12));
+                encoded[position++] = (byte)(0x80 | ((c >> 6) & 0x3F));
+                encoded[position++] = (byte)(0x80 | (c & 0x3F));
+            }
+        }
+        return encoded;
+    }
+
+    private final class MapView
+        extends AbstractMap<String, byte[]>
+    {
+        @Override
+        public byte[] get(Object key)
+        {
+            return key instanceof String stringKey ? getSignature(stringKey) : null;
+        }
+
+        @Override
+        public boolean containsKey(Object key)
+        {
+            return key instanceof String stringKey && contains(stringKey);
+        }
+
+        @Override
+        public int size()
+        {
+            return size;
+        }
+
+        @Override
+        public Set<Entry<String, byte[]>> entrySet()
+        {
+            return new AbstractSet<>()
+            {
+                @Override
+                public Iterator<Entry<String, byte[]>> iterator()
+                {
+                    return new EntryIterator();
+                }
+
+                @Override
+                public int size()
+                {
+                    return size;
+                }
+            };
+        }
+    }
+
+    private final class EntryIterator
+        implements Iterator<Map.Entry<String, byte[]>>
+    {
+        private int next = advance(0);
+
+        @Override
+        public boolean hasNext()
+        {
+            return next < offsets.length;
+        }
+
+        @Override
+        public Map.Entry<String, byte[]> next()
+        {
+            if (!hasNext())
+            {
+                throw new NoSuchElementException();
+            }
+            int entry = next;
+            next = advance(entry + 1);
+            return new AbstractMap.SimpleImmutableEntry<>(key(entry), signature(entry));
+        }
+
+        private int advance(int from)
+        {
+            int entry = from;
+            while (entry < offsets.length && isShadowed(entry))
+            {
+                entry++;
+            }
+            return entry;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.BufferedOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Writer of sync. index files ('index.idx').<br>
+ *
+ * The index is written through a large buffer into a temporary file next to the target one and is published with
+ * an atomic rename only when it is complete, so a crash never leaves a truncated index for 1C:EDT to consume.
+ * Optionally the content (and the folder entry) is forced to the storage device before and after publishing.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncIndexWriter
+{
+    private static final int BUFFER_SIZE = 1 << 20;
+    private static final String TEMP_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+    private SyncIndexWriter()
+    {
+        // Utility class
+    }
+
+    /**
+     * Writes a sync. index.
+     *
+     * @param storePath The index file. Cannot be {@code null}
+     * @param edtSignatures Signatures mapped to resource relative paths. Cannot be {@code null}
+     * @param generationId The global generation identifier. Cannot be {@code null}
+     * @param configurationUUID The configuration UUID. Cannot be {@code null}
+     * @param durable Whether the index should be forced to the storage device
+     */
+    static void write(Path storePath, Map<String, byte[]> edtSignatures, String generationId, String configurationUUID,
+        boolean durable)
+    {
+        Preconditions.checkNotNull(storePath);
+        Preconditions.checkNotNull(edtSignatures);
+
+        long start = System.nanoTime();
+        Path folder = storePath.toAbsolutePath().getParent();
+        Path tempFile = null;
+        try
+        {
+            // Not Files.createTempFile: it restricts permissions of the file being published
+            tempFile = folder.resolve(storePath.getFileName() + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX); //$NON-NLS-1$
+            long size;
+            try (FileChannel channel =
+                FileChannel.open(tempFile, StandardOpenOption.WRITE, StandardOpenOption.CREATE_NEW))
+            {
+                DataOutputStream dao =
+                    new DataOutputStream(new BufferedOutputStream(Channels.newOutputStream(channel), BUFFER_SIZE));
+                // Writing the sync. timestamp
+                dao.writeLong(System.currentTimeMillis());
+                dao.writeInt(edtSignatures.size());
+                for (Entry<String, byte[]> entry : edtSignatures.entrySet())
+                {
+                    // Resource path
+                    dao.writeUTF(entry.getKey());
+                    // Signature length
+                    dao.writeInt(entry.getValue().length);
+                    // Signature body
+                    dao.write(entry.getValue());
+                }
+
+                // IB data generation identifier
+                dao.writeUTF(generationId);
+                // Configuration object UUID
+                dao.writeUTF(configurationUUID);
+                dao.flush();
+
+                size = channel.size();
+                if (durable)
+                {
+                    channel.force(true);
+                }
+            }
+            long written = System.nanoTime();
+
+            publish(tempFile, storePath);
+            tempFile = null;
+            if (durable)
+            {
+                forceFolder(folder);
+            }
+            long published = System.nanoTime();
+
+            long writeMillis = TimeUnit.NANOSECONDS.toMillis(written - start);
+            System.out.println(MessageFormat.format(
+                "{0} written: {1} entries, {2} bytes in {3} ms ({4,number,0.0} MB/s), published in {5} ms", //$NON-NLS-1$
+                storePath.getFileName(), edtSignatures.size(), size, writeMillis,
+                size / 1048576d / Math.max(written - start, 1) * TimeUnit.SECONDS.toNanos(1),
+                TimeUnit.NANOSECONDS.toMillis(published - start)));
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        finally
+        {
+            if (tempFile != null)
+            {
+                try
+                {
+                    Files.deleteIfExists(tempFile);
+                }
+                catch (IOException e)
+                {
+                    // The original failure is more important
+                }
+            }
+        }
+    }
+
+    /**
+     * Moves a complete temporary file over a target one, atomically where the file system supports it
+     *
+     * @param tempFile The temporary file. Cannot be {@code null}
+     * @param storePath The target file. Cannot be {@code null}
+     * @throws IOException if the file cannot be moved
+     */
+    static void publish(Path tempFile, Path storePath) throws IOException
+    {
+        try
+        {
+            Files.move(tempFile, storePath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(tempFile, storePath, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    /*
+     * Makes the rename durable. Not every platform allows to open a folder as a channel (Windows does not),
+     * there the rename is left to the file system.
+     */
+    private static void forceFolder(Path folder)
+    {
+        try (FileChannel channel = FileChannel.open(folder, StandardOpenOption.READ))
+        {
+            channel.force(true);
+        }
+        catch (IOException e)
+        {
+            // Not supported by the platform
+        }
+    }
+}
@@ -0,0 +1,227 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.FileSystemException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.util.Comparator;
+import java.util.UUID;
+import java.util.stream.Stream;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Clones a sync. state folder including its extension states ('ext/&lt;name&gt;').<br>
+ *
+ * A state does not depend on the UUID of its IB, so a clone is made of file system entries only: files are copied by
+ * the file system with their timestamps, so ConfigDumpInfo.xml sidecars and summaries stay valid. Nothing is parsed
+ * or hashed.<br>
+ *
+ * On request files are hard linked to the original ones where the file system allows it. Linked states share the
+ * content of their files, so they stay independent only while every writer replaces the files by renames as this
+ * tool does. A file rewritten in place by another writer (e.g. 1C:EDT updating the state of its IB) silently changes
+ * in every linked state. The only in-place write of this tool is the re-stamp of an unchanged ConfigDumpInfo.xml in
+ * a summary which is valid for every link.<br>
+ *
+ * The clone is built in a temporary folder next to the target one and replaces the target only when it is complete.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateCloner
+{
+    private static final String TEMP_FILE_SUFFIX = ".tmp"; //$NON-NLS-1$
+
+    private SyncStateCloner()
+    {
+        // Utility class
+    }
+
+    /**
+     * Result of cloning
+     *
+     * @param linked The number of hard linked files
+     * @param copied The number of copied files
+     */
+    record Result(int linked, int copied)
+    {
+        // Left empty intentionally
+    }
+
+    /**
+     * Clones a state folder replacing the target folder if it exists
+     *
+     * @param sourceFolder The state folder to clone. Cannot be {@code null}
+     * @param targetFolder The folder of the clone. Cannot be {@code null}
+     * @param link Whether files should be hard linked where possible instead of being copied
+     * @param durable Whether copied files should be forced to the storage device
+     * @return The result of cloning. Never {@code null}
+     */
+    static Result clone(Path sourceFolder, Path targetFolder, boolean link, boolean durable)
+    {
+        Preconditions.checkNotNull(sourceFolder);
+        Preconditions.checkNotNull(targetFolder);
+
+        Path tempFolder = targetFolder
+            .resolveSibling(targetFolder.getFileName() + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX); //$NON-NLS-1$
+        try
+        {
+            Files.createDirectories(targetFolder.toAbsolutePath().getParent());
+            Cloner cloner = new Cloner(sourceFolder, tempFolder, link, durable);
+            Files.walkFileTree(sourceFolder, cloner);
+            replace(tempFolder, targetFolder);
+            return new Result(cloner.linked, cloner.copied);
+        }
+        catch (IOException e)
+        {
+            delete(tempFolder);
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /*
+     * Replaces the target folder with the complete clone. The old target is moved aside first, so it is restored
+     * if the clone cannot be renamed
+     */
+    private static void replace(Path tempFolder, Path targetFolder) throws IOException
+    {
+        Path oldFolder = null;
+        if (Files.exists(targetFolder))
+        {
+            oldFolder = targetFolder
+                .resolveSibling(targetFolder.getFileName() + "." + UUID.randomUUID() + TEMP_FILE_SUFFIX); //$NON-NLS-1$
+            move(targetFolder, oldFolder);
+        }
+        try
+        {
+            move(tempFolder, targetFolder);
+        }
+        catch (IOException e)
+        {
+            if (oldFolder != null)
+            {
+                move(oldFolder, targetFolder);
+            }
+            throw e;
+        }
+        if (oldFolder != null)
+        {
+            delete(oldFolder);
+        }
+    }
+
+    private static void move(Path source, Path target) throws IOException
+    {
+        try
+        {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE);
+        }
+        catch (AtomicMoveNotSupportedException e)
+        {
+            Files.move(source, target);
+        }
+    }
+
+    /*
+     * Deletes a folder tree, best effort
+     */
+    private static void delete(Path folder)
+    {
+        if (!Files.exists(folder))
+        {
+            return;
+        }
+        try (Stream<Path> paths = Files.walk(folder))
+        {
+            paths.sorted(Comparator.reverseOrder()).forEach(path -> {
+                try
+                {
+                    Files.deleteIfExists(path);
+                }
+                catch (IOException e)
+                {
+                    // Left for the next run
+                }
+            });
+        }
+        catch (IOException | UncheckedIOException e)
+        {
+            // Left for the next run
+        }
+    }
+
+    /*
+     * Mirrors the source tree in the temporary folder, temporary files of unfinished writes are skipped
+     */
+    private static final class Cloner
+        extends SimpleFileVisitor<Path>
+    {
+        private final Path sourceFolder;
+        private final Path tempFolder;
+        private final boolean durable;
+        private boolean link;
+        private int linked;
+        private int copied;
+
+        Cloner(Path sourceFolder, Path tempFolder, boolean link, boolean durable)
+        {
+            this.sourceFolder = sourceFolder;
+            this.tempFolder = tempFolder;
+            this.durable = durable;
+            this.link = link;
+        }
+
+        @Override
+        public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+        {
+            Files.createDirectories(tempFolder.resolve(sourceFolder.relativize(dir).toString()));
+            return FileVisitResult.CONTINUE;
+        }
+
+        @Override
+        public FileVisitResult visitFile(Path file, BasicFileAttributes attrs) throws IOException
+        {
+            if (!attrs.isRegularFile() || file.getFileName().toString().endsWith(TEMP_FILE_SUFFIX))
+            {
+                return FileVisitResult.CONTINUE;
+            }
+
+            Path target = tempFolder.resolve(sourceFolder.relativize(file).toString());
+            if (link)
+            {
+                try
+                {
+                    Files.createLink(target, file);
+                    linked++;
+                    return FileVisitResult.CONTINUE;
+                }
+                catch (UnsupportedOperationException | FileSystemException e)
+                {
+                    // Another file system or no hard links there, the rest is copied without further attempts
+                    link = false;
+                }
+            }
+
+            Files.copy(file, target, StandardCopyOption.COPY_ATTRIBUTES);
+            if (durable)
+            {
+                try (FileChannel channel = FileChannel.open(target, StandardOpenOption.WRITE))
+                {
+                    channel.force(true);
+                }
+            }
+            copied++;
+            return FileVisitResult.CONTINUE;
+        }
+    }
+}
@@ -0,0 +1,229 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Function;
+
+import com._1c.g5.v8.dt.platform.services.core.infobases.sync.IConfigDumpInfoStore;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.ResourceType;
+import com.google.common.base.Preconditions;
+
+/**
+ * Compares IB synchronization states.<br>
+ *
+ * Both EDT resource signatures and platform resource versions are kept sorted, so each of them is compared in a single
+ * pass as a merge join without copying key sets. States having valid summaries are not loaded at all: their Merkle
+ * trees are descended only where hashes differ. The two comparisons of the configuration and of every extension
+ * present in both states are independent and run concurrently on a shared bounded pool, so the total time is close to
+ * the time of the largest of them. Tasks never wait for each other inside of the pool.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateComparator
+    implements AutoCloseable
+{
+    /**
+     * The name of the differences of a configuration state
+     */
+    static final String CONFIGURATION_STATE_NAME = "Configuration"; //$NON-NLS-1$
+
+    private final ExecutorService executor;
+
+    /**
+     * Constructs a comparator with a pool of a worker per available processor
+     */
+    SyncStateComparator()
+    {
+        AtomicInteger counter = new AtomicInteger();
+        this.executor = Executors.newFixedThreadPool(Runtime.getRuntime().availableProcessors(), runnable -> {
+            Thread thread = new Thread(runnable, "ib-sync-state-comparator-" + counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    /**
+     * Starts a comparison of two configuration states including their extension states. Extensions present in both
+     * states are compared by their names, the rest are reported as present in one of the states only.<br>
+     *
+     * States having valid summaries ('index.mrk') are compared by their Merkle trees, the rest are loaded and compared
+     * entry by entry.
+     *
+     * @param sourceStateFolder The folder of the source state. Cannot be {@code null}
+     * @param destinationStateFolder The folder of the destination state. Cannot be {@code null}
+     * @return The future of the differences of the configuration and its extensions. The future fails with
+     * {@link IllegalStateException} if a state cannot be loaded. Never {@code null}
+     */
+    CompletableFuture<SyncStateDiff> compareWithExtensions(Path sourceStateFolder, Path destinationStateFolder)
+    {
+        Preconditions.checkNotNull(sourceStateFolder);
+        Preconditions.checkNotNull(destinationStateFolder);
+
+        CompletableFuture<SyncStateDiff> configurationComparison = compare(CONFIGURATION_STATE_NAME, "configuration", //$NON-NLS-1$
+            sourceStateFolder, destinationStateFolder);
+
+        // TODO check if we have extensions without a base
+        SortedSet<String> destinationExtensions = SyncStateLoader.getExtensionNames(destinationStateFolder);
+        Map<String, CompletableFuture<SyncStateDiff>> extensionComparisons = new TreeMap<>();
+        List<String> sourceOnlyExtensions = new ArrayList<>();
+        for (String extension : SyncStateLoader.getExtensionNames(sourceStateFolder))
+        {
+            if (!destinationExtensions.remove(extension))
+            {
+                sourceOnlyExtensions.add(extension);
+            }
+            else
+            {
+                extensionComparisons.put(extension,
+                    compare(extension, "extension", SyncStateLoader.getExtensionFolder(sourceStateFolder, extension), //$NON-NLS-1$
+                        SyncStateLoader.getExtensionFolder(destinationStateFolder, extension)));
+            }
+        }
+        List<String> destinationOnlyExtensions = new ArrayList<>(destinationExtensions);
+
+        List<CompletableFuture<?>> parts = new ArrayList<>(extensionComparisons.values());
+        parts.add(configurationComparison);
+        return CompletableFuture.allOf(parts.toArray(CompletableFuture[]::new))
+            .thenApply(ignored -> new SyncStateDiff(configurationComparison.join(),
+                extensionComparisons.values().stream().map(CompletableFuture::join).toList(), sourceOnlyExtensions,
+                destinationOnlyExtensions));
+    }
+
+    /**
+     * Starts a comparison of two states, extension states are not compared.
+     *
+     * @param name The name of the compared states. Cannot be {@code null}
+     * @param sourceState The source state. Cannot be {@code null}
+     * @param destinationState The destination state. Cannot be {@code null}
+     * @return The future of the differences. Never {@code null}
+     */
+    CompletableFuture<SyncStateDiff> compare(String name, InfobaseSyncState sourceState,
+        InfobaseSyncState destinationState)
+    {
+        Preconditions.checkNotNull(name);
+        Preconditions.checkNotNull(sourceState);
+        Preconditions.checkNotNull(destinationState);
+
+        CompletableFuture<SyncStateDiff.Collector> edtDifferences = CompletableFuture.supplyAsync(() -> {
+            SyncStateDiff.Collector collector = new SyncStateDiff.Collector(ResourceType.EDT);
+            CompactSignatureTable.diff(sourceState.getEdtResourceSignatureTable(),
+                destinationState.getEdtResourceSignatureTable(), collector);
+            return collector;
+        }, executor);
+        CompletableFuture<SyncStateDiff.Collector> platformDifferences = CompletableFuture.supplyAsync(() -> {
+            SyncStateDiff.Collector collector = new SyncStateDiff.Collector(ResourceType.PLATFORM);
+            PlatformVersionTree.diff(sourceState.getPlatformResourceVersionTree(),
+                destinationState.getPlatformResourceVersionTree(), collector);
+            return collector;
+        }, executor);
+
+        return edtDifferences.thenCombine(platformDifferences, (edt, platform) -> new SyncStateDiff(name,
+            sourceState, destinationState, edt.getDifferences(), platform.getDifferences()));
+    }
+
+    /*
+     * Compares states of a configuration or of an extension by their summaries if both of them are valid, otherwise
+     * loads and compares the states
+     */
+    private CompletableFuture<SyncStateDiff> compare(String name, String kind, Path sourceFolder,
+        Path destinationFolder)
+    {
+        return CompletableFuture.supplyAsync(() -> {
+            SyncStateSummary sourceSummary = SyncStateSummary.open(sourceFolder);
+            SyncStateSummary destinationSummary = sourceSummary != null ? SyncStateSummary.open(destinationFolder) : null;
+            if (destinationSummary == null && sourceSummary != null)
+            {
+                sourceSummary.close();
+            }
+            return destinationSummary != null ? new SyncStateSummary[] { sourceSummary, destinationSummary } : null;
+        }, executor).thenCompose(summaries -> {
+            if (summaries == null)
+            {
+                return loadAndCompare(name, kind, sourceFolder, destinationFolder);
+            }
+            return compare(name, summaries[0], sourceFolder, summaries[1], destinationFolder).whenComplete(
+                (diff, error) -> {
+                    summaries[0].close();
+                    summaries[1].close();
+                });
+        });
+    }
+
+    private CompletableFuture<SyncStateDiff> compare(String name, SyncStateSummary sourceSummary, Path sourceFolder,
+        SyncStateSummary destinationSummary, Path destinationFolder)
+    {
+        CompletableFuture<List<SyncStateDiff.Difference>> edtDifferences = CompletableFuture.supplyAsync(() -> {
+            SyncStateDiff.Collector collector = new SyncStateDiff.Collector(ResourceType.EDT);
+            SyncStateSummary.diff(sourceSummary, destinationSummary, collector);
+            return collector.getDifferences();
+        }, executor);
+
+        CompletableFuture<List<SyncStateDiff.Difference>> platformDifferences;
+        if (sourceSummary.isPlatformEqual(destinationSummary))
+        {
+            platformDifferences = CompletableFuture.completedFuture(List.of());
+        }
+        else
+        {
+            CompletableFuture<PlatformVersionTree> sourceVersions =
+                CompletableFuture.supplyAsync(() -> loadPlatformVersions(sourceFolder), executor);
+            CompletableFuture<PlatformVersionTree> destinationVersions =
+                CompletableFuture.supplyAsync(() -> loadPlatformVersions(destinationFolder), executor);
+            platformDifferences = sourceVersions.thenCombine(destinationVersions, (source, destination) -> {
+                SyncStateDiff.Collector collector = new SyncStateDiff.Collector(ResourceType.PLATFORM);
+                PlatformVersionTree.diff(source, destination, collector);
+                return collector.getDifferences();
+            });
+        }
+
+        return edtDifferences.thenCombine(platformDifferences,
+            (edt, platform) -> new SyncStateDiff(name, sourceSummary.getConfigurationUUID(),
+                destinationSummary.getConfigurationUUID(), sourceSummary.getGenerationId(),
+                destinationSummary.getGenerationId(), edt, platform));
+    }
+
+    private CompletableFuture<SyncStateDiff> loadAndCompare(String name, String kind, Path sourceFolder,
+        Path destinationFolder)
+    {
+        String stateName = CONFIGURATION_STATE_NAME.equals(name) ? null : name;
+        CompletableFuture<InfobaseSyncState> sourceState = CompletableFuture.supplyAsync(() -> SyncStateLoader
+            .loadSingleState(sourceFolder, kind, stateName != null ? stateName : sourceFolder.toString()), executor);
+        CompletableFuture<InfobaseSyncState> destinationState =
+            CompletableFuture.supplyAsync(() -> SyncStateLoader.loadSingleState(destinationFolder, kind,
+                stateName != null ? stateName : destinationFolder.toString()), executor);
+        return sourceState.thenCombine(destinationState, (source, destination) -> {
+            if (source == null || destination == null)
+            {
+                throw new IllegalStateException(MessageFormat.format("Sync. state {0} cannot be loaded", //$NON-NLS-1$
+                    source == null ? sourceFolder : destinationFolder));
+            }
+            return compare(name, source, destination);
+        }).thenCompose(Function.identity());
+    }
+
+    private static PlatformVersionTree loadPlatformVersions(Path stateFolder)
+    {
+        Path cdiFile = stateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        return Files.exists(cdiFile) ? PlatformVersionTree.of(ConfigDumpInfoCache.load(cdiFile).versions())
+            : PlatformVersionTree.empty();
+    }
+
+    @Override
+    public void close()
+    {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,269 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.stream.Stream;
+
+/**
+ * Differences between two IB synchronization states (a source and a destination one) of a configuration or of an
+ * extension.<br>
+ *
+ * Resource differences are ordered: EDT resources go first, 1C:Enterprise resources follow, each group is sorted by
+ * resource keys. Differences of a configuration state also hold the differences of its extension states sorted by
+ * extension names and the names of extensions present in one of the states only.
+ *
+ * @author Alexander Tretyakevich
+ */
+public final class SyncStateDiff
+{
+    /**
+     * Type of a compared resource
+     */
+    public enum ResourceType
+    {
+        /**
+         * 1C:EDT project resource, the key is a resource relative path and values are hex encoded content signatures
+         */
+        EDT,
+        /**
+         * 1C:Enterprise metadata element, the key is a metadata element name and values are versions as deemed by
+         * platform
+         */
+        PLATFORM
+    }
+
+    /**
+     * Kind of a difference
+     */
+    public enum Kind
+    {
+        /**
+         * The resource is present in the source state only
+         */
+        SOURCE_ONLY,
+        /**
+         * The resource is present in the destination state only
+         */
+        DESTINATION_ONLY,
+        /**
+         * The resource is present in both states with different values
+         */
+        CHANGED
+    }
+
+    /**
+     * Difference of a resource
+     *
+     * @param resourceType The type of the resource. Never {@code null}
+     * @param kind The kind of the difference. Never {@code null}
+     * @param key The key of the resource. Never {@code null}
+     * @param sourceValue The value in the source state. {@code null} for {@link Kind#DESTINATION_ONLY}
+     * @param destinationValue The value in the destination state. {@code null} for {@link Kind#SOURCE_ONLY}
+     */
+    public record Difference(ResourceType resourceType, Kind kind, String key, String sourceValue,
+        String destinationValue)
+    {
+        // Left empty intentionally
+    }
+
+    /**
+     * Receiver of differences found by a merge join of two sorted sets of resources
+     */
+    @FunctionalInterface
+    interface Sink
+    {
+        void accept(Kind kind, String key, String sourceValue, String destinationValue);
+    }
+
+    private final String name;
+    private final String sourceConfigurationUUID;
+    private final String destinationConfigurationUUID;
+    private final String sourceGenerationId;
+    private final String destinationGenerationId;
+    private final List<Difference> edtDifferences;
+    private final List<Difference> platformDifferences;
+    private final List<SyncStateDiff> extensionDifferences;
+    private final List<String> sourceOnlyExtensions;
+    private final List<String> destinationOnlyExtensions;
+
+    SyncStateDiff(String name, InfobaseSyncState sourceState, InfobaseSyncState destinationState,
+        List<Difference> edtDifferences, List<Difference> platformDifferences)
+    {
+        this(name, sourceState.getConfigurationUUID(), destinationState.getConfigurationUUID(),
+            sourceState.getGenerationId(), destinationState.getGenerationId(), edtDifferences, platformDifferences);
+    }
+
+    SyncStateDiff(String name, String sourceConfigurationUUID, String destinationConfigurationUUID,
+        String sourceGenerationId, String destinationGenerationId, List<Difference> edtDifferences,
+        List<Difference> platformDifferences)
+    {
+        this.name = name;
+        this.sourceConfigurationUUID = sourceConfigurationUUID;
+        this.destinationConfigurationUUID = destinationConfigurationUUID;
+        this.sourceGenerationId = sourceGenerationId;
+        this.destinationGenerationId = destinationGenerationId;
+        this.edtDifferences = Collections.unmodifiableList(edtDifferences);
+        this.platformDifferences = Collections.unmodifiableList(platformDifferences);
+        this.extensionDifferences = List.of();
+        this.sourceOnlyExtensions = List.of();
+        this.destinationOnlyExtensions = List.of();
+    }
+
+    /*
+     * Constructs differences of a configuration state supplemented with differences of its extension states
+     */
+    SyncStateDiff(SyncStateDiff configurationDifferences, List<SyncStateDiff> extensionDifferences,
+        List<String> sourceOnlyExtensions, List<String> destinationOnlyExtensions)
+    {
+        this.name = configurationDifferences.name;
+        this.sourceConfigurationUUID = configurationDifferences.sourceConfigurationUUID;
+        this.destinationConfigurationUUID = configurationDifferences.destinationConfigurationUUID;
+        this.sourceGenerationId = configurationDifferences.sourceGenerationId;
+        this.destinationGenerationId = configurationDifferences.destinationGenerationId;
+        this.edtDifferences = configurationDifferences.edtDifferences;
+        this.platformDifferences = configurationDifferences.platformDifferences;
+        this.extensionDifferences = Collections.unmodifiableList(extensionDifferences);
+        this.sourceOnlyExtensions = Collections.unmodifiableList(sourceOnlyExtensions);
+        this.destinationOnlyExtensions = Collections.unmodifiableList(destinationOnlyExtensions);
+    }
+
+    /**
+     * @return The name of the compared state: "Configuration" or an extension name. Never {@code null}
+     */
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * @return The configuration UUID of the source state
+     */
+    public String getSourceConfigurationUUID()
+    {
+        return sourceConfigurationUUID;
+    }
+
+    /**
+     * @return The configuration UUID of the destination state
+     */
+    public String getDestinationConfigurationUUID()
+    {
+        return destinationConfigurationUUID;
+    }
+
+    /**
+     * @return {@code true} if the states have different configuration UUIDs
+     */
+    public boolean isConfigurationUUIDChanged()
+    {
+        return !Objects.equals(sourceConfigurationUUID, destinationConfigurationUUID);
+    }
+
+    /**
+     * @return The global generation identifier of the source state
+     */
+    public String getSourceGenerationId()
+    {
+        return sourceGenerationId;
+    }
+
+    /**
+     * @return The global generation identifier of the destination state
+     */
+    public String getDestinationGenerationId()
+    {
+        return destinationGenerationId;
+    }
+
+    /**
+     * @return {@code true} if the states have different global generation identifiers
+     */
+    public boolean isGenerationIdChanged()
+    {
+        return !Objects.equals(sourceGenerationId, destinationGenerationId);
+    }
+
+    /**
+     * @return The ordered stream of all resource differences. Never {@code null}
+     */
+    public Stream<Difference> differences()
+    {
+        return Stream.concat(edtDifferences.stream(), platformDifferences.stream());
+    }
+
+    /**
+     * @param resourceType The type of resources. Cannot be {@code null}
+     * @return Unmodifiable list of differences of resources of a given type sorted by their keys. Never {@code null}
+     */
+    public List<Difference> getDifferences(ResourceType resourceType)
+    {
+        return resourceType == ResourceType.EDT ? edtDifferences : platformDifferences;
+    }
+
+    /**
+     * @return Unmodifiable list of differences of extension states present in both states sorted by extension names.
+     * Never {@code null}
+     */
+    public List<SyncStateDiff> getExtensionDifferences()
+    {
+        return extensionDifferences;
+    }
+
+    /**
+     * @return Unmodifiable sorted list of names of extensions present in the source state only. Never {@code null}
+     */
+    public List<String> getSourceOnlyExtensions()
+    {
+        return sourceOnlyExtensions;
+    }
+
+    /**
+     * @return Unmodifiable sorted list of names of extensions present in the destination state only. Never
+     * {@code null}
+     */
+    public List<String> getDestinationOnlyExtensions()
+    {
+        return destinationOnlyExtensions;
+    }
+
+    /**
+     * @return {@code true} if the states including their extension states are equal
+     */
+    public boolean isEmpty()
+    {
+        return !isConfigurationUUIDChanged() && !isGenerationIdChanged() && edtDifferences.isEmpty()
+            && platformDifferences.isEmpty() && sourceOnlyExtensions.isEmpty() && destinationOnlyExtensions.isEmpty()
+            && extensionDifferences.stream().allMatch(SyncStateDiff::isEmpty);
+    }
+
+    /*
+     * Collects differences of resources of one type
+     */
+    static final class Collector
+        implements Sink
+    {
+        private final ResourceType resourceType;
+        private final List<Difference> differences = new ArrayList<>();
+
+        Collector(ResourceType resourceType)
+        {
+            this.resourceType = resourceType;
+        }
+
+        @Override
+        public void accept(Kind kind, String key, String sourceValue, String destinationValue)
+        {
+            differences.add(new Difference(resourceType, kind, key, sourceValue, destinationValue));
+        }
+
+        List<Difference> getDifferences()
+        {
+            return differences;
+        }
+    }
+}
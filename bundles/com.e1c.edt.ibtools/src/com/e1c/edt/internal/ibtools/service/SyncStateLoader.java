@@ -0,0 +1,118 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.text.MessageFormat;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
+
+import com._1c.g5.v8.dt.platform.services.core.infobases.sync.IConfigDumpInfoStore;
+import com.e1c.edt.internal.ibtools.service.EdtIBSynchronizationStateManager.ConfigDumpParseResult;
+
+/**
+ * Loads IB synchronization states from their folders. A configuration state and every extension state
+ * ('ext/&lt;name&gt;') are loaded separately, so callers may load and compare them concurrently.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateLoader
+{
+    private SyncStateLoader()
+    {
+        // Utility class
+    }
+
+    /**
+     * Lists extension states of a synchronization state
+     *
+     * @param syncStateFolder The folder of the state. Cannot be {@code null}
+     * @return The sorted set of names of extensions having a state folder. Never {@code null}
+     */
+    static SortedSet<String> getExtensionNames(Path syncStateFolder)
+    {
+        SortedSet<String> extensionNames = new TreeSet<>();
+        String[] subdirs =
+            syncStateFolder.resolve(EdtIBSynchronizationStateManager.EXTENSION_SYNC_STATE_HOLDER).toFile().list();
+        if (subdirs != null)
+        {
+            for (String extensionName : subdirs)
+            {
+                File extensionDir = getExtensionFolder(syncStateFolder, extensionName).toFile();
+                if (extensionDir.isDirectory())
+                {
+                    extensionNames.add(extensionName);
+                }
+            }
+        }
+        return extensionNames;
+    }
+
+    /**
+     * @param syncStateFolder The folder of a synchronization state. Cannot be {@code null}
+     * @param extensionName The name of an extension. Cannot be {@code null}
+     * @return The folder of the state of the extension. Never {@code null}
+     */
+    static Path getExtensionFolder(Path syncStateFolder, String extensionName)
+    {
+        return syncStateFolder.resolve(EdtIBSynchronizationStateManager.EXTENSION_SYNC_STATE_HOLDER)
+            .resolve(extensionName);
+    }
+
+    /**
+     * Loads a state of a configuration or an extension without its nested states.
+     *
+     * @param stateFolder The folder of the state. Cannot be {@code null}
+     * @param kind The kind of the state for messages: "configuration" or "extension". Cannot be {@code null}
+     * @param name The name of the state for messages. Cannot be {@code null}
+     * @return The loaded state or {@code null} if its index is unreadable
+     */
+    static InfobaseSyncState loadSingleState(Path stateFolder, String kind, String name)
+    {
+        long timestamp = 0;
+        String generationId = null;
+        String configurationId = null;
+        Map<String, byte[]> edtSignatures = null;
+
+        Path storePath = stateFolder.resolve(EdtIBSynchronizationStateManager.INDEX_FILE);
+        if (!Files.exists(storePath))
+        {
+            System.out.println(MessageFormat.format("''index.idx'' file is absent for {0} state {1}", kind, name)); //$NON-NLS-1$
+        }
+        else
+        {
+            try
+            {
+                SyncIndexReader index = SyncIndexReader.read(storePath);
+                timestamp = index.getTimestamp();
+                edtSignatures = index.asMap();
+                generationId = index.getGenerationId();
+                configurationId = index.getConfigurationUUID();
+            }
+            catch (Exception e)
+            {
+                e.printStackTrace(System.out);
+                return null;
+            }
+        }
+
+        ConfigDumpParseResult platformResourceVersions = null;
+        Path cdiPath = stateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        if (!Files.exists(cdiPath))
+        {
+            System.out.println(
+                MessageFormat.format("''ConfigDumpInfo.xml'' file is absent for {0} state {1}", kind, name)); //$NON-NLS-1$
+        }
+        else
+        {
+            platformResourceVersions = EdtIBSynchronizationStateManager.parseConfigDump(cdiPath);
+        }
+
+        return new InfobaseSyncState(timestamp, configurationId, edtSignatures,
+            platformResourceVersions != null ? platformResourceVersions.versions() : null, generationId);
+    }
+}
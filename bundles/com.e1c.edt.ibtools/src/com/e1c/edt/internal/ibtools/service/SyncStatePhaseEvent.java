@@ -0,0 +1,44 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import jdk.jfr.Category;
+import jdk.jfr.DataAmount;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * JFR event of a phase of IB synchronization state generation, see {@link GenerationStats}. The duration of the event
+ * is the wall time of the phase. Events cost nothing unless a recording is running.
+ *
+ * @author Alexander Tretyakevich
+ */
+@Name("com.e1c.edt.ibtools.SyncStatePhase")
+@Label("Sync. State Generation Phase")
+@Category({ "1C:EDT", "IB Sync. State" })
+@Description("A phase of IB synchronization state generation")
+@StackTrace(false)
+final class SyncStatePhaseEvent
+    extends jdk.jfr.Event
+{
+    @Label("Project")
+    String project;
+
+    @Label("Phase")
+    String phase;
+
+    @Label("Files")
+    long files;
+
+    @Label("Bytes")
+    @DataAmount
+    long bytes;
+
+    @Label("Allocated")
+    @Description("Bytes allocated by all threads of the process during the phase")
+    @DataAmount
+    long allocated;
+}
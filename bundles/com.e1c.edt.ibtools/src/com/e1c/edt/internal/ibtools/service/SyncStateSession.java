@@ -0,0 +1,90 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.nio.file.Path;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Long-living context of IB synchronization state operations for a server process serving many requests.<br>
+ *
+ * Hashing workers and comparison workers are started once and shared by all concurrent requests. Signatures of
+ * project resources are kept in memory between requests, so unchanged resources of a project are not re-hashed by
+ * subsequent generations of its states.
+ *
+ * @author Alexander Tretyakevich
+ */
+public final class SyncStateSession
+    implements AutoCloseable
+{
+    private final GenerationSettings settings;
+    private final SignatureCollector collector;
+    private final SyncStateComparator comparator;
+    private final Map<String, SignatureCache> signatureCaches = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a session and starts its workers
+     *
+     * @param settings Generation settings of all requests of the session, the signature cache file is not used, the
+     * blob signature cache file is saved when the session is closed. Cannot be {@code null}
+     */
+    public SyncStateSession(GenerationSettings settings)
+    {
+        this.settings = Preconditions.checkNotNull(settings);
+        this.collector = new SignatureCollector(settings);
+        this.comparator = new SyncStateComparator();
+    }
+
+    /**
+     * Gets generation settings of the session
+     *
+     * @return The settings. Never {@code null}
+     */
+    public GenerationSettings getSettings()
+    {
+        return settings;
+    }
+
+    SignatureCollector getCollector()
+    {
+        return collector;
+    }
+
+    SyncStateComparator getComparator()
+    {
+        return comparator;
+    }
+
+    /*
+     * Starts a signature cache of a project run on top of the records of its previous run
+     */
+    SignatureCache openSignatureCache(Path sourceProjectFolder)
+    {
+        return SignatureCache.inMemory(sourceProjectFolder, signatureCaches.get(getProjectKey(sourceProjectFolder)));
+    }
+
+    /*
+     * Keeps the signature cache of a successful run of a project for the next one
+     */
+    void keepSignatureCache(Path sourceProjectFolder, SignatureCache cache)
+    {
+        signatureCaches.put(getProjectKey(sourceProjectFolder), cache);
+    }
+
+    @Override
+    public void close()
+    {
+        collector.close();
+        comparator.close();
+        signatureCaches.clear();
+    }
+
+    private static String getProjectKey(Path sourceProjectFolder)
+    {
+        return sourceProjectFolder.toAbsolutePath().normalize().toString();
+    }
+}
@@ -0,0 +1,767 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import com._1c.g5.v8.dt.platform.services.core.infobases.sync.IConfigDumpInfoStore;
+import com.google.common.base.Preconditions;
+
+/**
+ * Merkle tree summary of a sync. state ('index.mrk').<br>
+ *
+ * The summary is kept next to 'index.idx' and holds a hash tree of EDT resource signatures aggregated per folder
+ * (the hash of a folder is the hash of names and hashes of its direct children) and a root hash of platform resource
+ * versions. Two states are compared by their root hashes first and only the folders having different hashes are
+ * descended into, so equal states are compared in a constant time and a few changes cost a few nodes per folder
+ * level. Nodes are read from the file on demand.<br>
+ *
+ * Children of a folder are ordered by their names with a '/' appended to folder names, so a depth-first traversal
+ * visits resources in the order of their relative paths, the same order the index is compared in.<br>
+ *
+ * The summary is valid as long as the index has the same timestamp and size and ConfigDumpInfo.xml has the same size
+ * and modification time. When only the modification time of ConfigDumpInfo.xml differs its digest is compared and the
+ * summary is re-stamped. The summary is an optimization only: it is written on a best-effort basis and a missing or
+ * stale summary just leads to the comparison of loaded states.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateSummary
+    implements AutoCloseable
+{
+    /**
+     * The name of the summary file
+     */
+    static final String SUMMARY_FILE = "index.mrk"; //$NON-NLS-1$
+
+    private static final int MAGIC = 0x45534D31; // "ESM1"
+    private static final int VERSION = 1;
+    private static final long UNTRUSTED_MODIFICATION_TIME = Long.MIN_VALUE;
+    private static final long NO_CONFIG_DUMP_INFO = -1;
+    private static final long RACY_INTERVAL_NANOS = TimeUnit.SECONDS.toNanos(2);
+    private static final int CDI_MODIFIED_POSITION = 32;
+    private static final byte DIRECTORY = 1;
+    private static final byte SEPARATOR = '/';
+
+    private final FileChannel channel;
+    private final String generationId;
+    private final String configurationUUID;
+    private final byte[] edtRootHash;
+    private final byte[] platformRootHash;
+    private final long bodyStart;
+    private final long rootOffset;
+
+    private SyncStateSummary(FileChannel channel, String generationId, String configurationUUID, byte[] edtRootHash,
+        byte[] platformRootHash, long bodyStart, long rootOffset)
+    {
+        this.channel = channel;
+        this.generationId = generationId;
+        this.configurationUUID = configurationUUID;
+        this.edtRootHash = edtRootHash;
+        this.platformRootHash = platformRootHash;
+        this.bodyStart = bodyStart;
+        this.rootOffset = rootOffset;
+    }
+
+    /**
+     * Writes a summary of a sync. state whose index has just been written. Failures are reported and ignored.
+     *
+     * @param stateFolder The folder of the state. Cannot be {@code null}
+     * @param edtSignatures Signatures mapped to resource relative paths as written to the index. Cannot be
+     * {@code null}
+     * @param generationId The global generation identifier
+     * @param configurationUUID The configuration UUID
+     * @param platformVersions Versions of ConfigDumpInfo.xml of the state. {@code null} if there is no such file
+     * @param configDumpInfoDigest The SHA-256 digest of ConfigDumpInfo.xml of the state. {@code null} if there is no
+     * such file
+     */
+    static void write(Path stateFolder, Map<String, byte[]> edtSignatures, String generationId,
+        String configurationUUID, Map<String, String> platformVersions, byte[] configDumpInfoDigest)
+    {
+        write(stateFolder, prepare(edtSignatures, generationId, configurationUUID, platformVersions,
+            configDumpInfoDigest));
+    }
+
+    /**
+     * Builds the content of a summary once, so it can be written for several states with the same content.
+     *
+     * @param edtSignatures Signatures mapped to resource relative paths as written to the index. Cannot be
+     * {@code null}
+     * @param generationId The global generation identifier
+     * @param configurationUUID The configuration UUID
+     * @param platformVersions Versions of ConfigDumpInfo.xml of the states. {@code null} if there is no such file
+     * @param configDumpInfoDigest The SHA-256 digest of ConfigDumpInfo.xml of the states. {@code null} if there is no
+     * such file
+     * @return The content of a summary. Never {@code null}
+     */
+    static Content prepare(Map<String, byte[]> edtSignatures, String generationId, String configurationUUID,
+        Map<String, String> platformVersions, byte[] configDumpInfoDigest)
+    {
+        Preconditions.checkNotNull(edtSignatures);
+
+        byte[] platformRootHash = hashVersions(platformVersions != null ? platformVersions : Map.of());
+        ByteArrayOutputStream body = new ByteArrayOutputStream();
+        try
+        {
+            NodeEntry root = writeTree(edtSignatures, new DataOutputStream(body), SignatureHasher.newDigest());
+            return new Content(body.toByteArray(), root.hash(), root.childOffset(), platformRootHash,
+                platformVersions != null ? configDumpInfoDigest : null, generationId, configurationUUID);
+        }
+        catch (IOException e)
+        {
+            // Not expected for an in-memory stream
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Writes a summary of a sync. state whose index has just been written. Failures are reported and ignored.
+     *
+     * @param stateFolder The folder of the state. Cannot be {@code null}
+     * @param content The content of the summary. Cannot be {@code null}
+     */
+    static void write(Path stateFolder, Content content)
+    {
+        Preconditions.checkNotNull(stateFolder);
+        Preconditions.checkNotNull(content);
+
+        Path summaryFile = stateFolder.resolve(SUMMARY_FILE);
+        Path tempFile = stateFolder.resolve(SUMMARY_FILE + "." + UUID.randomUUID() + ".tmp"); //$NON-NLS-1$ //$NON-NLS-2$
+        try
+        {
+            long[] indexStamp = readIndexStamp(stateFolder);
+            if (indexStamp == null)
+            {
+                return;
+            }
+
+            long cdiSize = NO_CONFIG_DUMP_INFO;
+            long cdiModified = UNTRUSTED_MODIFICATION_TIME;
+            byte[] cdiDigest = new byte[0];
+            Path cdiFile = stateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+            if (content.configDumpInfoDigest() != null && Files.exists(cdiFile))
+            {
+                BasicFileAttributes attributes = Files.readAttributes(cdiFile, BasicFileAttributes.class);
+                cdiSize = attributes.size();
+                cdiModified = trustedModificationTime(attributes);
+                cdiDigest = content.configDumpInfoDigest();
+            }
+
+            try (DataOutputStream dos = new DataOutputStream(new BufferedOutputStream(
+                Files.newOutputStream(tempFile, StandardOpenOption.CREATE_NEW, StandardOpenOption.WRITE), 1 << 16)))
+            {
+                dos.writeInt(MAGIC);
+                dos.writeInt(VERSION);
+                dos.writeLong(indexStamp[0]);
+                dos.writeLong(indexStamp[1]);
+                dos.writeLong(cdiSize);
+                // Must stay at CDI_MODIFIED_POSITION
+                dos.writeLong(cdiModified);
+                writeBytes(dos, cdiDigest);
+                writeBytes(dos, content.edtRootHash());
+                writeBytes(dos, content.platformRootHash());
+                writeString(dos, content.generationId());
+                writeString(dos, content.configurationUUID());
+                dos.writeInt(content.rootOffset());
+                dos.writeInt(content.body().length);
+                dos.write(content.body());
+            }
+            SyncIndexWriter.publish(tempFile, summaryFile);
+        }
+        catch (IOException e)
+        {
+            System.out.println(MessageFormat.format("''{0}'' cannot be written: {1}", summaryFile, e.getMessage())); //$NON-NLS-1$
+            try
+            {
+                Files.deleteIfExists(tempFile);
+            }
+            catch (IOException ex)
+            {
+                // The original failure is reported
+            }
+        }
+    }
+
+    /**
+     * Opens a summary of a sync. state if it is present and valid for the current content of the state.
+     *
+     * @param stateFolder The folder of the state. Cannot be {@code null}
+     * @return The opened summary which must be closed or {@code null} if the summary is absent or stale
+     */
+    static SyncStateSummary open(Path stateFolder)
+    {
+        Preconditions.checkNotNull(stateFolder);
+
+        Path summaryFile = stateFolder.resolve(SUMMARY_FILE);
+        FileChannel channel = null;
+        try
+        {
+            long[] indexStamp = readIndexStamp(stateFolder);
+            if (indexStamp == null)
+            {
+                return null;
+            }
+            channel = FileChannel.open(summaryFile, StandardOpenOption.READ);
+            ByteBuffer header = ByteBuffer.allocate((int)Math.min(channel.size(), 4096));
+            readFully(channel, header, 0);
+            header.flip();
+
+            if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != indexStamp[0]
+                || header.getLong() != indexStamp[1])
+            {
+                channel.close();
+                return null;
+            }
+            long cdiSize = header.getLong();
+            long cdiModified = header.getLong();
+            byte[] cdiDigest = readBytes(header);
+            byte[] edtRootHash = readBytes(header);
+            byte[] platformRootHash = readBytes(header);
+            String generationId = readString(header);
+            String configurationUUID = readString(header);
+            long rootOffset = header.getInt();
+            long bodySize = header.getInt();
+            long bodyStart = header.position();
+            if (bodyStart + bodySize != channel.size() || rootOffset < 0 || rootOffset >= Math.max(bodySize, 1))
+            {
+                channel.close();
+                return null;
+            }
+
+            if (!isConfigDumpInfoValid(stateFolder, summaryFile, cdiSize, cdiModified, cdiDigest))
+            {
+                platformRootHash = null;
+            }
+            SyncStateSummary summary = new SyncStateSummary(channel, generationId, configurationUUID, edtRootHash,
+                platformRootHash, bodyStart, bodyStart + rootOffset);
+            channel = null;
+            return summary;
+        }
+        catch (NoSuchFileException e)
+        {
+            return null;
+        }
+        catch (IOException | BufferUnderflowException | IndexOutOfBoundsException | NegativeArraySizeException e)
+        {
+            System.out.println(MessageFormat.format("''{0}'' cannot be read: {1}", summaryFile, e.getMessage())); //$NON-NLS-1$
+            return null;
+        }
+        finally
+        {
+            if (channel != null)
+            {
+                try
+                {
+                    channel.close();
+                }
+                catch (IOException e)
+                {
+                    // Nothing to do for a read-only file
+                }
+            }
+        }
+    }
+
+    /**
+     * Reports differences of EDT resource signatures of two states descending only into the folders having
+     * different hashes. Resources are reported in the order of their relative paths with hex encoded signatures as
+     * values.
+     *
+     * @param source The summary of the source state. Cannot be {@code null}
+     * @param destination The summary of the destination state. Cannot be {@code null}
+     * @param sink The receiver of differences. Cannot be {@code null}
+     * @throws UncheckedIOException if a summary cannot be read
+     */
+    static void diff(SyncStateSummary source, SyncStateSummary destination, SyncStateDiff.Sink sink)
+    {
+        Preconditions.checkNotNull(source);
+        Preconditions.checkNotNull(destination);
+        Preconditions.checkNotNull(sink);
+
+        if (Arrays.equals(source.edtRootHash, destination.edtRootHash))
+        {
+            return;
+        }
+        try
+        {
+            diffNodes(source, source.rootOffset, destination, destination.rootOffset, "", sink, HexFormat.of()); //$NON-NLS-1$
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * @return The global generation identifier of the state
+     */
+    String getGenerationId()
+    {
+        return generationId;
+    }
+
+    /**
+     * @return The configuration UUID of the state
+     */
+    String getConfigurationUUID()
+    {
+        return configurationUUID;
+    }
+
+    /**
+     * @param other Another summary. Cannot be {@code null}
+     * @return {@code true} if platform resource versions of both states are known to be equal, {@code false} if they
+     * differ or are not known
+     */
+    boolean isPlatformEqual(SyncStateSummary other)
+    {
+        return platformRootHash != null && Arrays.equals(platformRootHash, other.platformRootHash);
+    }
+
+    @Override
+    public void close()
+    {
+        try
+        {
+            channel.close();
+        }
+        catch (IOException e)
+        {
+            // Nothing to do for a read-only file
+        }
+    }
+
+    /*
+     * Reads the timestamp and the size of the index or returns null if there is no index
+     */
+    private static long[] readIndexStamp(Path stateFolder) throws IOException
+    {
+        Path indexFile = stateFolder.resolve(EdtIBSynchronizationStateManager.INDEX_FILE);
+        try (FileChannel indexChannel = FileChannel.open(indexFile, StandardOpenOption.READ))
+        {
+            ByteBuffer timestamp = ByteBuffer.allocate(Long.BYTES);
+            readFully(indexChannel, timestamp, 0);
+            return new long[] { timestamp.getLong(0), indexChannel.size() };
+        }
+        catch (NoSuchFileException | EOFException e)
+        {
+            return null;
+        }
+    }
+
+    private static boolean isConfigDumpInfoValid(Path stateFolder, Path summaryFile, long cdiSize, long cdiModified,
+        byte[] cdiDigest) throws IOException
+    {
+        Path cdiFile = stateFolder.resolve(IConfigDumpInfoStore.CONFIG_DUMP_INFO);
+        if (cdiSize == NO_CONFIG_DUMP_INFO)
+        {
+            return !Files.exists(cdiFile);
+        }
+
+        BasicFileAttributes attributes;
+        try
+        {
+            attributes = Files.readAttributes(cdiFile, BasicFileAttributes.class);
+        }
+        catch (NoSuchFileException e)
+        {
+            return false;
+        }
+        if (attributes.size() != cdiSize)
+        {
+            return false;
+        }
+        if (cdiModified != UNTRUSTED_MODIFICATION_TIME
+            && cdiModified == attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS))
+        {
+            return true;
+        }
+        if (!Arrays.equals(SignatureHasher.computeSignature(cdiFile, cdiSize), cdiDigest))
+        {
+            return false;
+        }
+
+        long modified = trustedModificationTime(attributes);
+        if (modified != UNTRUSTED_MODIFICATION_TIME)
+        {
+            // Re-stamping in place, a torn stamp is just not trusted next time
+            try (FileChannel channel = FileChannel.open(summaryFile, StandardOpenOption.WRITE))
+            {
+                ByteBuffer stamp = ByteBuffer.allocate(Long.BYTES).putLong(0, modified);
+                channel.write(stamp, CDI_MODIFIED_POSITION);
+            }
+            catch (IOException e)
+            {
+                // The summary is still valid, the digest will be compared next time
+            }
+        }
+        return true;
+    }
+
+    private static long trustedModificationTime(BasicFileAttributes attributes)
+    {
+        long modified = attributes.lastModifiedTime().to(TimeUnit.NANOSECONDS);
+        return modified > TimeUnit.MILLISECONDS.toNanos(System.currentTimeMillis()) - RACY_INTERVAL_NANOS
+            ? UNTRUSTED_MODIFICATION_TIME : modified;
+    }
+
+    /*
+     * Hashes versions in the order of the versions tree, so equal versions give equal hashes regardless of the order
+     * of records in ConfigDumpInfo.xml
+     */
+    private static byte[] hashVersions(Map<String, String> versions)
+    {
+        MessageDigest digest = SignatureHasher.newDigest();
+        ByteBuffer length = ByteBuffer.allocate(Integer.BYTES);
+        for (Entry<String, String> entry : PlatformVersionTree.of(versions).entrySet())
+        {
+            for (String value : new String[] { entry.getKey(), entry.getValue() })
+            {
+                byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+                digest.update(length.putInt(0, bytes.length).array());
+                digest.update(bytes);
+            }
+        }
+        return digest.digest();
+    }
+
+    /*
+     * Writes folder nodes in post-order, so offsets of child nodes are known when their parent is written. Returns
+     * the entry of the root folder.
+     */
+    private static NodeEntry writeTree(Map<String, byte[]> edtSignatures, DataOutputStream output,
+        MessageDigest digest) throws IOException
+    {
+        byte[][] keys = new byte[edtSignatures.size()][];
+        byte[][] values = new byte[edtSignatures.size()][];
+        Integer[] order = new Integer[edtSignatures.size()];
+        int idx = 0;
+        for (Entry<String, byte[]> entry : edtSignatures.entrySet())
+        {
+            keys[idx] = entry.getKey().getBytes(StandardCharsets.UTF_8);
+            values[idx] = entry.getValue();
+            order[idx] = idx;
+            idx++;
+        }
+        Arrays.sort(order, (left, right) -> Arrays.compareUnsigned(keys[left], keys[right]));
+
+        byte[][] sortedKeys = new byte[keys.length][];
+        byte[][] sortedValues = new byte[keys.length][];
+        for (idx = 0; idx < order.length; idx++)
+        {
+            sortedKeys[idx] = keys[order[idx]];
+            sortedValues[idx] = values[order[idx]];
+        }
+        return writeNode(sortedKeys, sortedValues, 0, sortedKeys.length, 0, new byte[0], output, digest);
+    }
+
+    private static NodeEntry writeNode(byte[][] keys, byte[][] values, int from, int to, int prefixLength,
+        byte[] name, DataOutputStream output, MessageDigest digest) throws IOException
+    {
+        List<NodeEntry> children = new ArrayList<>();
+        int idx = from;
+        while (idx < to)
+        {
+            byte[] key = keys[idx];
+            int separator = indexOf(key, SEPARATOR, prefixLength);
+            if (separator < 0)
+            {
+                children.add(new NodeEntry(false, Arrays.copyOfRange(key, prefixLength, key.length), values[idx], -1));
+                idx++;
+                continue;
+            }
+
+            // Resources of a folder are contiguous since '/' is compared as the end of the folder name
+            int end = idx + 1;
+            while (end < to && keys[end].length > separator
+                && Arrays.equals(keys[end], prefixLength, separator + 1, key, prefixLength, separator + 1))
+            {
+                end++;
+            }
+            children.add(writeNode(keys, values, idx, end, separator + 1,
+                Arrays.copyOfRange(key, prefixLength, separator), output, digest));
+            idx = end;
+        }
+
+        int offset = output.size();
+        output.writeInt(children.size());
+        ByteArrayOutputStream node = new ByteArrayOutputStream();
+        DataOutputStream nodeOutput = new DataOutputStream(node);
+        ByteBuffer entryHeader = ByteBuffer.allocate(1 + Integer.BYTES);
+        digest.reset();
+        for (NodeEntry child : children)
+        {
+            byte flags = child.directory() ? DIRECTORY : 0;
+            nodeOutput.writeByte(flags);
+            nodeOutput.writeInt(child.name().length);
+            nodeOutput.write(child.name());
+            nodeOutput.writeByte(child.hash().length);
+            nodeOutput.write(child.hash());
+            // The hash covers everything but the offset
+            digest.update(entryHeader.put(0, flags).putInt(1, child.name().length).array());
+            digest.update(child.name());
+            digest.update((byte)child.hash().length);
+            digest.update(child.hash());
+            if (child.directory())
+            {
+                nodeOutput.writeInt(child.childOffset());
+            }
+        }
+        output.writeInt(node.size());
+        node.writeTo(output);
+        return new NodeEntry(true, name, digest.digest(), offset);
+    }
+
+    private static void diffNodes(SyncStateSummary source, long sourceOffset, SyncStateSummary destination,
+        long destinationOffset, String prefix, SyncStateDiff.Sink sink, HexFormat hex) throws IOException
+    {
+        NodeCursor left = source.new NodeCursor(sourceOffset);
+        NodeCursor right = destination.new NodeCursor(destinationOffset);
+        boolean hasLeft = left.next();
+        boolean hasRight = right.next();
+        while (hasLeft || hasRight)
+        {
+            int comparison = !hasLeft ? 1 : !hasRight ? -1 : left.compareTo(right);
+            if (comparison < 0)
+            {
+                left.report(prefix, SyncStateDiff.Kind.SOURCE_ONLY, sink, hex);
+                hasLeft = left.next();
+            }
+            else if (comparison > 0)
+            {
+                right.report(prefix, SyncStateDiff.Kind.DESTINATION_ONLY, sink, hex);
+                hasRight = right.next();
+            }
+            else
+            {
+                if (!left.hashEquals(right))
+                {
+                    String path = prefix + left.name();
+                    if (left.directory)
+                    {
+                        diffNodes(source, left.childOffset(), destination, right.childOffset(),
+                            path + (char)SEPARATOR, sink, hex);
+                    }
+                    else
+                    {
+                        sink.accept(SyncStateDiff.Kind.CHANGED, path, hex.formatHex(left.hash()),
+                            hex.formatHex(right.hash()));
+                    }
+                }
+                hasLeft = left.next();
+                hasRight = right.next();
+            }
+        }
+    }
+
+    private static int indexOf(byte[] bytes, byte value, int from)
+    {
+        for (int idx = from; idx < bytes.length; idx++)
+        {
+            if (bytes[idx] == value)
+            {
+                return idx;
+            }
+        }
+        return -1;
+    }
+
+    private static void readFully(FileChannel channel, ByteBuffer buffer, long position) throws IOException
+    {
+        long current = position;
+        while (buffer.hasRemaining())
+        {
+            int read = channel.read(buffer, current);
+            if (read < 0)
+            {
+                throw new EOFException();
+            }
+            current += read;
+        }
+    }
+
+    private static void writeBytes(DataOutputStream dos, byte[] value) throws IOException
+    {
+        dos.writeByte(value.length);
+        dos.write(value);
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer)
+    {
+        byte[] bytes = new byte[buffer.get() & 0xFF];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeString(DataOutputStream dos, String value) throws IOException
+    {
+        if (value == null)
+        {
+            dos.writeInt(-1);
+            return;
+        }
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        dos.writeInt(bytes.length);
+        dos.write(bytes);
+    }
+
+    private static String readString(ByteBuffer buffer)
+    {
+        int length = buffer.getInt();
+        if (length == -1)
+        {
+            return null;
+        }
+        byte[] bytes = new byte[length];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Content of a summary independent of the state folder it is written to
+     *
+     * @param body The serialized folder nodes. Never {@code null}
+     * @param edtRootHash The hash of the root folder. Never {@code null}
+     * @param rootOffset The offset of the root folder node in the body
+     * @param platformRootHash The hash of platform resource versions. Never {@code null}
+     * @param configDumpInfoDigest The SHA-256 digest of ConfigDumpInfo.xml or {@code null} if there is no such file
+     * @param generationId The global generation identifier
+     * @param configurationUUID The configuration UUID
+     */
+    record Content(byte[] body, byte[] edtRootHash, int rootOffset, byte[] platformRootHash,
+        byte[] configDumpInfoDigest, String generationId, String configurationUUID)
+    {
+        // Left empty intentionally
+    }
+
+    private record NodeEntry(boolean directory, byte[] name, byte[] hash, int childOffset)
+    {
+        // Left empty intentionally
+    }
+
+    /*
+     * Iterates over the entries of a folder node read from the file as a whole
+     */
+    private final class NodeCursor
+    {
+        private final ByteBuffer node;
+        private int remaining;
+        private boolean directory;
+        private int nameOffset;
+        private int nameLength;
+        private int hashOffset;
+        private int hashLength;
+        private int entryEnd;
+
+        NodeCursor(long offset) throws IOException
+        {
+            ByteBuffer header = ByteBuffer.allocate(2 * Integer.BYTES);
+            readFully(channel, header, offset);
+            this.remaining = header.getInt(0);
+            this.node = ByteBuffer.allocate(header.getInt(Integer.BYTES));
+            readFully(channel, node, offset + header.capacity());
+        }
+
+        boolean next()
+        {
+            if (remaining == 0)
+            {
+                return false;
+            }
+            remaining--;
+            int position = entryEnd;
+            directory = node.get(position) == DIRECTORY;
+            nameLength = node.getInt(position + 1);
+            nameOffset = position + 1 + Integer.BYTES;
+            hashLength = node.get(nameOffset + nameLength) & 0xFF;
+            hashOffset = nameOffset + nameLength + 1;
+            entryEnd = hashOffset + hashLength + (directory ? Integer.BYTES : 0);
+            return true;
+        }
+
+        /*
+         * Compares names with a '/' appended to folder names
+         */
+        int compareTo(NodeCursor other)
+        {
+            int length = nameLength + (directory ? 1 : 0);
+            int otherLength = other.nameLength + (other.directory ? 1 : 0);
+            for (int idx = 0; idx < Math.min(length, otherLength); idx++)
+            {
+                int value = idx < nameLength ? node.get(nameOffset + idx) & 0xFF : SEPARATOR;
+                int otherValue = idx < other.nameLength ? other.node.get(other.nameOffset + idx) & 0xFF : SEPARATOR;
+                if (value != otherValue)
+                {
+                    return value - otherValue;
+                }
+            }
+            return length - otherLength;
+        }
+
+        boolean hashEquals(NodeCursor other)
+        {
+            return hashLength == other.hashLength
+                && node.slice(hashOffset, hashLength).equals(other.node.slice(other.hashOffset, other.hashLength));
+        }
+
+        String name()
+        {
+            return new String(node.array(), nameOffset, nameLength, StandardCharsets.UTF_8);
+        }
+
+        byte[] hash()
+        {
+            return Arrays.copyOfRange(node.array(), hashOffset, hashOffset + hashLength);
+        }
+
+        long childOffset()
+        {
+            return node.getInt(hashOffset + hashLength) + bodyStart;
+        }
+
+        /*
+         * Reports a resource or all resources of a folder present in one of the states only
+         */
+        void report(String prefix, SyncStateDiff.Kind kind, SyncStateDiff.Sink sink, HexFormat hex) throws IOException
+        {
+            String path = prefix + name();
+            if (!directory)
+            {
+                String value = hex.formatHex(hash());
+                sink.accept(kind, path, kind == SyncStateDiff.Kind.SOURCE_ONLY ? value : null,
+                    kind == SyncStateDiff.Kind.SOURCE_ONLY ? null : value);
+                return;
+            }
+            NodeCursor child = new NodeCursor(childOffset());
+            while (child.next())
+            {
+                child.report(path + (char)SEPARATOR, kind, sink, hex);
+            }
+        }
+    }
+}
@@ -0,0 +1,279 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.Difference;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.Kind;
+import com.e1c.edt.internal.ibtools.service.SyncStateDiff.ResourceType;
+import com.google.common.base.Preconditions;
+
+/**
+ * Verifies that the resources of a project still match the index ('index.idx') of a sync. state without generating
+ * a new state. The checks go from the cheapest to the most expensive one:
+ * <ol>
+ * <li>the set of resource paths of the project is matched against the index while the project is walked</li>
+ * <li>resources are checked by their sizes: an empty resource has a known signature, a resource found in the
+ * signature cache with the same size and modification time has a known signature, a resource whose size differs from
+ * the size its indexed signature was computed for (per the signature cache) is changed and is hashed right away only
+ * to report its actual signature</li>
+ * <li>the rest of the resources are hashed in parallel, the smallest ones first</li>
+ * </ol>
+ * When only the fact of a difference matters the verification stops at the first difference found, otherwise all of
+ * the differences are reported. The index is the source and the project is the destination of the differences.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class SyncStateVerifier
+{
+    private static final byte[] EMPTY_SIGNATURE = SignatureHasher.newDigest().digest();
+
+    private final Path sourceProjectFolder;
+    private final SyncIndexReader index;
+    private final SignatureCache cache;
+    private final boolean stopAtFirstDifference;
+    private final int threads;
+
+    private final ConcurrentLinkedQueue<Difference> differences = new ConcurrentLinkedQueue<>();
+    private final AtomicBoolean stopped = new AtomicBoolean();
+    private final AtomicInteger hashed = new AtomicInteger();
+
+    /**
+     * Constructs a verifier
+     *
+     * @param sourceProjectFolder The project folder. Cannot be {@code null}
+     * @param index The index of the state. Cannot be {@code null}
+     * @param cache The signature cache of the project, it is only read. May be {@code null}
+     * @param stopAtFirstDifference Whether the verification should stop at the first difference
+     * @param threads The number of hashing workers, positive
+     */
+    SyncStateVerifier(Path sourceProjectFolder, SyncIndexReader index, SignatureCache cache,
+        boolean stopAtFirstDifference, int threads)
+    {
+        this.sourceProjectFolder = Preconditions.checkNotNull(sourceProjectFolder);
+        this.index = Preconditions.checkNotNull(index);
+        this.cache = cache;
+        this.stopAtFirstDifference = stopAtFirstDifference;
+        this.threads = threads;
+    }
+
+    /**
+     * Verifies the project against the index
+     *
+     * @return Differences of EDT resources ordered by their paths, a single one if the verification is stopped at the
+     * first difference. Never {@code null}
+     */
+    List<Difference> verify()
+    {
+        long start = System.nanoTime();
+        // Step 1: Match the paths while walking, resources to hash are collected along the way
+        List<Candidate> candidates = walk();
+        if (!stopped.get())
+        {
+            // Step 2: Check the sizes
+            candidates = prefilter(candidates);
+        }
+        if (!stopped.get() && !candidates.isEmpty())
+        {
+            // Step 3: Hash the rest
+            hash(candidates);
+        }
+
+        List<Difference> result = new ArrayList<>(differences);
+        result.sort(Comparator.comparing(Difference::key));
+        if (stopAtFirstDifference && result.size() > 1)
+        {
+            result = List.of(result.get(0));
+        }
+        System.out.println(MessageFormat.format("Sync. state verified{0}: {1} resources indexed, {2} hashed, " //$NON-NLS-1$
+            + "{3} differences in {4} ms", stopped.get() ? " up to the first difference" : "", index.size(), //$NON-NLS-1$ //$NON-NLS-2$
+            hashed.get(), result.size(), TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+        return result;
+    }
+
+    private List<Candidate> walk()
+    {
+        List<Candidate> candidates = new ArrayList<>();
+        try
+        {
+            Files.walkFileTree(sourceProjectFolder.resolve(EdtIBSynchronizationStateManager.SOURCE_FOLDER),
+                new SimpleFileVisitor<Path>()
+                {
+                    @Override
+                    public FileVisitResult visitFile(Path path, BasicFileAttributes attrs)
+                    {
+                        String key = EdtIBSynchronizationStateManager
+                            .normalizePath(sourceProjectFolder.relativize(path).toString());
+                        byte[] signature = index.getSignature(key);
+                        if (signature == null)
+                        {
+                            report(Kind.DESTINATION_ONLY, key, null, null);
+                        }
+                        else
+                        {
+                            candidates.add(new Candidate(key, path, attrs, signature));
+                        }
+                        return stopped.get() ? FileVisitResult.TERMINATE : FileVisitResult.CONTINUE;
+                    }
+                });
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+
+        // Every indexed resource found is a distinct candidate, so missing ones are looked for only if there are any
+        if (!stopped.get() && candidates.size() < index.size())
+        {
+            Set<String> found = new HashSet<>(candidates.size() * 4 / 3 + 1);
+            candidates.forEach(candidate -> found.add(candidate.key()));
+            for (String key : index.asMap().keySet())
+            {
+                if (!found.contains(key))
+                {
+                    report(Kind.SOURCE_ONLY, key, HexFormat.of().formatHex(index.getSignature(key)), null);
+                    if (stopped.get())
+                    {
+                        break;
+                    }
+                }
+            }
+        }
+        return candidates;
+    }
+
+    /*
+     * Checks the resources whose signatures are known without reading them, returns the rest
+     */
+    private List<Candidate> prefilter(List<Candidate> candidates)
+    {
+        List<Candidate> rest = new ArrayList<>(candidates.size());
+        for (Candidate candidate : candidates)
+        {
+            long size = candidate.attributes().size();
+            byte[] actual = size == 0 ? EMPTY_SIGNATURE
+                : cache != null ? cache.get(candidate.key(), candidate.attributes()) : null;
+            if (actual != null)
+            {
+                check(candidate, actual);
+            }
+            else if (cache != null && isResized(candidate))
+            {
+                // The resource is known to be changed, it is hashed ahead of the rest only to report its signature
+                report(Kind.CHANGED, candidate.key(), HexFormat.of().formatHex(candidate.signature()),
+                    HexFormat.of().formatHex(SignatureHasher.computeSignature(candidate.path(), size)));
+                hashed.incrementAndGet();
+            }
+            else
+            {
+                rest.add(candidate);
+            }
+            if (stopped.get())
+            {
+                break;
+            }
+        }
+        return rest;
+    }
+
+    /*
+     * Whether the indexed signature is known to be computed for another size of the resource
+     */
+    private boolean isResized(Candidate candidate)
+    {
+        long indexedSize = cache.getSize(candidate.key(), candidate.signature());
+        return indexedSize >= 0 && indexedSize != candidate.attributes().size();
+    }
+
+    private void hash(List<Candidate> candidates)
+    {
+        // The smallest resources first: more resources are checked per unit of time until the first difference
+        candidates.sort(Comparator.comparingLong(candidate -> candidate.attributes().size()));
+
+        AtomicInteger cursor = new AtomicInteger();
+        AtomicInteger counter = new AtomicInteger();
+        int workers = Math.min(threads, candidates.size());
+        ExecutorService executor = Executors.newFixedThreadPool(workers, runnable -> {
+            Thread thread = new Thread(runnable, "ib-sync-state-verifier-" + counter.incrementAndGet()); //$NON-NLS-1$
+            thread.setDaemon(true);
+            return thread;
+        });
+        try
+        {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[workers];
+            for (int idx = 0; idx < workers; idx++)
+            {
+                futures[idx] = CompletableFuture.runAsync(() -> {
+                    int next;
+                    while (!stopped.get() && (next = cursor.getAndIncrement()) < candidates.size())
+                    {
+                        Candidate candidate = candidates.get(next);
+                        check(candidate,
+                            SignatureHasher.computeSignature(candidate.path(), candidate.attributes().size()));
+                        hashed.incrementAndGet();
+                    }
+                }, executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+        catch (CompletionException e)
+        {
+            if (e.getCause() instanceof RuntimeException cause)
+            {
+                throw cause;
+            }
+            throw e;
+        }
+        finally
+        {
+            executor.shutdownNow();
+        }
+    }
+
+    private void check(Candidate candidate, byte[] actual)
+    {
+        if (!Arrays.equals(candidate.signature(), actual))
+        {
+            report(Kind.CHANGED, candidate.key(), HexFormat.of().formatHex(candidate.signature()),
+                HexFormat.of().formatHex(actual));
+        }
+    }
+
+    private void report(Kind kind, String key, String indexedValue, String actualValue)
+    {
+        differences.add(new Difference(ResourceType.EDT, kind, key, indexedValue, actualValue));
+        if (stopAtFirstDifference)
+        {
+            stopped.set(true);
+        }
+    }
+
+    private record Candidate(String key, Path path, BasicFileAttributes attributes, byte[] signature)
+    {
+        // Left empty intentionally
+    }
+}
@@ -0,0 +1,347 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.ClosedWatchServiceException;
+import java.nio.file.FileVisitResult;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.SimpleFileVisitor;
+import java.nio.file.StandardWatchEventKinds;
+import java.nio.file.WatchEvent;
+import java.nio.file.WatchKey;
+import java.nio.file.WatchService;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.text.MessageFormat;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+
+import com.google.common.base.Preconditions;
+
+/**
+ * Keeps EDT resource signatures of a project current while the project is being changed and writes sync. states
+ * from them on demand or when changes settle down.<br>
+ *
+ * The 'src' tree of the project is hashed once and then watched with a {@link WatchService}: only files reported as
+ * changed are re-hashed, removed files and folders are dropped. Changes are applied in a batch right before a state
+ * is written, so a burst of changes to the same file is hashed once. A lost event (an overflow) or a huge batch of
+ * changes (e.g. a checkout of another branch) falls back to a full parallel collection.
+ *
+ * @author Alexander Tretyakevich
+ */
+public final class SyncStateWatcher
+    implements AutoCloseable
+{
+    /*
+     * Re-hashing of a larger batch one by one is slower than a parallel collection of the whole project
+     */
+    private static final int FULL_COLLECTION_THRESHOLD = 1024;
+
+    private final Path sourceProjectFolder;
+    private final long debounceNanos;
+    private final Consumer<Map<Path, byte[]>> stateWriter;
+    private final SignatureCollector collector;
+    private final WatchService watchService;
+    private final Map<WatchKey, Path> watchedFolders = new HashMap<>();
+    private final Thread watcherThread;
+
+    // Guarded by this
+    private final Map<Path, byte[]> signatures = new HashMap<>();
+    private final Set<Path> changedPaths = new HashSet<>();
+    private boolean fullCollectionRequired;
+    private long lastChangeNanos;
+
+    /**
+     * Constructs a watcher, it is started by {@link #start()}
+     *
+     * @param sourceProjectFolder The project folder. Cannot be {@code null}
+     * @param settings Generation settings. Cannot be {@code null}
+     * @param debounceMillis The time in milliseconds without changes after that a state is written, non-positive values
+     * stand for writing on demand only
+     * @param stateWriter Writes a state from actual signatures mapped to absolute resource paths. Cannot be
+     * {@code null}
+     */
+    SyncStateWatcher(Path sourceProjectFolder, GenerationSettings settings, long debounceMillis,
+        Consumer<Map<Path, byte[]>> stateWriter)
+    {
+        this.sourceProjectFolder = Preconditions.checkNotNull(sourceProjectFolder);
+        this.debounceNanos = TimeUnit.MILLISECONDS.toNanos(Math.max(debounceMillis, 0));
+        this.stateWriter = Preconditions.checkNotNull(stateWriter);
+        try
+        {
+            this.watchService = sourceProjectFolder.getFileSystem().newWatchService();
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        this.collector = new SignatureCollector(settings);
+        this.watcherThread = new Thread(this::watch, "ib-sync-state-watcher"); //$NON-NLS-1$
+        this.watcherThread.setDaemon(true);
+    }
+
+    /**
+     * Starts watching the project: folders are registered first, so changes made during the initial collection are
+     * not lost, then all resources are hashed and the state is written
+     */
+    void start()
+    {
+        Path sourceFolder = sourceProjectFolder.resolve(EdtIBSynchronizationStateManager.SOURCE_FOLDER);
+        synchronized (this)
+        {
+            register(sourceFolder, null);
+            signatures.putAll(collector.collect(sourceProjectFolder, (SignatureCache)null));
+            stateWriter.accept(signatures);
+        }
+        watcherThread.start();
+    }
+
+    /**
+     * Applies changes collected so far and writes the state if there are any changes
+     *
+     * @return {@code true} if the state was written, {@code false} if there were no changes
+     */
+    public synchronized boolean writeIfChanged()
+    {
+        if (!fullCollectionRequired && changedPaths.isEmpty())
+        {
+            return false;
+        }
+        write();
+        return true;
+    }
+
+    /**
+     * Applies changes collected so far and writes the state
+     */
+    public synchronized void write()
+    {
+        long start = System.nanoTime();
+        int changes = changedPaths.size();
+        if (fullCollectionRequired || changes > FULL_COLLECTION_THRESHOLD)
+        {
+            // Folders created after a lost event are not registered yet
+            register(sourceProjectFolder.resolve(EdtIBSynchronizationStateManager.SOURCE_FOLDER), null);
+            signatures.clear();
+            signatures.putAll(collector.collect(sourceProjectFolder, (SignatureCache)null));
+            System.out.println(MessageFormat.format("All resources re-hashed ({0} changes)", //$NON-NLS-1$
+                fullCollectionRequired ? "lost" : changes)); //$NON-NLS-1$
+        }
+        else
+        {
+            int removed = 0;
+            for (Path path : changedPaths)
+            {
+                if (Files.isRegularFile(path))
+                {
+                    try
+                    {
+                        signatures.put(path, SignatureHasher.computeSignature(path, Files.size(path)));
+                    }
+                    catch (IOException | UncheckedIOException e)
+                    {
+                        // Removed after the event, the removal is reported by another event
+                    }
+                }
+                else if (signatures.remove(path) != null)
+                {
+                    removed++;
+                }
+                else
+                {
+                    // A removed folder
+                    removed += removeNested(path);
+                }
+            }
+            System.out.println(
+                MessageFormat.format("Resources updated: {0} changes, {1} removed", changes, removed)); //$NON-NLS-1$
+        }
+        changedPaths.clear();
+        fullCollectionRequired = false;
+
+        stateWriter.accept(signatures);
+        System.out.println(MessageFormat.format("Sync. state written in {0} ms", //$NON-NLS-1$
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start)));
+    }
+
+    /**
+     * Stops watching, pending changes are written
+     */
+    @Override
+    public void close()
+    {
+        try
+        {
+            watchService.close();
+        }
+        catch (IOException e)
+        {
+            // Nothing to do, the service is abandoned
+        }
+        try
+        {
+            watcherThread.join();
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+        try
+        {
+            writeIfChanged();
+        }
+        finally
+        {
+            collector.close();
+        }
+    }
+
+    private void watch()
+    {
+        try
+        {
+            while (true)
+            {
+                long remaining = getRemainingDebounceNanos();
+                WatchKey key = remaining < 0 ? watchService.take() : watchService.poll(remaining, TimeUnit.NANOSECONDS);
+                if (key != null)
+                {
+                    processEvents(key);
+                }
+                else
+                {
+                    writeQuietly();
+                }
+            }
+        }
+        catch (ClosedWatchServiceException e)
+        {
+            // Closed
+        }
+        catch (InterruptedException e)
+        {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /*
+     * The time left until pending changes are written, negative if there is nothing to wait for
+     */
+    private synchronized long getRemainingDebounceNanos()
+    {
+        if (debounceNanos == 0 || (!fullCollectionRequired && changedPaths.isEmpty()))
+        {
+            return -1;
+        }
+        return Math.max(lastChangeNanos + debounceNanos - System.nanoTime(), 0);
+    }
+
+    private synchronized void processEvents(WatchKey key)
+    {
+        Path folder = watchedFolders.get(key);
+        for (WatchEvent<?> event : key.pollEvents())
+        {
+            if (event.kind() == StandardWatchEventKinds.OVERFLOW || folder == null)
+            {
+                fullCollectionRequired = true;
+                continue;
+            }
+
+            Path path = folder.resolve((Path)event.context());
+            if (event.kind() == StandardWatchEventKinds.ENTRY_CREATE && Files.isDirectory(path))
+            {
+                try
+                {
+                    // Files may be created before the folder is registered
+                    register(path, changedPaths);
+                }
+                catch (UncheckedIOException e)
+                {
+                    fullCollectionRequired = true;
+                }
+            }
+            else if (event.kind() != StandardWatchEventKinds.ENTRY_MODIFY || !Files.isDirectory(path))
+            {
+                changedPaths.add(path);
+            }
+        }
+        if (!key.reset())
+        {
+            watchedFolders.remove(key);
+        }
+        lastChangeNanos = System.nanoTime();
+    }
+
+    private void writeQuietly()
+    {
+        try
+        {
+            writeIfChanged();
+        }
+        catch (RuntimeException e)
+        {
+            // The previous state is kept, the next change or request writes it again
+            synchronized (this)
+            {
+                fullCollectionRequired = true;
+                lastChangeNanos = System.nanoTime();
+            }
+            System.out.println(MessageFormat.format("Sync. state is not written: {0}", e.getMessage())); //$NON-NLS-1$
+        }
+    }
+
+    /*
+     * Registers a folder tree, its files are added to given changed paths if any
+     */
+    private void register(Path folder, Set<Path> files)
+    {
+        try
+        {
+            Files.walkFileTree(folder, new SimpleFileVisitor<Path>()
+            {
+                @Override
+                public FileVisitResult preVisitDirectory(Path dir, BasicFileAttributes attrs) throws IOException
+                {
+                    watchedFolders.put(dir.register(watchService, StandardWatchEventKinds.ENTRY_CREATE,
+                        StandardWatchEventKinds.ENTRY_DELETE, StandardWatchEventKinds.ENTRY_MODIFY), dir);
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFile(Path file, BasicFileAttributes attrs)
+                {
+                    if (files != null)
+                    {
+                        files.add(file);
+                    }
+                    return FileVisitResult.CONTINUE;
+                }
+
+                @Override
+                public FileVisitResult visitFileFailed(Path file, IOException e)
+                {
+                    // Removed while being walked, the removal is reported by another event
+                    return FileVisitResult.CONTINUE;
+                }
+            });
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private int removeNested(Path folder)
+    {
+        int size = signatures.size();
+        signatures.keySet().removeIf(path -> path.startsWith(folder));
+        return size - signatures.size();
+    }
+}
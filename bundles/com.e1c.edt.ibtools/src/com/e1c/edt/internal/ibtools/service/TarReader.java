@@ -0,0 +1,284 @@
+/**
+ * Copyright (C) 2026, 1C-Soft LLC
+ */
+package com.e1c.edt.internal.ibtools.service;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Streaming reader of tar archives in the POSIX (pax) format as {@code git archive} writes them. Only regular files
+ * are passed to the consumer, their content is read straight from the archive stream and is never buffered in full.
+ *
+ * @author Alexander Tretyakevich
+ */
+final class TarReader
+{
+    private static final int BLOCK_SIZE = 512;
+    private static final int NAME_OFFSET = 0;
+    private static final int NAME_LENGTH = 100;
+    private static final int SIZE_OFFSET = 124;
+    private static final int SIZE_LENGTH = 12;
+    private static final int TYPE_OFFSET = 156;
+    private static final int PREFIX_OFFSET = 345;
+    private static final int PREFIX_LENGTH = 155;
+
+    private static final byte REGULAR_FILE = '0';
+    private static final byte OLD_REGULAR_FILE = 0;
+    private static final byte EXTENDED_HEADER = 'x';
+
+    private static final String PATH_RECORD = "path"; //$NON-NLS-1$
+    private static final String SIZE_RECORD = "size"; //$NON-NLS-1$
+
+    private TarReader()
+    {
+        // Utility class
+    }
+
+    /**
+     * Reads an archive up to its end marker passing regular files to a given consumer.
+     *
+     * @param archive The archive stream, it is not closed. Cannot be {@code null}
+     * @param consumer The consumer of regular files. Cannot be {@code null}
+     * @throws IOException if the archive cannot be read or is malformed
+     */
+    static void read(InputStream archive, EntryConsumer consumer) throws IOException
+    {
+        byte[] header = new byte[BLOCK_SIZE];
+        String extendedPath = null;
+        long extendedSize = -1;
+        while (true)
+        {
+            readBlock(archive, header);
+            if (isZeroBlock(header))
+            {
+                return;
+            }
+
+            byte type = header[TYPE_OFFSET];
+            long size = parseOctal(header, SIZE_OFFSET, SIZE_LENGTH);
+            if (type == EXTENDED_HEADER)
+            {
+                // Records of an extended header apply to the next entry only
+                byte[] records = archive.readNBytes(Math.toIntExact(size));
+                if (records.length < size)
+                {
+                    throw new EOFException();
+                }
+                skipPadding(archive, size);
+                extendedPath = null;
+                extendedSize = -1;
+                String value = getRecord(records, PATH_RECORD);
+                if (value != null)
+                {
+                    extendedPath = value;
+                }
+                value = getRecord(records, SIZE_RECORD);
+                if (value != null)
+                {
+                    extendedSize = Long.parseLong(value);
+                }
+                continue;
+            }
+
+            if (extendedSize >= 0)
+            {
+                size = extendedSize;
+            }
+            if (type == REGULAR_FILE || type == OLD_REGULAR_FILE)
+            {
+                String path = extendedPath != null ? extendedPath : getName(header);
+                BoundedInputStream content = new BoundedInputStream(archive, size);
+                consumer.accept(path, size, content);
+                content.skipRest();
+            }
+            else
+            {
+                // Folders, links and global headers
+                archive.skipNBytes(size);
+            }
+            skipPadding(archive, size);
+            extendedPath = null;
+            extendedSize = -1;
+        }
+    }
+
+    private static void readBlock(InputStream archive, byte[] block) throws IOException
+    {
+        if (archive.readNBytes(block, 0, BLOCK_SIZE) < BLOCK_SIZE)
+        {
+            throw new EOFException("Unexpected end of the archive"); //$NON-NLS-1$
+        }
+    }
+
+    private static void skipPadding(InputStream archive, long size) throws IOException
+    {
+        long remainder = size % BLOCK_SIZE;
+        if (remainder != 0)
+        {
+            archive.skipNBytes(BLOCK_SIZE - remainder);
+        }
+    }
+
+    private static boolean isZeroBlock(byte[] block)
+    {
+        for (byte value : block)
+        {
+            if (value != 0)
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static String getName(byte[] header)
+    {
+        String name = getString(header, NAME_OFFSET, NAME_LENGTH);
+        String prefix = getString(header, PREFIX_OFFSET, PREFIX_LENGTH);
+        return prefix.isEmpty() ? name : prefix + '/' + name;
+    }
+
+    private static String getString(byte[] header, int offset, int length)
+    {
+        int end = offset;
+        while (end < offset + length && header[end] != 0)
+        {
+            end++;
+        }
+        return new String(header, offset, end - offset, StandardCharsets.UTF_8);
+    }
+
+    private static long parseOctal(byte[] header, int offset, int length) throws IOException
+    {
+        long value = 0;
+        for (int idx = offset; idx < offset + length; idx++)
+        {
+            byte digit = header[idx];
+            if (digit == 0 || digit == ' ')
+            {
+                if (value > 0)
+                {
+                    break;
+                }
+                continue;
+            }
+            if (digit < '0' || digit > '7')
+            {
+                throw new IOException("Malformed size of an archive entry"); //$NON-NLS-1$
+            }
+            value = (value << 3) + (digit - '0');
+        }
+        return value;
+    }
+
+    /*
+     * Records of an extended header are "<length> <key>=<value>\n", the length covers the whole record
+     */
+    private static String getRecord(byte[] records, String key) throws IOException
+    {
+        int position = 0;
+        while (position < records.length)
+        {
+            int space = position;
+            while (space < records.length && records[space] != ' ')
+            {
+                space++;
+            }
+            int length;
+            try
+            {
+                length = Integer.parseInt(new String(records, position, space - position, StandardCharsets.US_ASCII));
+            }
+            catch (NumberFormatException e)
+            {
+                throw new IOException("Malformed extended header of an archive entry", e); //$NON-NLS-1$
+            }
+            if (length < space - position + 2 || position + length > records.length)
+            {
+                throw new IOException("Malformed extended header of an archive entry"); //$NON-NLS-1$
+            }
+            String record = new String(records, space + 1, position + length - space - 2, StandardCharsets.UTF_8);
+            int separator = record.indexOf('=');
+            if (separator > 0 && record.substring(0, separator).equals(key))
+            {
+                return record.substring(separator + 1);
+            }
+            position += length;
+        }
+        return null;
+    }
+
+    /**
+     * Consumer of regular files of an archive
+     */
+    @FunctionalInterface
+    interface EntryConsumer
+    {
+        /**
+         * Accepts a file. The content does not have to be read to the end, it must not be closed.
+         *
+         * @param path The file path as it is stored in the archive. Never {@code null}
+         * @param size The size of the content
+         * @param content The content. Never {@code null}
+         * @throws IOException if the content cannot be read
+         */
+        void accept(String path, long size, InputStream content) throws IOException;
+    }
+
+    /*
+     * Content of an entry, it ends with the entry
+     */
+    private static final class BoundedInputStream
+        extends InputStream
+    {
+        private final InputStream archive;
+        private long remaining;
+
+        BoundedInputStream(InputStream archive, long size)
+        {
+            this.archive = archive;
+            this.remaining = size;
+        }
+
+        @Override
+        public int read() throws IOException
+        {
+            if (remaining == 0)
+            {
+                return -1;
+            }
+            int value = archive.read();
+            if (value == -1)
+            {
+                throw new EOFException();
+            }
+            remaining--;
+            return value;
+        }
+
+        @Override
+        public int read(byte[] buffer, int offset, int length) throws IOException
+        {
+            if (remaining == 0)
+            {
+                return length == 0 ? 0 : -1;
+            }
+            int read = archive.read(buffer, offset, (int)Math.min(length, remaining));
+            if (read == -1)
+            {
+                throw new EOFException();
+            }
+            remaining -= read;
+            return read;
+        }
+
+        void skipRest() throws IOException
+        {
+            archive.skipNBytes(remaining);
+            remaining = 0;
+        }
+    }
+}